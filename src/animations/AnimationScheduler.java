@@ -0,0 +1,240 @@
+package animations;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs console animations on a dedicated render thread with fixed-timestep pacing.
+ * <p>
+ * An animation is described as a pure function of its tick number, so the
+ * scheduler is free to decide which ticks are drawn:
+ * </p>
+ * <ul>
+ *     <li>Tick {@code n} is due at {@code start + n * frameMillis}; sleeping until
+ *         that absolute time keeps the frame rate stable no matter how long a
+ *         render takes.</li>
+ *     <li>When rendering falls behind, ticks that are already overdue are skipped
+ *         so the animation keeps its real-time speed. The final tick is always drawn.</li>
+ *     <li>Each tick is rendered into a back buffer which is then swapped with the
+ *         front buffer; the presenter and {@link Handle#copyLatestFrame(char[])}
+ *         only ever see complete frames.</li>
+ * </ul>
+ * <p>
+ * {@link #start} returns immediately with a {@link Handle}, so the caller can do
+ * real work (logging in, warming up the database) while the animation plays and
+ * then {@link Handle#await() wait} for it or {@link Handle#cancel() cancel} it.
+ * </p>
+ */
+public class AnimationScheduler {
+
+    /**
+     * Draws one frame of an animation.
+     */
+    public interface Animation {
+        /**
+         * Renders the given tick into the frame buffer.
+         *
+         * @param frame the buffer to draw into; its previous content is undefined
+         * @param tick  the tick to draw, starting at 0
+         * @return {@code true} if more frames follow, {@code false} if this was the last one
+         */
+        boolean render(char[] frame, int tick);
+    }
+
+    /**
+     * Shows a finished frame, typically by writing it to the terminal.
+     */
+    public interface Presenter {
+        /**
+         * Presents a complete frame.
+         *
+         * @param frame the frame to show; must not be modified or kept
+         * @param tick  the tick the frame belongs to
+         */
+        void present(char[] frame, int tick);
+    }
+
+    /** Private constructor to prevent instantiation. */
+    private AnimationScheduler() {}
+
+    /**
+     * Starts an animation on a new daemon render thread.
+     *
+     * @param name        thread name suffix, used for diagnostics
+     * @param cells       frame size in characters
+     * @param frameMillis duration of one tick in milliseconds
+     * @param maxTicks    number of ticks in the animation, or {@link Integer#MAX_VALUE}
+     *                    if the animation decides when to stop
+     * @param animation   renders each tick
+     * @param presenter   shows each rendered frame
+     * @return a handle for waiting on or cancelling the animation
+     */
+    public static Handle start(String name, int cells, long frameMillis, int maxTicks,
+                               Animation animation, Presenter presenter) {
+        Handle handle = new Handle(cells, frameMillis, maxTicks, animation, presenter);
+        Thread thread = new Thread(handle::runLoop, "animation-" + name);
+        thread.setDaemon(true);
+        handle.thread = thread;
+        thread.start();
+        return handle;
+    }
+
+    /**
+     * Controls a running animation.
+     */
+    public static final class Handle {
+
+        private final long periodNanos;
+        private final int lastTick;
+        private final Animation animation;
+        private final Presenter presenter;
+
+        /** Guards {@link #front} and {@link #frontTick}. */
+        private final Object swapLock = new Object();
+
+        /** Most recently completed frame. */
+        private char[] front;
+
+        /** Frame currently being rendered. */
+        private char[] back;
+
+        /** Tick held in {@link #front}, or -1 before the first frame. */
+        private int frontTick = -1;
+
+        private volatile boolean cancelled;
+        private volatile int framesRendered;
+        private volatile int framesSkipped;
+        private volatile RuntimeException failure;
+        private Thread thread;
+
+        private Handle(int cells, long frameMillis, int maxTicks, Animation animation, Presenter presenter) {
+            this.periodNanos = Math.max(1, frameMillis) * 1_000_000L;
+            this.lastTick = Math.max(1, maxTicks) - 1;
+            this.animation = animation;
+            this.presenter = presenter;
+            this.front = new char[cells];
+            this.back = new char[cells];
+        }
+
+        /**
+         * Asks the animation to stop after the frame in progress. Does not wait.
+         */
+        public void cancel() {
+            cancelled = true;
+            LockSupport.unpark(thread);
+        }
+
+        /**
+         * Checks whether the render thread has finished.
+         *
+         * @return {@code true} if the animation ended or was cancelled
+         */
+        public boolean isDone() {
+            return !thread.isAlive();
+        }
+
+        /**
+         * Waits until the animation ends. If the waiting thread is interrupted,
+         * the animation is cancelled before the exception propagates.
+         *
+         * @throws InterruptedException if the waiting thread is interrupted
+         * @throws IllegalStateException if the animation failed while rendering
+         */
+        public void await() throws InterruptedException {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                cancel();
+                throw e;
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Animation failed", failure);
+            }
+        }
+
+        /**
+         * Cancels the animation and waits for the render thread to stop.
+         */
+        public void cancelAndAwait() {
+            cancel();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Copies the most recently completed frame.
+         *
+         * @param dest destination buffer, at least as long as a frame
+         * @return the tick of the copied frame, or -1 if nothing was rendered yet
+         */
+        public int copyLatestFrame(char[] dest) {
+            synchronized (swapLock) {
+                if (frontTick >= 0) {
+                    System.arraycopy(front, 0, dest, 0, front.length);
+                }
+                return frontTick;
+            }
+        }
+
+        /**
+         * Returns how many frames were rendered and presented.
+         *
+         * @return rendered frame count
+         */
+        public int framesRendered() {
+            return framesRendered;
+        }
+
+        /**
+         * Returns how many ticks were skipped because rendering fell behind.
+         *
+         * @return skipped tick count
+         */
+        public int framesSkipped() {
+            return framesSkipped;
+        }
+
+        /**
+         * Fixed-timestep render loop executed on the animation thread.
+         */
+        private void runLoop() {
+            long start = System.nanoTime();
+            int tick = 0;
+            try {
+                while (!cancelled) {
+                    boolean more = animation.render(back, tick);
+
+                    char[] done;
+                    synchronized (swapLock) {
+                        done = back;
+                        back = front;
+                        front = done;
+                        frontTick = tick;
+                    }
+                    presenter.present(done, tick);
+                    framesRendered++;
+
+                    if (!more || tick >= lastTick) break;
+
+                    int next = tick + 1;
+                    int due = (int) Math.min(lastTick, (System.nanoTime() - start) / periodNanos);
+                    if (due > next) {
+                        framesSkipped += due - next;
+                        next = due;
+                    }
+
+                    long wakeAt = start + next * periodNanos;
+                    long remaining;
+                    while (!cancelled && (remaining = wakeAt - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(this, remaining);
+                    }
+                    tick = next;
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package animations;
+
+import java.util.Arrays;
+
+/**
+ * Small stand-alone benchmark comparing the two disco ball renderers.
+ * <p>
+ * It renders the same rotating ball with {@link DiscoBallRenderer#renderBallDirect}
+ * (per-point trigonometry) and {@link DiscoBallRenderer#renderBall} (precomputed
+ * mesh), checks that both produce identical frames, and prints frames per second
+ * for each.
+ * </p>
+ *
+ * <p><b>Usage:</b></p>
+ * <pre>{@code
+ * java -cp out animations.DiscoBallBenchmark [seconds-per-run]
+ * }</pre>
+ */
+public class DiscoBallBenchmark {
+
+    /** Frames rendered before timing starts, so both paths are JIT-compiled. */
+    private static final int WARMUP_FRAMES = 2_000;
+
+    /** Renders one frame; implemented by both renderer variants. */
+    private interface Renderer {
+        void render(char[] frame, double[] z, double a, double b);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional measurement time per renderer in seconds (default 3)
+     */
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 3.0;
+
+        int width = DiscoPartyOnTheFloor.WIDTH;
+        int height = DiscoPartyOnTheFloor.HEIGHT;
+        double aspect = DiscoPartyOnTheFloor.ASPECT_RATIO;
+
+        Renderer direct = (f, z, a, b) ->
+                DiscoBallRenderer.renderBallDirect(f, z, width, height, a, b, 0, 15, 30.0, aspect);
+        Renderer mesh = (f, z, a, b) ->
+                DiscoBallRenderer.renderBall(f, z, width, height, a, b, 0, 15, 30.0, aspect);
+
+        verifyIdentical(direct, mesh, width * height);
+
+        System.out.println("Sphere mesh points: " + DiscoBallRenderer.meshSize());
+        double directFps = measure("direct (per-point trig)", direct, width * height, seconds);
+        double meshFps = measure("mesh   (precomputed)   ", mesh, width * height, seconds);
+        System.out.printf("Speed-up: %.2fx%n", meshFps / directFps);
+    }
+
+    /**
+     * Renders a few hundred frames with both renderers and fails if any differ.
+     *
+     * @param direct     reference renderer
+     * @param mesh       mesh renderer
+     * @param bufferSize frame size in cells
+     */
+    private static void verifyIdentical(Renderer direct, Renderer mesh, int bufferSize) {
+        char[] f1 = new char[bufferSize], f2 = new char[bufferSize];
+        double[] z1 = new double[bufferSize], z2 = new double[bufferSize];
+        double a = 0, b = 0;
+        for (int frame = 0; frame < 500; frame++) {
+            clear(f1, z1);
+            clear(f2, z2);
+            direct.render(f1, z1, a, b);
+            mesh.render(f2, z2, a, b);
+            if (!Arrays.equals(f1, f2)) {
+                throw new IllegalStateException("Renderers disagree at frame " + frame);
+            }
+            a += 0.04;
+            b += 0.08;
+        }
+    }
+
+    /**
+     * Measures how many frames per second a renderer produces.
+     *
+     * @param label      name printed with the result
+     * @param renderer   renderer under test
+     * @param bufferSize frame size in cells
+     * @param seconds    measurement time
+     * @return frames per second
+     */
+    private static double measure(String label, Renderer renderer, int bufferSize, double seconds) {
+        char[] frame = new char[bufferSize];
+        double[] z = new double[bufferSize];
+        double a = 0, b = 0;
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            clear(frame, z);
+            renderer.render(frame, z, a += 0.04, b += 0.08);
+        }
+
+        long budget = (long) (seconds * 1_000_000_000L);
+        long start = System.nanoTime();
+        long frames = 0;
+        char sink = 0;
+        while (System.nanoTime() - start < budget) {
+            clear(frame, z);
+            renderer.render(frame, z, a += 0.04, b += 0.08);
+            sink ^= frame[(int) (frames % bufferSize)];
+            frames++;
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        double fps = frames / elapsed;
+        System.out.printf("%s: %,10.0f frames/sec%s%n", label, fps, sink == 1 ? " " : "");
+        return fps;
+    }
+
+    /**
+     * Resets a frame and its depth buffer.
+     *
+     * @param frame character buffer
+     * @param z     depth buffer
+     */
+    private static void clear(char[] frame, double[] z) {
+        Arrays.fill(frame, ' ');
+        Arrays.fill(z, 0);
+    }
+}
@@ -9,13 +9,142 @@ package animations;
  * correct depth rendering, and lighting values determine which ASCII
  * characters appear brighter or dimmer.
  * </p>
+ * <p>
+ * The default {@link #renderBall} path walks a sphere mesh that is built once
+ * and stored in flat {@code double[]} arrays, so a frame costs only four
+ * trigonometric calls for the rotation. {@link #renderBallDirect} keeps the
+ * original per-point evaluation and is used as the reference in
+ * {@link DiscoBallBenchmark}; both produce identical frames.
+ * </p>
  */
 
 public class DiscoBallRenderer {
 
+    /** Step between neighbouring sphere samples, in radians, for both angles. */
+    private static final double MESH_STEP = 0.06;
+
+    /**
+     * Unit-sphere sample points, stored as separate coordinate arrays.
+     * For a unit sphere the surface normal equals the position, so these
+     * arrays double as the normals used by the lighting term.
+     */
+    private static final double[] MESH_X;
+    private static final double[] MESH_Y;
+    private static final double[] MESH_Z;
+
+    static {
+        int count = 0;
+        for (double i = 0; i < 6.28; i += MESH_STEP) {
+            for (double j = 0; j < 3.14; j += MESH_STEP) {
+                count++;
+            }
+        }
+
+        MESH_X = new double[count];
+        MESH_Y = new double[count];
+        MESH_Z = new double[count];
+
+        // Same accumulated i/j values as renderBallDirect, so frames match exactly.
+        int k = 0;
+        for (double i = 0; i < 6.28; i += MESH_STEP) {
+            double sinI = Math.sin(i), cosI = Math.cos(i);
+            for (double j = 0; j < 3.14; j += MESH_STEP) {
+                double sinJ = Math.sin(j);
+                MESH_X[k] = sinJ * cosI;
+                MESH_Y[k] = sinJ * sinI;
+                MESH_Z[k] = Math.cos(j);
+                k++;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of points in the precomputed sphere mesh.
+     *
+     * @return mesh point count
+     */
+    public static int meshSize() {
+        return MESH_X.length;
+    }
+
+    /**
+     * Renders a 3D rotating disco ball into the provided frame buffer and z-buffer
+     * using the precomputed sphere mesh.
+     * <p>
+     * The rotation coefficients are computed once per call; the inner loop is a
+     * tight pass over the flat mesh arrays with no trigonometric calls. The output
+     * is identical to {@link #renderBallDirect}.
+     * </p>
+     *
+     * @param frameBuffer the character array representing the screen; will be modified by this method
+     * @param zBuffer     the z-depth array corresponding to the frame buffer
+     * @param width       the width of the frame in characters
+     * @param height      the height of the frame in characters
+     * @param A           rotation angle around the X-axis
+     * @param B           rotation angle around the Y-axis
+     * @param C           rotation angle around the Z-axis (currently unused but retained for extensibility)
+     * @param centerY     vertical center point where the disco ball will be drawn
+     * @param radius      radius of the disco ball in projection space
+     * @param aspectRatio scaling factor used to correct vertical stretching in character-based terminals
+     */
+    public static void renderBall(
+            char[] frameBuffer,
+            double[] zBuffer,
+            int width,
+            int height,
+            double A,
+            double B,
+            double C,
+            int centerY,
+            double radius,
+            double aspectRatio
+    ) {
+        if (frameBuffer == null || zBuffer == null) return;
+        if (frameBuffer.length != zBuffer.length) return;
+
+        double sinA = Math.sin(A), cosA = Math.cos(A);
+        double sinB = Math.sin(B), cosB = Math.cos(B);
+
+        double[] mx = MESH_X, my = MESH_Y, mz = MESH_Z;
+        int halfWidth = width / 2;
+
+        for (int k = 0; k < mx.length; k++) {
+            double x0 = mx[k];
+            double y0 = my[k];
+            double z0 = mz[k];
+
+            double y1 = y0 * cosA - z0 * sinA;
+            double z2 = y0 * sinA + z0 * cosA;
+
+            double x2 = x0 * cosB - y1 * sinB;
+            double y2 = x0 * sinB + y1 * cosB;
+
+            double D = 1 / (z2 + 3.5);
+
+            int xp = (int) (halfWidth + radius * D * x2);
+            int yp = (int) (centerY + (radius * D * y2) * aspectRatio);
+
+            if (xp < 0 || xp >= width || yp < 0 || yp >= height) continue;
+
+            int idx = xp + width * yp;
+            if (D <= zBuffer[idx]) continue;
+            zBuffer[idx] = D;
+
+            double L = x2 * 0.5 + y2 * 0.5 - z2 * 0.5;
+            if (L > 0) {
+                if (L > 0.8) frameBuffer[idx] = '8';
+                else if (L > 0.6) frameBuffer[idx] = ((xp + yp) % 2 == 0) ? '<' : '>';
+                else if (L > 0.3) frameBuffer[idx] = ';';
+                else frameBuffer[idx] = '.';
+            }
+        }
+    }
+
    /**
-     * Renders a 3D rotating disco ball into the provided frame buffer and z-buffer.
+     * Renders a 3D rotating disco ball into the provided frame buffer and z-buffer,
+     * evaluating the sphere parametrization for every point of every frame.
      * <p>
+     * Kept as the reference implementation for {@link #renderBall}.
      * This method:
      * <ul>
      *   <li>Iterates over spherical coordinates (i, j) to form a sphere</li>
@@ -40,7 +169,7 @@ public class DiscoBallRenderer {
     *  @author Can
     *  @author Mikail
      */
-    public static void renderBall(
+    public static void renderBallDirect(
             char[] frameBuffer,
             double[] zBuffer,
             int width,
@@ -1,6 +1,8 @@
 package animations;
 
 import java.util.Arrays;
+import java.util.function.IntFunction;
+
 /**
  * Renders an ASCII-based disco party scene in the console.
  * <p>
@@ -10,6 +12,8 @@ import java.util.Arrays;
  *     <li>Running a timed animation where the disco ball rotates</li>
  *     <li>Animating floor tiles, light beams, and dancers in rhythm</li>
  * </ul>
+ * Light beams are drawn from a {@link LightBeamTable} that caches the
+ * per-cell polar geometry, so each frame only applies a phase shift.
  * The output is written directly to {@code System.out} using ANSI escape
  * codes to clear and reposition the cursor.
  * </p>
@@ -28,6 +32,37 @@ public class DiscoPartyOnTheFloor {
      */
     public static final double ASPECT_RATIO = 0.5;
 
+    /** Duration of one disco party tick in milliseconds. */
+    public static final long DISCO_FRAME_MS = 80;
+
+    /** Duration of one goodbye sequence frame in milliseconds. */
+    public static final long GOODBYE_FRAME_MS = 60;
+
+    /** Number of frames in the goodbye sequence. */
+    public static final int GOODBYE_FRAMES = 80;
+
+    /** ASCII-art banner shown at the end of the goodbye sequence. */
+    private static final String[] GOODBYE_BANNER = {
+        " _____                 _  _                  ",
+        "|  __ \\               | || |                 ",
+        "| |  \\/  ___    ___   | || |__   _   _   ___ ",
+        "| | __  / _ \\  / _ \\  | || '_ \\ | | | | / _ \\",
+        "| |_\\ \\| (_) || (_) | | || |_) || |_| ||  __/",
+        " \\____/ \\___/  \\___/  |_||_.__/  \\__, | \\___|",
+        "                                  __/ |      ",
+        "                                 |___/       "
+    };
+
+    /** ANSI reset sequence; palette index 0 of every frame encoder. */
+    private static final String RESET = "\u001B[0m";
+
+    /** ANSI yellow, used for the goodbye banner and dancers. */
+    private static final String YELLOW = "\u001B[33m";
+
+    /** Colors everything except the floor, rope and blank cells (palette index 1). */
+    private static final FrameEncoder.ColorMap GOODBYE_COLORS =
+            ch -> (ch != ' ' && ch != '#' && ch != '.' && ch != '|') ? 1 : 0;
+
     // ---------------------------------------------------------------------
     // 1. TYPE: SIDE DANCERS
     // ---------------------------------------------------------------------
@@ -160,22 +195,8 @@ public class DiscoPartyOnTheFloor {
         }
 
         double C = 0.0;
-        for (int y = 0; y < startFloorY + 5; y++) {
-            for (int x = 0; x < width; x++) {
-                double xx = (x - width / 2.0) / (width / 2.0);
-                double yy = (y - 15) / (height / 2.0) / ASPECT_RATIO;
-                double dist = Math.sqrt(xx * xx + yy * yy);
-                double angle = Math.atan2(yy, xx);
-                double ray = Math.sin(angle * 5 + C);
-
-                if (dist > 0.4 && ray > 0.8) {
-                    int idx = x + width * y;
-                    if (idx < bufferSize && frameBuffer[idx] == ' ') {
-                        frameBuffer[idx] = (ray > 0.95) ? '|' : ';';
-                    }
-                }
-            }
-        }
+        LightBeamTable beams = LightBeamTable.forSize(width, height, 15, ASPECT_RATIO);
+        beams.apply(frameBuffer, C, 0.4, startFloorY + 5);
 
         DiscoBallRenderer.renderBall(
                 frameBuffer,
@@ -214,131 +235,141 @@ public class DiscoPartyOnTheFloor {
         }
         System.out.print(sb.toString());
     }
- /**
-     * Runs the animated disco party for a given duration.
+    /**
+     * Runs the animated disco party for a given duration and waits for it to end.
+     * <p>
+     * The animation plays on a separate render thread (see {@link #startDisco(long)});
+     * this method simply blocks until it finishes.
+     * </p>
+     *     @author Mikail
+     *     @author Can
+     * @param durationMillis duration of the animation in milliseconds
+     * @throws InterruptedException if the waiting thread is interrupted; the animation is cancelled
+     */
+    public static void runDisco(long durationMillis) throws InterruptedException {
+        startDisco(durationMillis).await();
+    }
+
+    /**
+     * Starts the animated disco party on its own render thread and returns immediately.
      * <p>
-     * Inside the loop this method:
+     * Each tick of {@value #DISCO_FRAME_MS} ms:
      * <ul>
      *     <li>Animates the disco floor tiles</li>
      *     <li>Animates the rope and light beams</li>
-     *     <li>Rotates the disco ball by updating angles A, B, C</li>
+     *     <li>Rotates the disco ball by angles A, B, C derived from the tick</li>
      *     <li>Changes the poses of dancers according to a rhythm tick</li>
-     *     <li>Reprints the entire frame on each iteration</li>
+     *     <li>Sends each frame through a {@link FrameEncoder}, which only redraws changed cells</li>
      * </ul>
-     * The loop stops when the given duration (in milliseconds) has elapsed.
+     * When the {@link FrameCache} is enabled, the frames are replayed from the
+     * cache file instead of being rendered.
+     * The caller may do other work meanwhile and stop the party early with
+     * {@link AnimationScheduler.Handle#cancel()}.
      * </p>
-     *     @author Mikail
-     *     @author Can
+     *
      * @param durationMillis duration of the animation in milliseconds
-     * @throws InterruptedException if {@link Thread#sleep(long)} is interrupted
+     * @return handle of the running animation
      */
-    public static void runDisco(long durationMillis) throws InterruptedException {
+    public static AnimationScheduler.Handle startDisco(long durationMillis) {
         int width = WIDTH;
         int height = HEIGHT;
         int bufferSize = width * height;
 
-        double aspectRatio = ASPECT_RATIO;
-
-        double A = 0, B = 0, C = 0;
-        int tick = 0;
-
         double[] zBuffer = new double[bufferSize];
-        char[] frameBuffer = new char[bufferSize];
+        LightBeamTable beams = LightBeamTable.forSize(width, height, 15, ASPECT_RATIO);
+        String[] palette = { RESET };
+
+        int ticks = (int) Math.max(1, durationMillis / DISCO_FRAME_MS);
+        AnimationScheduler.Animation animation = (frame, tick) -> {
+            renderDiscoFrame(frame, zBuffer, beams, tick);
+            return true;
+        };
+
+        AnimationScheduler.Handle cached = FrameCache.play("disco-" + ticks, width, height, DISCO_FRAME_MS,
+                ticks, palette, tick -> FrameEncoder.NO_COLOR, animation);
+        if (cached != null) return cached;
+
+        FrameEncoder encoder = new FrameEncoder(width, height, palette);
+        return AnimationScheduler.start("disco", bufferSize, DISCO_FRAME_MS, ticks, animation,
+                (frame, tick) -> encoder.encode(frame, FrameEncoder.NO_COLOR));
+    }
 
-        System.out.print("\u001b[2J");
+    /**
+     * Draws one frame of the disco party. All motion is derived from the tick,
+     * so any tick can be rendered independently.
+     *
+     * @param frameBuffer frame to draw into
+     * @param zBuffer     depth buffer of the same size
+     * @param beams       cached light beam geometry
+     * @param tick        animation tick
+     */
+    private static void renderDiscoFrame(char[] frameBuffer, double[] zBuffer, LightBeamTable beams, int tick) {
+        int width = WIDTH;
+        int height = HEIGHT;
+        int bufferSize = width * height;
 
-        long endTime = System.currentTimeMillis() + durationMillis;
+        double A = 0.04 * tick;
+        double B = 0.08 * tick;
+        double C = -0.05 * tick;
 
-        while (System.currentTimeMillis() < endTime) {
-            Arrays.fill(frameBuffer, ' ');
-            Arrays.fill(zBuffer, 0);
+        Arrays.fill(frameBuffer, ' ');
+        Arrays.fill(zBuffer, 0);
 
-            int floorHeight = 16;
-            int startFloorY = height - floorHeight;
-            for (int y = startFloorY; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    int idx = x + width * y;
-                    int tileX = x / 10;
-                    int tileY = (y - startFloorY) / 3;
-                    boolean isTile = (tileX + tileY) % 2 == 0;
+        int floorHeight = 16;
+        int startFloorY = height - floorHeight;
+        for (int y = startFloorY; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int idx = x + width * y;
+                int tileX = x / 10;
+                int tileY = (y - startFloorY) / 3;
+                boolean isTile = (tileX + tileY) % 2 == 0;
 
-                    if (isTile) {
-                        if ((tick / 6 + tileX) % 3 == 0) frameBuffer[idx] = '#';
-                        else frameBuffer[idx] = ':';
-                    } else {
-                        frameBuffer[idx] = '.';
-                    }
+                if (isTile) {
+                    if ((tick / 6 + tileX) % 3 == 0) frameBuffer[idx] = '#';
+                    else frameBuffer[idx] = ':';
+                } else {
+                    frameBuffer[idx] = '.';
                 }
             }
+        }
 
-            int ballCenterX = width / 2;
-            for (int y = 0; y < 12; y++) {
-                int idx = ballCenterX + width * y;
-                if (idx < bufferSize) {
-                    frameBuffer[idx] = '|';
-                    if (tick % 2 == 0 && idx + 1 < bufferSize) frameBuffer[idx + 1] = '.';
-                }
+        int ballCenterX = width / 2;
+        for (int y = 0; y < 12; y++) {
+            int idx = ballCenterX + width * y;
+            if (idx < bufferSize) {
+                frameBuffer[idx] = '|';
+                if (tick % 2 == 0 && idx + 1 < bufferSize) frameBuffer[idx + 1] = '.';
             }
+        }
 
-            for (int y = 0; y < startFloorY + 5; y++) {
-                for (int x = 0; x < width; x++) {
-                    double xx = (x - width / 2.0) / (width / 2.0);
-                    double yy = (y - 15) / (height / 2.0) / aspectRatio;
-                    double dist = Math.sqrt(xx * xx + yy * yy);
-                    double angle = Math.atan2(yy, xx);
-                    double ray = Math.sin(angle * 5 + C);
-
-                    if (dist > 0.4 && ray > 0.8) {
-                        int idx = x + width * y;
-                        if (idx < bufferSize && frameBuffer[idx] == ' ') {
-                            frameBuffer[idx] = (ray > 0.95) ? '|' : ';';
-                        }
-                    }
-                }
-            }
+        beams.apply(frameBuffer, C, 0.4, startFloorY + 5);
 
-            DiscoBallRenderer.renderBall(
-                    frameBuffer,
-                    zBuffer,
-                    width,
-                    height,
-                    A,
-                    B,
-                    C,
-                    15,
-                    30.0,
-                    aspectRatio
-            );
-
-            int rhythmBack = (tick / 6) % 2;
-            String[] poseCouple = (rhythmBack == 0) ? COUPLE_POSE_1 : COUPLE_POSE_2;
-            drawDancer(frameBuffer, width, height, poseCouple, 26, 35, true);
-            drawDancer(frameBuffer, width, height, poseCouple, 44, 35, false);
-
-            int rhythmSide = (tick / 5) % 4;
-            String[] poseSide = (rhythmSide % 2 == 0) ? SIDE_DANCER_1 : SIDE_DANCER_2;
-            drawDancer(frameBuffer, width, height, poseSide, 8, 39, false);
-            drawDancer(frameBuffer, width, height, poseSide, 62, 39, false);
-
-            int rhythmCenter = (tick / 4) % 2;
-            String[] poseCenter = (rhythmCenter == 0) ? CENTER_POSE_A : CENTER_POSE_B;
-            drawDancer(frameBuffer, width, height, poseCenter, 34, 43, false);
-
-            StringBuilder sb = new StringBuilder();
-            sb.append("\u001b[H");
-            for (int i = 0; i < bufferSize; i++) {
-                sb.append(frameBuffer[i]);
-                if (i % width == width - 1) sb.append('\n');
-            }
-            System.out.print(sb.toString());
+        DiscoBallRenderer.renderBall(
+                frameBuffer,
+                zBuffer,
+                width,
+                height,
+                A,
+                B,
+                C,
+                15,
+                30.0,
+                ASPECT_RATIO
+        );
 
-            A += 0.04;
-            B += 0.08;
-            C -= 0.05;
-            tick++;
+        int rhythmBack = (tick / 6) % 2;
+        String[] poseCouple = (rhythmBack == 0) ? COUPLE_POSE_1 : COUPLE_POSE_2;
+        drawDancer(frameBuffer, width, height, poseCouple, 26, 35, true);
+        drawDancer(frameBuffer, width, height, poseCouple, 44, 35, false);
 
-            Thread.sleep(80);
-        }
+        int rhythmSide = (tick / 5) % 4;
+        String[] poseSide = (rhythmSide % 2 == 0) ? SIDE_DANCER_1 : SIDE_DANCER_2;
+        drawDancer(frameBuffer, width, height, poseSide, 8, 39, false);
+        drawDancer(frameBuffer, width, height, poseSide, 62, 39, false);
+
+        int rhythmCenter = (tick / 4) % 2;
+        String[] poseCenter = (rhythmCenter == 0) ? CENTER_POSE_A : CENTER_POSE_B;
+        drawDancer(frameBuffer, width, height, poseCenter, 34, 43, false);
     }
 
     /**
@@ -402,6 +433,9 @@ public class DiscoPartyOnTheFloor {
      *   <li>Gradually adds a stylized "GOODBYE" ASCII text after a certain frame</li>
      *   <li>Renders each frame to the console with basic coloring</li>
      * </ul>
+     * The frames are drawn on the animation render thread at a fixed
+     * {@value #GOODBYE_FRAME_MS} ms timestep, or replayed from the {@link FrameCache};
+     * this method waits for them.
      * @author Mikail
      * @author Can
      * <p>After the animation finishes, the console is cleared and a farewell
@@ -412,122 +446,126 @@ public class DiscoPartyOnTheFloor {
         int height = HEIGHT;
         int bufferSize = width * height;
 
-        double aspectRatio = ASPECT_RATIO;
-
-        double A = 0, B = 0, C = 0; 
+        double[] zBuffer = new double[bufferSize];
+        LightBeamTable beams = LightBeamTable.forSize(width, height, 15, ASPECT_RATIO);
+        String[] palette = { RESET, YELLOW };
+        IntFunction<FrameEncoder.ColorMap> colors = tick -> tick > 50 ? GOODBYE_COLORS : FrameEncoder.NO_COLOR;
+        AnimationScheduler.Animation animation = (frame, tick) -> {
+            renderGoodbyeFrame(frame, zBuffer, beams, tick);
+            return true;
+        };
+
+        AnimationScheduler.Handle handle = FrameCache.play("goodbye", width, height, GOODBYE_FRAME_MS,
+                GOODBYE_FRAMES, palette, colors, animation);
+        if (handle == null) {
+            FrameEncoder encoder = new FrameEncoder(width, height, palette);
+            handle = AnimationScheduler.start("goodbye", bufferSize, GOODBYE_FRAME_MS, GOODBYE_FRAMES,
+                    animation, (frame, tick) -> encoder.encode(frame, colors.apply(tick)));
+        }
+        try {
+            handle.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         
-        int dancerOffset = 0;
-        int centerDancerY = 34; 
+        System.out.print("\033[H\033[2J");
+        System.out.flush();
+        printFarewell();
+    }
 
-        double[] zBuffer = new double[bufferSize];
-        char[] frameBuffer = new char[bufferSize];
+    /**
+     * Draws one frame of the goodbye sequence. The disco ball slows down and
+     * stops during the first 20 frames, the dancers walk off after frame 20 and
+     * the banner appears after frame 50.
+     *
+     * @param frameBuffer frame to draw into
+     * @param zBuffer     depth buffer of the same size
+     * @param beams       cached light beam geometry
+     * @param frame       frame number
+     */
+    private static void renderGoodbyeFrame(char[] frameBuffer, double[] zBuffer, LightBeamTable beams, int frame) {
+        int width = WIDTH;
+        int height = HEIGHT;
+        int bufferSize = width * height;
 
-        for (int frame = 0; frame < 80; frame++) {
-            Arrays.fill(frameBuffer, ' ');
-            Arrays.fill(zBuffer, 0);
-
-            int floorHeight = 16;
-            int startFloorY = height - floorHeight;
-            for (int y = startFloorY; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    int idx = x + width * y;
-                    int tileX = x / 10;
-                    int tileY = (y - startFloorY) / 3;
-                    boolean isTile = (tileX + tileY) % 2 == 0;
-                    if (isTile) frameBuffer[idx] = '#';
-                    else frameBuffer[idx] = '.';
-                }
-            }
+        // The ball decelerates linearly: frame k advances the angles by (1 - k/20) of a full step.
+        // Beams use C before this frame's step, the ball uses the angles after it.
+        double A = 0, B = 0, C = 0;
+        double beamC = 0;
+        for (int k = 0; k <= frame && k < 20; k++) {
+            beamC = C;
+            A += 0.04 * (1 - k / 20.0);
+            B += 0.08 * (1 - k / 20.0);
+            C -= 0.05 * (1 - k / 20.0);
+        }
 
-            int ballCenterX = width / 2;
-            for (int y = 0; y < 12; y++) {
-                int idx = ballCenterX + width * y;
-                if (idx < bufferSize) frameBuffer[idx] = '|';
-            }
+        int dancerOffset = 2 * Math.max(0, frame - 20);
+        int centerDancerY = 34 + Math.max(0, frame - 20);
 
-            if (frame < 20) {
-                for (int y = 0; y < startFloorY + 5; y++) {
-                    for (int x = 0; x < width; x++) {
-                        double xx = (x - width / 2.0) / (width / 2.0);
-                        double yy = (y - 15) / (height / 2.0) / aspectRatio;
-                        double dist = Math.sqrt(xx * xx + yy * yy);
-                        double angle = Math.atan2(yy, xx);
-                        double ray = Math.sin(angle * 5 + C);
-                        if (dist > 0.4 + (frame/40.0) && ray > 0.8) { 
-                            int idx = x + width * y;
-                            if (idx < bufferSize && frameBuffer[idx] == ' ') {
-                                frameBuffer[idx] = (ray > 0.95) ? '|' : ';';
-                            }
-                        }
-                    }
-                }
-                 A += 0.04 * (1 - frame/20.0); 
-                 B += 0.08 * (1 - frame/20.0);
-                 C -= 0.05 * (1 - frame/20.0);
+        Arrays.fill(frameBuffer, ' ');
+        Arrays.fill(zBuffer, 0);
+
+        int floorHeight = 16;
+        int startFloorY = height - floorHeight;
+        for (int y = startFloorY; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int idx = x + width * y;
+                int tileX = x / 10;
+                int tileY = (y - startFloorY) / 3;
+                boolean isTile = (tileX + tileY) % 2 == 0;
+                if (isTile) frameBuffer[idx] = '#';
+                else frameBuffer[idx] = '.';
             }
+        }
 
-            DiscoBallRenderer.renderBall(
-                    frameBuffer, zBuffer, width, height,
-                    A, B, C, 15, 30.0, aspectRatio
-            );
+        int ballCenterX = width / 2;
+        for (int y = 0; y < 12; y++) {
+            int idx = ballCenterX + width * y;
+            if (idx < bufferSize) frameBuffer[idx] = '|';
+        }
 
-            if (frame > 20) {
-                dancerOffset += 2; 
-                centerDancerY += 1; 
-            }
+        if (frame < 20) {
+            beams.apply(frameBuffer, beamC, 0.4 + (frame / 40.0), startFloorY + 5);
+        }
 
-            drawDancer(frameBuffer, width, height, COUPLE_POSE_2, 26 - dancerOffset, 35, true);
-            drawDancer(frameBuffer, width, height, COUPLE_POSE_2, 44 + dancerOffset, 35, false);
+        DiscoBallRenderer.renderBall(
+                frameBuffer, zBuffer, width, height,
+                A, B, C, 15, 30.0, ASPECT_RATIO
+        );
 
-            drawDancer(frameBuffer, width, height, SIDE_DANCER_2, 8 - (dancerOffset + 2), 39, false);
-            drawDancer(frameBuffer, width, height, SIDE_DANCER_2, 62 + (dancerOffset + 2), 39, false);
+        drawDancer(frameBuffer, width, height, COUPLE_POSE_2, 26 - dancerOffset, 35, true);
+        drawDancer(frameBuffer, width, height, COUPLE_POSE_2, 44 + dancerOffset, 35, false);
 
-            if (34 + centerDancerY < height + 10) { 
-                 drawDancer(frameBuffer, width, height, CENTER_POSE_B, 34, 43 + (frame - 20), false);
-            }
+        drawDancer(frameBuffer, width, height, SIDE_DANCER_2, 8 - (dancerOffset + 2), 39, false);
+        drawDancer(frameBuffer, width, height, SIDE_DANCER_2, 62 + (dancerOffset + 2), 39, false);
 
-            if (frame > 50) {
-                String[] byeText = {
-                    " _____                 _  _                  ",
-                    "|  __ \\               | || |                 ",
-                    "| |  \\/  ___    ___   | || |__   _   _   ___ ",
-                    "| | __  / _ \\  / _ \\  | || '_ \\ | | | | / _ \\",
-                    "| |_\\ \\| (_) || (_) | | || |_) || |_| ||  __/",
-                    " \\____/ \\___/  \\___/  |_||_.__/  \\__, | \\___|",
-                    "                                  __/ |      ",
-                    "                                 |___/       "
-                };
-     
-                int textY = 18; 
-                for (int r = 0; r < byeText.length; r++) {
-                    String line = byeText[r];
-                    int textX = (width - line.length()) / 2; 
-                    for (int k = 0; k < line.length(); k++) {
-                         int idx = (textX + k) + width * (textY + r);
-                         if (idx >= 0 && idx < bufferSize) {
-                             frameBuffer[idx] = line.charAt(k);
-                         }
-                    }
-                }
-            }
+        if (34 + centerDancerY < height + 10) { 
+             drawDancer(frameBuffer, width, height, CENTER_POSE_B, 34, 43 + (frame - 20), false);
+        }
 
-            StringBuilder sb = new StringBuilder();
-            sb.append("\u001b[H"); // Cursor Home
-            for (int i = 0; i < bufferSize; i++) {
-                if (frame > 50 && frameBuffer[i] != ' ' && frameBuffer[i] != '#' && frameBuffer[i] != '.' && frameBuffer[i] != '|') {
-                     sb.append("\u001B[33m").append(frameBuffer[i]).append("\u001B[0m");
-                } else {
-                     sb.append(frameBuffer[i]);
+        if (frame > 50) {
+            int textY = 18; 
+            for (int r = 0; r < GOODBYE_BANNER.length; r++) {
+                String line = GOODBYE_BANNER[r];
+                int textX = (width - line.length()) / 2; 
+                for (int k = 0; k < line.length(); k++) {
+                     int idx = (textX + k) + width * (textY + r);
+                     if (idx >= 0 && idx < bufferSize) {
+                         frameBuffer[idx] = line.charAt(k);
+                     }
                 }
-                if (i % width == width - 1) sb.append('\n');
             }
-            System.out.print(sb.toString());
-
-            try { Thread.sleep(60); } catch (InterruptedException e) {}
         }
-        
-        System.out.print("\033[H\033[2J");
-        System.out.flush();
+    }
+
+    /**
+     * Prints the closing farewell message without any animation.
+     * <p>
+     * Used at the end of {@link #runGoodbyeSequence()} and on its own when
+     * animations are disabled.
+     * </p>
+     */
+    public static void printFarewell() {
         System.out.println("\n\n");
         System.out.println("        See you next time on the dance floor!       ");
         System.out.println("\n\n");
@@ -0,0 +1,365 @@
+package animations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Disk cache of pre-rendered, pre-encoded animation frames.
+ * <p>
+ * The disco party, the goodbye sequence and the fixed loading screens are pure
+ * functions of their tick, so every run draws exactly the same frames. When the
+ * cache is enabled, the first run of an animation renders all of its ticks once,
+ * passes them through a {@link FrameEncoder} and stores the resulting terminal
+ * output in a file. Every later run maps that file read-only and replays it:
+ * presenting a tick is a single channel write of a slice of the mapping, with no
+ * rendering, encoding or allocation.
+ * </p>
+ * <p>
+ * Because the stored frames are diffs against the previous frame, a replay
+ * never drops a tick's bytes. When the render thread falls behind, the skipped
+ * ticks are written together with the next one, which is still one contiguous
+ * write.
+ * </p>
+ *
+ * <p><b>File layout</b> (big-endian):</p>
+ * <pre>
+ * int    magic "CMSF"
+ * int    renderer version
+ * int    width, height
+ * int    slots   (ticks requested)
+ * int    count   (ticks recorded, at most slots)
+ * int    key length, followed by the UTF-8 key
+ * long[] slots + 1 absolute offsets; frame i spans [offset[i], offset[i + 1])
+ * byte[] encoded frames
+ * </pre>
+ * <p>
+ * A file is only replayed if its version, dimensions, key and tick count match
+ * the request. Anything else is re-recorded, so changing a renderer only
+ * requires bumping {@link #RENDERER_VERSION}.
+ * </p>
+ * <p>
+ * The cache is off by default. It is enabled with the {@value #CACHE_FLAG}
+ * argument or the {@value #CACHE_ENV} environment variable. The variable may also
+ * name the cache directory. Any I/O error disables the cache for the rest of the
+ * session, and the animations are then rendered live.
+ * </p>
+ */
+public class FrameCache {
+
+    /**
+     * Version of the frame renderers. Bump it whenever the output of the disco,
+     * goodbye or loading screen renderers changes, so stale files are re-recorded.
+     */
+    public static final int RENDERER_VERSION = 1;
+
+    /** Command-line argument that enables the cache. */
+    public static final String CACHE_FLAG = "--frame-cache";
+
+    /** Environment variable that enables the cache; {@code 1}/{@code true} or a directory path. */
+    public static final String CACHE_ENV = "CMS_FRAME_CACHE";
+
+    /** Identifies a frame cache file ("CMSF"). */
+    private static final int MAGIC = 0x434D5346;
+
+    /** Size of the fixed part of the header, before the key bytes. */
+    private static final int FIXED_HEADER_BYTES = 7 * Integer.BYTES;
+
+    /** Directory holding the cache files, or {@code null} while the cache is disabled. */
+    private static volatile Path directory;
+
+    /** Recordings already mapped in this session, by cache key. */
+    private static final Map<String, Recording> MAPPED = new ConcurrentHashMap<>();
+
+    /** Private constructor to prevent instantiation. */
+    private FrameCache() {}
+
+    /**
+     * Enables or disables the cache from the command line and environment.
+     *
+     * @param args the command-line arguments passed to {@code main}
+     * @return {@code true} if the cache is enabled
+     */
+    public static boolean configure(String[] args) {
+        boolean enabled = false;
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"), "cms-frame-cache");
+
+        if (args != null) {
+            for (String arg : args) {
+                if (CACHE_FLAG.equalsIgnoreCase(arg)) enabled = true;
+            }
+        }
+        String env = System.getenv(CACHE_ENV);
+        if (env != null && !env.isBlank() && !env.equals("0") && !env.equalsIgnoreCase("false")) {
+            enabled = true;
+            if (!env.equals("1") && !env.equalsIgnoreCase("true")) {
+                dir = Paths.get(env);
+            }
+        }
+
+        directory = enabled ? dir : null;
+        return enabled;
+    }
+
+    /**
+     * Returns whether frames are being cached.
+     *
+     * @return {@code true} if the cache is enabled
+     */
+    public static boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Plays an animation from the cache, recording it first if no valid cache
+     * file exists yet.
+     *
+     * @param key         unique name of the animation, including anything that changes its frames
+     * @param width       frame width in characters
+     * @param height      frame height in characters
+     * @param frameMillis duration of one tick in milliseconds
+     * @param ticks       number of ticks to record and play
+     * @param palette     palette of the {@link FrameEncoder} used for recording
+     * @param colors      color map to use for each tick
+     * @param animation   renders a tick; only called while recording
+     * @return handle of the replay, or {@code null} if the cache is disabled or
+     *         unusable and the caller should render live
+     */
+    public static AnimationScheduler.Handle play(String key, int width, int height, long frameMillis, int ticks,
+                                                 String[] palette, IntFunction<FrameEncoder.ColorMap> colors,
+                                                 AnimationScheduler.Animation animation) {
+        Path dir = directory;
+        if (dir == null) return null;
+
+        try {
+            Recording recording = MAPPED.get(key);
+            if (recording == null || !recording.matches(key, width, height, ticks)) {
+                Path file = dir.resolve(fileName(key));
+                recording = Recording.open(file, key, width, height, ticks);
+                if (recording == null) {
+                    record(file, key, width, height, ticks, palette, colors, animation);
+                    recording = Recording.open(file, key, width, height, ticks);
+                    if (recording == null) throw new IOException("Unreadable frame cache " + file);
+                }
+                MAPPED.put(key, recording);
+            }
+
+            Replay replay = new Replay(recording);
+            return AnimationScheduler.start(key, 1, frameMillis, recording.count, replay, replay);
+        } catch (IOException | RuntimeException e) {
+            directory = null;
+            return null;
+        }
+    }
+
+    /**
+     * Renders and encodes every tick of an animation into a cache file. The file
+     * is written under a temporary name and moved into place when complete.
+     *
+     * @param file      destination file
+     * @param key       animation key stored in the header
+     * @param width     frame width in characters
+     * @param height    frame height in characters
+     * @param ticks     number of ticks to record
+     * @param palette   encoder palette
+     * @param colors    color map for each tick
+     * @param animation renders each tick
+     * @throws IOException if the file cannot be written
+     */
+    private static void record(Path file, String key, int width, int height, int ticks, String[] palette,
+                               IntFunction<FrameEncoder.ColorMap> colors,
+                               AnimationScheduler.Animation animation) throws IOException {
+        Files.createDirectories(file.getParent());
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long tableStart = FIXED_HEADER_BYTES + keyBytes.length;
+        long[] offsets = new long[ticks + 1];
+
+        FrameEncoder encoder = new FrameEncoder(width, height, palette);
+        char[] frame = new char[width * height];
+
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.position(tableStart + (long) Long.BYTES * offsets.length);
+
+                int count = 0;
+                boolean more = true;
+                while (more && count < ticks) {
+                    more = animation.render(frame, count);
+                    offsets[count] = channel.position();
+                    encoder.encodeToBuffer(frame, colors.apply(count));
+                    encoder.writeTo(channel);
+                    count++;
+                }
+                offsets[count] = channel.position();
+
+                ByteBuffer header = ByteBuffer.allocate((int) tableStart + Long.BYTES * offsets.length);
+                header.putInt(MAGIC).putInt(RENDERER_VERSION).putInt(width).putInt(height)
+                      .putInt(ticks).putInt(count).putInt(keyBytes.length).put(keyBytes);
+                for (long offset : offsets) header.putLong(offset);
+                header.flip();
+                channel.position(0);
+                while (header.hasRemaining()) channel.write(header);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Turns a cache key into a safe file name.
+     *
+     * @param key the animation key
+     * @return the file name
+     */
+    private static String fileName(String key) {
+        return key.replaceAll("[^A-Za-z0-9._-]", "_") + ".frames";
+    }
+
+    /**
+     * A validated, memory-mapped cache file.
+     */
+    private static final class Recording {
+
+        private final String key;
+        private final int width;
+        private final int height;
+        private final int slots;
+        private final int count;
+
+        /** Position of the offset table within {@link #data}. */
+        private final int tableStart;
+
+        /** The whole file, mapped read-only. */
+        private final MappedByteBuffer data;
+
+        private Recording(String key, int width, int height, int slots, int count,
+                          int tableStart, MappedByteBuffer data) {
+            this.key = key;
+            this.width = width;
+            this.height = height;
+            this.slots = slots;
+            this.count = count;
+            this.tableStart = tableStart;
+            this.data = data;
+        }
+
+        /**
+         * Maps a cache file and checks that it matches the request.
+         *
+         * @param file   the cache file
+         * @param key    expected animation key
+         * @param width  expected frame width
+         * @param height expected frame height
+         * @param ticks  expected number of requested ticks
+         * @return the recording, or {@code null} if the file is missing, stale or damaged
+         * @throws IOException if the file exists but cannot be read
+         */
+        static Recording open(Path file, String key, int width, int height, int ticks) throws IOException {
+            if (!Files.isRegularFile(file)) return null;
+
+            MappedByteBuffer data;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < FIXED_HEADER_BYTES || size > Integer.MAX_VALUE) return null;
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            if (data.getInt(0) != MAGIC || data.getInt(4) != RENDERER_VERSION) return null;
+            int slots = data.getInt(16);
+            int count = data.getInt(20);
+            int keyLength = data.getInt(24);
+            if (data.getInt(8) != width || data.getInt(12) != height || slots != ticks) return null;
+            if (count < 1 || count > slots || keyLength < 0) return null;
+
+            int tableStart = FIXED_HEADER_BYTES + keyLength;
+            if ((long) tableStart + (long) Long.BYTES * (slots + 1) > data.capacity()) return null;
+
+            byte[] keyBytes = new byte[keyLength];
+            data.get(FIXED_HEADER_BYTES, keyBytes);
+            if (!key.equals(new String(keyBytes, StandardCharsets.UTF_8))) return null;
+
+            Recording recording = new Recording(key, width, height, slots, count, tableStart, data);
+            if (recording.offset(count) != data.capacity()) return null;
+            return recording;
+        }
+
+        /**
+         * Checks whether this recording can serve a request.
+         *
+         * @param key    animation key
+         * @param width  frame width
+         * @param height frame height
+         * @param ticks  requested ticks
+         * @return {@code true} if all parameters match
+         */
+        boolean matches(String key, int width, int height, int ticks) {
+            return this.key.equals(key) && this.width == width && this.height == height && this.slots == ticks;
+        }
+
+        /**
+         * Returns the file offset where the given frame starts.
+         *
+         * @param frame frame index, up to {@link #count} for the end of the data
+         * @return absolute offset in the file
+         */
+        int offset(int frame) {
+            return (int) data.getLong(tableStart + Long.BYTES * frame);
+        }
+    }
+
+    /**
+     * Plays a recording on an {@link AnimationScheduler} thread. Rendering does
+     * nothing; presenting writes every frame since the last one presented.
+     */
+    private static final class Replay implements AnimationScheduler.Animation, AnimationScheduler.Presenter {
+
+        private final Recording recording;
+
+        /** Private view of the mapping, so concurrent replays do not share a position. */
+        private final ByteBuffer view;
+
+        /** Next frame whose bytes have not been written yet. */
+        private int nextFrame;
+
+        Replay(Recording recording) {
+            this.recording = recording;
+            this.view = recording.data.duplicate();
+        }
+
+        @Override
+        public boolean render(char[] frame, int tick) {
+            return tick < recording.count - 1;
+        }
+
+        @Override
+        public void present(char[] frame, int tick) {
+            int from = recording.offset(nextFrame);
+            int to = recording.offset(tick + 1);
+            nextFrame = tick + 1;
+
+            System.out.flush();
+            view.clear();
+            view.position(from).limit(to);
+            try {
+                FileChannel stdout = FrameEncoder.stdoutChannel();
+                while (view.hasRemaining()) {
+                    stdout.write(view);
+                }
+            } catch (IOException e) {
+                // The terminal went away; nothing sensible to draw on.
+            }
+        }
+    }
+}
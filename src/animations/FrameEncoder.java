@@ -0,0 +1,306 @@
+package animations;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes character frames into ANSI terminal output, sending only what changed.
+ * <p>
+ * The encoder remembers the previous frame and, for each new one:
+ * </p>
+ * <ul>
+ *     <li>Skips cells whose character and color are unchanged</li>
+ *     <li>Jumps over unchanged stretches with a single cursor-move escape
+ *         (short gaps are simply rewritten, which is cheaper)</li>
+ *     <li>Emits a color escape only when the color actually changes, so runs of
+ *         same-colored cells share one code instead of a color/RESET pair each</li>
+ * </ul>
+ * <p>
+ * Bytes are written into one reusable direct {@link ByteBuffer} and flushed
+ * straight to the stdout {@link FileChannel}, so steady-state frames allocate
+ * nothing. The buffer is sized for the worst case of a full redraw.
+ * </p>
+ *
+ * <p><b>Usage example:</b></p>
+ * <pre>{@code
+ * FrameEncoder encoder = new FrameEncoder(WIDTH, HEIGHT, new String[] { RESET, CYAN });
+ * while (running) {
+ *     render(frameBuffer);
+ *     encoder.encode(frameBuffer, ch -> ch == '#' ? 1 : 0);
+ * }
+ * }</pre>
+ */
+public class FrameEncoder {
+
+    /**
+     * Maps a character to an index into the encoder palette.
+     * Index {@code 0} is the default (uncolored) style.
+     */
+    public interface ColorMap {
+        int colorOf(char ch);
+    }
+
+    /** Color map that leaves every cell in the default style. */
+    public static final ColorMap NO_COLOR = ch -> 0;
+
+    /** Gaps of unchanged cells up to this length are rewritten instead of skipped. */
+    private static final int MAX_REWRITE_GAP = 4;
+
+    /** Worst-case bytes per cell besides the color escape: cursor move and a 3-byte UTF-8 character. */
+    private static final int MAX_BYTES_PER_CELL = 12 + 3;
+
+    /** Shared stdout channel, opened on first use. */
+    private static FileChannel stdout;
+
+    private final int width;
+    private final int height;
+
+    /** Encoded ANSI sequence for each palette index; index 0 resets the style. */
+    private final byte[][] palette;
+
+    /** Characters and colors currently shown on the terminal. */
+    private final char[] shownChars;
+    private final int[] shownColors;
+
+    /** Colors of the frame being encoded. */
+    private final int[] colors;
+
+    /** Reusable output buffer. */
+    private final ByteBuffer out;
+
+    /** {@code false} until the first frame has cleared the screen. */
+    private boolean primed;
+
+    /** Total bytes written by this encoder, for diagnostics. */
+    private long bytesWritten;
+
+    /**
+     * Creates an encoder for frames of the given size.
+     *
+     * @param width   frame width in characters
+     * @param height  frame height in characters
+     * @param palette ANSI style sequences by color index; index 0 must be the reset sequence
+     */
+    public FrameEncoder(int width, int height, String[] palette) {
+        this.width = width;
+        this.height = height;
+        this.palette = new byte[palette.length][];
+        int longestStyle = 0;
+        for (int i = 0; i < palette.length; i++) {
+            this.palette[i] = palette[i].getBytes(StandardCharsets.US_ASCII);
+            longestStyle = Math.max(longestStyle, this.palette[i].length);
+        }
+        this.shownChars = new char[width * height];
+        this.shownColors = new int[width * height];
+        this.colors = new int[width * height];
+        this.out = ByteBuffer.allocateDirect(width * height * (MAX_BYTES_PER_CELL + longestStyle) + 64);
+    }
+
+    /**
+     * Forces the next frame to clear the screen and redraw every cell.
+     * Call this after anything else has written to the terminal.
+     */
+    public void reset() {
+        primed = false;
+    }
+
+    /**
+     * Returns the number of bytes this encoder has written so far.
+     *
+     * @return total output size in bytes
+     */
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Encodes one frame, writing only the cells that differ from the previous
+     * frame, and flushes it to stdout. The cursor is left on the line below the
+     * frame with the default style.
+     *
+     * @param frame    the frame, {@code width * height} characters in row-major order
+     * @param colorMap chooses a palette index for each character
+     */
+    public void encode(char[] frame, ColorMap colorMap) {
+        encodeToBuffer(frame, colorMap);
+        flush();
+    }
+
+    /**
+     * Encodes one frame into the internal buffer without writing it.
+     * Exposed for measuring encoded size; {@link #encode} is the normal entry point.
+     *
+     * @param frame    the frame to encode
+     * @param colorMap chooses a palette index for each character
+     * @return the number of bytes the frame encodes to
+     */
+    public int encodeToBuffer(char[] frame, ColorMap colorMap) {
+        out.clear();
+
+        if (!primed) {
+            putAscii("\u001b[H\u001b[2J");
+            Arrays.fill(shownChars, ' ');
+            Arrays.fill(shownColors, 0);
+            primed = true;
+        }
+
+        int cells = width * height;
+        for (int i = 0; i < cells; i++) {
+            colors[i] = colorMap.colorOf(frame[i]);
+        }
+
+        int currentColor = 0;
+        int cursor = -1;
+
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * width;
+            int x = 0;
+            while (x < width) {
+                int idx = rowStart + x;
+                if (frame[idx] == shownChars[idx] && colors[idx] == shownColors[idx]) {
+                    x++;
+                    continue;
+                }
+
+                if (cursor != idx) {
+                    int gap = idx - cursor;
+                    if (cursor >= rowStart && gap > 0 && gap <= MAX_REWRITE_GAP) {
+                        // Rewriting a few unchanged cells is shorter than a cursor move.
+                        for (int g = cursor; g < idx; g++) {
+                            currentColor = putCell(frame[g], colors[g], currentColor);
+                        }
+                    } else {
+                        putCursorMove(y + 1, x + 1);
+                    }
+                }
+
+                currentColor = putCell(frame[idx], colors[idx], currentColor);
+                shownChars[idx] = frame[idx];
+                shownColors[idx] = colors[idx];
+                x++;
+                // After the last column the terminal's wrap behaviour varies, so force a move.
+                cursor = (x < width) ? idx + 1 : -1;
+            }
+        }
+
+        if (currentColor != 0) {
+            out.put(palette[0]);
+        }
+        putCursorMove(height + 1, 1);
+
+        out.flip();
+        return out.remaining();
+    }
+
+    /**
+     * Writes the encoded buffer to stdout.
+     */
+    private void flush() {
+        System.out.flush();
+        try {
+            writeTo(stdoutChannel());
+        } catch (IOException e) {
+            // The terminal went away; nothing sensible to draw on.
+        }
+    }
+
+    /**
+     * Writes the frame encoded by the last {@link #encodeToBuffer} call to a channel.
+     * Used by {@link FrameCache} to record frames into its cache file.
+     *
+     * @param channel destination channel
+     * @throws IOException if writing fails
+     */
+    void writeTo(WritableByteChannel channel) throws IOException {
+        while (out.hasRemaining()) {
+            bytesWritten += channel.write(out);
+        }
+    }
+
+    /**
+     * Returns the shared stdout channel.
+     *
+     * @return a channel writing to file descriptor 1
+     */
+    static synchronized FileChannel stdoutChannel() {
+        if (stdout == null) {
+            stdout = new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+        return stdout;
+    }
+
+    /**
+     * Emits one cell, switching color first if needed.
+     *
+     * @param ch           the character
+     * @param color        its palette index
+     * @param currentColor the terminal's current palette index
+     * @return the palette index active after the cell
+     */
+    private int putCell(char ch, int color, int currentColor) {
+        if (color != currentColor) {
+            out.put(palette[color]);
+        }
+        putChar(ch);
+        return color;
+    }
+
+    /**
+     * Emits {@code ESC[row;colH} with 1-based coordinates.
+     *
+     * @param row terminal row
+     * @param col terminal column
+     */
+    private void putCursorMove(int row, int col) {
+        out.put((byte) 0x1b).put((byte) '[');
+        putInt(row);
+        out.put((byte) ';');
+        putInt(col);
+        out.put((byte) 'H');
+    }
+
+    /**
+     * Emits a non-negative integer in decimal without allocating.
+     *
+     * @param value the number to write
+     */
+    private void putInt(int value) {
+        if (value >= 10) putInt(value / 10);
+        out.put((byte) ('0' + value % 10));
+    }
+
+    /**
+     * Emits a character as UTF-8.
+     *
+     * @param ch the character
+     */
+    private void putChar(char ch) {
+        if (ch < 0x80) {
+            out.put((byte) ch);
+        } else if (ch < 0x800) {
+            out.put((byte) (0xC0 | (ch >> 6)));
+            out.put((byte) (0x80 | (ch & 0x3F)));
+        } else {
+            out.put((byte) (0xE0 | (ch >> 12)));
+            out.put((byte) (0x80 | ((ch >> 6) & 0x3F)));
+            out.put((byte) (0x80 | (ch & 0x3F)));
+        }
+    }
+
+    /**
+     * Emits an ASCII string.
+     *
+     * @param text the text to write
+     */
+    private void putAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            out.put((byte) text.charAt(i));
+        }
+    }
+}
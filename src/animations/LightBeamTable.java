@@ -0,0 +1,161 @@
+package animations;
+
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed polar geometry for the rotating light beams of the disco scene.
+ * <p>
+ * The beam pattern depends on each cell's distance from the disco ball and
+ * its angle around it, and both depend only on the cell position. This table
+ * stores them once per resolution:
+ * </p>
+ * <ul>
+ *     <li>{@code dist} – normalized distance of every cell from the ball center</li>
+ *     <li>{@code phase} – five times the cell's angle, wrapped to {@code [0, 2π)}</li>
+ * </ul>
+ * <p>
+ * A frame then only shifts every phase by the animation angle {@code C} and
+ * compares it against two fixed angular windows. This is equivalent to testing
+ * {@code sin(angle * 5 + C) > 0.8} (and {@code > 0.95} for the bright core)
+ * without any per-frame {@code sqrt}, {@code atan2} or {@code sin} calls.
+ * </p>
+ */
+public class LightBeamTable {
+
+    /** Full turn in radians. */
+    private static final double TWO_PI = 2 * Math.PI;
+
+    /** Phase window where {@code sin(p) > 0.8} (beam edge, drawn as {@code ';'}). */
+    private static final double BEAM_LO = Math.asin(0.8);
+    private static final double BEAM_HI = Math.PI - BEAM_LO;
+
+    /** Phase window where {@code sin(p) > 0.95} (beam core, drawn as {@code '|'}). */
+    private static final double CORE_LO = Math.asin(0.95);
+    private static final double CORE_HI = Math.PI - CORE_LO;
+
+    /** Frame size in cells above which rows are processed in parallel. */
+    private static final int PARALLEL_THRESHOLD = 40_000;
+
+    /** Most recently built table, reused while the resolution stays the same. */
+    private static LightBeamTable cached;
+
+    private final int width;
+    private final int height;
+    private final int centerY;
+    private final double aspectRatio;
+
+    /** Normalized distance of each cell from the ball center. */
+    private final double[] dist;
+
+    /** {@code 5 * atan2(...)} of each cell, wrapped to {@code [0, 2π)}. */
+    private final double[] phase;
+
+    /**
+     * Builds the polar lookup for a frame of the given size.
+     *
+     * @param width       frame width in characters
+     * @param height      frame height in characters
+     * @param centerY     row of the disco ball center
+     * @param aspectRatio vertical scaling used to compensate for character cell height
+     */
+    public LightBeamTable(int width, int height, int centerY, double aspectRatio) {
+        this.width = width;
+        this.height = height;
+        this.centerY = centerY;
+        this.aspectRatio = aspectRatio;
+        this.dist = new double[width * height];
+        this.phase = new double[width * height];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double xx = (x - width / 2.0) / (width / 2.0);
+                double yy = (y - centerY) / (height / 2.0) / aspectRatio;
+                int idx = x + width * y;
+                dist[idx] = Math.sqrt(xx * xx + yy * yy);
+                phase[idx] = wrap(Math.atan2(yy, xx) * 5);
+            }
+        }
+    }
+
+    /**
+     * Returns a table for the given geometry, reusing the previous one when
+     * nothing changed.
+     *
+     * @param width       frame width in characters
+     * @param height      frame height in characters
+     * @param centerY     row of the disco ball center
+     * @param aspectRatio vertical scaling factor
+     * @return a table matching the requested geometry
+     */
+    public static synchronized LightBeamTable forSize(int width, int height, int centerY, double aspectRatio) {
+        LightBeamTable table = cached;
+        if (table == null || table.width != width || table.height != height
+                || table.centerY != centerY || table.aspectRatio != aspectRatio) {
+            table = new LightBeamTable(width, height, centerY, aspectRatio);
+            cached = table;
+        }
+        return table;
+    }
+
+    /**
+     * Draws the light beams into the empty cells of the given rows.
+     * <p>
+     * Cells farther than {@code minDist} from the ball whose shifted phase falls
+     * in the beam window become {@code ';'}, or {@code '|'} inside the core.
+     * Cells that already hold a character are left alone. Large frames are
+     * processed row-parallel.
+     * </p>
+     *
+     * @param frameBuffer frame to draw into; must be {@code width * height} long
+     * @param C           current beam rotation angle
+     * @param minDist     beams are only drawn beyond this normalized distance
+     * @param rows        number of rows from the top to process
+     */
+    public void apply(char[] frameBuffer, double C, double minDist, int rows) {
+        int lastRow = Math.min(rows, height);
+        if (lastRow <= 0) return;
+
+        double shift = wrap(C);
+        if ((long) lastRow * width >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, lastRow).parallel().forEach(y -> applyRow(frameBuffer, y, shift, minDist));
+        } else {
+            for (int y = 0; y < lastRow; y++) {
+                applyRow(frameBuffer, y, shift, minDist);
+            }
+        }
+    }
+
+    /**
+     * Beam pass for a single row.
+     *
+     * @param frameBuffer frame to draw into
+     * @param y           row index
+     * @param shift       beam rotation, already wrapped to {@code [0, 2π)}
+     * @param minDist     minimum normalized distance
+     */
+    private void applyRow(char[] frameBuffer, int y, double shift, double minDist) {
+        int rowStart = width * y;
+        int rowEnd = rowStart + width;
+        for (int idx = rowStart; idx < rowEnd; idx++) {
+            if (dist[idx] <= minDist || frameBuffer[idx] != ' ') continue;
+
+            double p = phase[idx] + shift;
+            if (p >= TWO_PI) p -= TWO_PI;
+
+            if (p > BEAM_LO && p < BEAM_HI) {
+                frameBuffer[idx] = (p > CORE_LO && p < CORE_HI) ? '|' : ';';
+            }
+        }
+    }
+
+    /**
+     * Wraps an angle into {@code [0, 2π)}.
+     *
+     * @param angle angle in radians
+     * @return the equivalent angle in {@code [0, 2π)}
+     */
+    private static double wrap(double angle) {
+        double w = angle % TWO_PI;
+        return (w < 0) ? w + TWO_PI : w;
+    }
+}
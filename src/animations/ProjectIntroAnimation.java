@@ -39,11 +39,12 @@ public class ProjectIntroAnimation {
     }
 
     /**
-     * Sleeps for a given number of milliseconds.
+     * Flushes pending output, then sleeps for a given number of milliseconds.
      *
      * @param ms the number of milliseconds to pause execution
      */
     private static void sleep(int ms) {
+        System.out.flush();
         try { Thread.sleep(ms); }
         catch (InterruptedException e) { Thread.currentThread().interrupt(); }
     }
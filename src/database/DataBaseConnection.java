@@ -1,8 +1,12 @@
 package database;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 /**
  * Provides a simple utility class for creating a connection to a MySQL database.
@@ -25,6 +29,13 @@ import java.sql.SQLException;
  * The database is expected to be a MySQL instance running locally on port 3306.
  * SSL is disabled and public key retrieval is allowed for compatibility.
  * </p>
+ *
+ * <p>
+ * Physical connections are kept in a small idle pool. Callers still close the
+ * returned connection (usually via try-with-resources); closing hands the
+ * physical connection back to the pool instead of tearing it down, so only
+ * the first query of a session pays the TCP and authentication handshake.
+ * </p>
  */
 public class DataBaseConnection {
 
@@ -32,7 +43,8 @@ public class DataBaseConnection {
     public static final String DATABASE_NAME = "Group5";
 
     /** JDBC connection string including host, port, and schema name. */
-    private static final String URL = "jdbc:mysql://localhost:3306/" + DATABASE_NAME + "?useSSL=false&allowPublicKeyRetrieval=true";
+    private static final String URL = "jdbc:mysql://localhost:3306/" + DATABASE_NAME + "?useSSL=false&allowPublicKeyRetrieval=true"
+            + "&connectTimeout=5000&cachePrepStmts=true&prepStmtCacheSize=64";
 
     /** MySQL username (default root for local setups). */
     private static final String USER = "root";    
@@ -40,6 +52,15 @@ public class DataBaseConnection {
     /** MySQL password for the given username. */
     private static final String PASSWORD = "1234";  
 
+    /** Fully qualified class name of the MySQL JDBC driver. */
+    private static final String DRIVER_CLASS = "com.mysql.cj.jdbc.Driver";
+
+    /** Maximum number of idle physical connections kept open for reuse. */
+    public static final int POOL_SIZE = 4;
+
+    /** Idle physical connections waiting to be borrowed; guarded by its own monitor. */
+    private static final Deque<Connection> IDLE = new ArrayDeque<>();
+
     /**
      * Private constructor to prevent instantiation.
      * This class is intended to be used statically only.
@@ -49,6 +70,10 @@ public class DataBaseConnection {
     /**
      * Attempts to establish a connection to the MySQL database using the
      * predefined URL, username, and password.
+     * <p>
+     * An idle pooled connection is reused when one is available and still
+     * valid; otherwise a new physical connection is opened.
+     * </p>
      *
      * @return a valid {@link Connection} object if successful,
      *         or {@code null} if the connection attempt fails
@@ -56,13 +81,145 @@ public class DataBaseConnection {
      */
     public static Connection getConnection() {
         try {
-            return DriverManager.getConnection(URL, USER, PASSWORD);
+            return wrap(borrowPhysical());
         } catch (SQLException e) {
             System.out.println("Failed to connect to database!");
             e.printStackTrace();
             return null;
         }
     }
-}
 
+    /**
+     * Loads the MySQL JDBC driver class so that the first real connection
+     * does not pay the class loading and driver registration cost.
+     *
+     * @return {@code true} if the driver is on the classpath, otherwise {@code false}
+     */
+    public static boolean loadDriver() {
+        try {
+            Class.forName(DRIVER_CLASS);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens physical connections until the idle pool holds {@link #POOL_SIZE}
+     * connections. Unlike {@link #getConnection()}, failures are reported to
+     * the caller instead of being printed, so this can run in the background.
+     *
+     * @throws SQLException if a connection cannot be opened
+     */
+    public static void fillPool() throws SQLException {
+        while (idleCount() < POOL_SIZE) {
+            release(DriverManager.getConnection(URL, USER, PASSWORD));
+        }
+    }
+
+    /**
+     * Returns the number of idle physical connections currently pooled.
+     *
+     * @return idle connection count
+     */
+    public static int idleCount() {
+        synchronized (IDLE) {
+            return IDLE.size();
+        }
+    }
+
+    /**
+     * Takes a valid idle connection from the pool, or opens a new one.
+     *
+     * @return an open physical connection
+     * @throws SQLException if a new connection cannot be opened
+     */
+    private static Connection borrowPhysical() throws SQLException {
+        while (true) {
+            Connection idle;
+            synchronized (IDLE) {
+                idle = IDLE.pollFirst();
+            }
+            if (idle == null) {
+                return DriverManager.getConnection(URL, USER, PASSWORD);
+            }
+            if (idle.isValid(1)) {
+                return idle;
+            }
+            closeQuietly(idle);
+        }
+    }
+
+    /**
+     * Returns a physical connection to the idle pool, or closes it when the
+     * pool is already full or the connection is no longer usable.
+     *
+     * @param physical the connection to give back
+     */
+    private static void release(Connection physical) {
+        try {
+            if (physical.isClosed()) return;
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            closeQuietly(physical);
+            return;
+        }
+        synchronized (IDLE) {
+            if (IDLE.size() < POOL_SIZE) {
+                IDLE.addFirst(physical);
+                return;
+            }
+        }
+        closeQuietly(physical);
+    }
 
+    /**
+     * Wraps a physical connection so that {@link Connection#close()} returns it
+     * to the pool. Every other call is forwarded unchanged.
+     *
+     * @param physical the pooled physical connection
+     * @return a connection handle that is valid until it is closed once
+     */
+    private static Connection wrap(Connection physical) {
+        boolean[] closed = { false };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                release(physical);
+                            }
+                            return null;
+                        case "isClosed":
+                            return closed[0] || physical.isClosed();
+                        default:
+                            if (closed[0] && method.getDeclaringClass() == Connection.class) {
+                                throw new SQLException("Connection is closed");
+                            }
+                            try {
+                                return method.invoke(physical, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    /**
+     * Closes a connection, ignoring any error.
+     *
+     * @param connection the connection to close
+     */
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
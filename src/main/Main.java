@@ -1,10 +1,14 @@
 package main;
+import animations.FrameCache;
+import menu.ConsoleWriter;
 import menu.MenuItems;
 import menu.MenuUtils;
+import static animations.DiscoPartyOnTheFloor.printFarewell;
 import static animations.DiscoPartyOnTheFloor.runGoodbyeSequence;
 import static menu.MenuUtils.*;
 import models.User;
 import services.AuthService;
+import services.StartupWarmUp;
 import input.Input;
 
 public class Main {
@@ -13,22 +17,40 @@ public class Main {
      * <p>
      * This method:
      * <ul>
-     *   <li>Runs the startup animation sequence,</li>
+     *   <li>Starts the background database warm-up and runs the startup animation sequence,</li>
      *   <li>Displays the main menu with options to log in or exit,</li>
      *   <li>Handles user input and validates the selected option,</li>
      *   <li>Performs user authentication via {@link AuthService},</li>
      *   <li>On successful login, transitions to the logged-in user's menu,</li>
      *   <li>On exit, plays the goodbye animation and terminates the program.</li>
      * </ul>
+     * <p>
+     * Passing {@code --fast} (or {@code --no-animation}), setting
+     * {@code CMS_FAST_START=1}, or running without an interactive console
+     * selects fast-start mode, which skips all animations, screen clears and
+     * cosmetic pauses. The time from launch to the first menu prompt is
+     * reported under the main menu header.
+     * </p>
+     * <p>
+     * Passing {@code --frame-cache} or setting {@code CMS_FRAME_CACHE} replays
+     * the animations from pre-rendered frames (see {@link FrameCache}).
+     * </p>
      *
      * @author Can
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments; {@code --fast} / {@code --no-animation} enable fast-start mode,
+     *             {@code --frame-cache} enables the animation frame cache
      */
     public static void main(String[] args) {
+        long launchedAt = System.nanoTime();
+        boolean firstPrompt = true;
 
+        ConsoleWriter.install();
+        configureFastMode(args);
+        FrameCache.configure(args);
+        StartupWarmUp warmUp = StartupWarmUp.start();
         AuthService authService = new AuthService();
         
-        MenuItems.runStartupSequence();
+        MenuItems.runStartupSequence(warmUp);
 
         while (true) {
             clear(); 
@@ -45,12 +67,19 @@ public class Main {
             printMenuHeader("MAIN MENU");
             printOption("1", "Login");
             printOption("0", "Exit");
+            if (firstPrompt) {
+                long elapsedMs = (System.nanoTime() - launchedAt) / 1_000_000;
+                System.out.println();
+                printCentered("Ready in " + elapsedMs + " ms" + (isFastMode() ? " (fast start)" : ""), GREEN);
+                firstPrompt = false;
+            }
             printPrompt();
 
             String choice = Input.scanner.nextLine().trim();
 
             if (choice.equals("0")) {
-                runGoodbyeSequence();
+                if (isFastMode()) printFarewell();
+                else runGoodbyeSequence();
                 break;
             } else if (!choice.equals("1")) {
                 printCentered("Invalid choice.", RED);
@@ -0,0 +1,177 @@
+package menu;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered, explicitly flushed console output shared by the whole application.
+ * <p>
+ * By default {@code System.out} flushes on every {@code println}, so printing a
+ * long contact list costs a system call per line. {@link #install()} replaces it
+ * with a {@link PrintStream} over a large buffer that does not flush on its own.
+ * Output is pushed to the terminal only when:
+ * </p>
+ * <ul>
+ *     <li>{@link #flush()} is called, e.g. at the end of a listing or before a pause</li>
+ *     <li>the program is about to read from {@code System.in}, so a prompt is
+ *         always visible before the user types (the input stream is "tied" to the output)</li>
+ *     <li>the buffer fills up, or the program exits</li>
+ * </ul>
+ * <p>
+ * All console output still goes through {@code System.out}, so lines printed
+ * directly and lines printed through this class keep their order.
+ * </p>
+ * <p>
+ * {@link #row()} hands out one reusable {@link StringBuilder} for formatting
+ * multi-line records. {@link #bytesWritten()} and {@link #writeCalls()} count
+ * what actually reached the terminal, so output throughput can be measured.
+ * </p>
+ */
+public class ConsoleWriter {
+
+    /** Size of the output buffer in bytes. */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    /** Reusable builder returned by {@link #row()}. */
+    private static final StringBuilder ROW = new StringBuilder(1024);
+
+    /** Counts the bytes and write calls that reach file descriptor 1. */
+    private static CountingOutputStream counter;
+
+    /** Private constructor to prevent instantiation. */
+    private ConsoleWriter() {}
+
+    /**
+     * Replaces {@code System.out} with the buffered stream and ties
+     * {@code System.in} to it. Must be called before {@link input.Input} is first
+     * used, since its scanner captures {@code System.in}. Calling it again has no effect.
+     */
+    public static synchronized void install() {
+        if (counter != null) return;
+
+        System.out.flush();
+        counter = new CountingOutputStream(new FileOutputStream(FileDescriptor.out));
+        PrintStream buffered = new PrintStream(new BufferedOutputStream(counter, BUFFER_SIZE),
+                false, StandardCharsets.UTF_8);
+        System.setOut(buffered);
+        System.setIn(new FlushingInputStream(System.in));
+
+        Thread flusher = new Thread(ConsoleWriter::flush, "console-flush");
+        Runtime.getRuntime().addShutdownHook(flusher);
+    }
+
+    /**
+     * Pushes all buffered output to the terminal.
+     */
+    public static void flush() {
+        System.out.flush();
+    }
+
+    /**
+     * Returns the shared formatting builder, emptied. Only for use on the
+     * console thread; the content is valid until the next call.
+     *
+     * @return an empty, reusable builder
+     */
+    public static StringBuilder row() {
+        ROW.setLength(0);
+        return ROW;
+    }
+
+    /**
+     * Appends text to the console buffer without flushing.
+     *
+     * @param text the text to print
+     */
+    public static void print(CharSequence text) {
+        System.out.append(text);
+    }
+
+    /**
+     * Appends text and a line break to the console buffer without flushing.
+     *
+     * @param text the text to print
+     */
+    public static void println(CharSequence text) {
+        System.out.append(text).append('\n');
+    }
+
+    /**
+     * Returns how many bytes have been written to the terminal since {@link #install()}.
+     *
+     * @return bytes written, or 0 if the writer is not installed
+     */
+    public static long bytesWritten() {
+        CountingOutputStream c = counter;
+        return (c == null) ? 0 : c.bytes;
+    }
+
+    /**
+     * Returns how many write calls reached the terminal since {@link #install()}.
+     * Each one is a system call, so this is the number that buffering reduces.
+     *
+     * @return write calls, or 0 if the writer is not installed
+     */
+    public static long writeCalls() {
+        CountingOutputStream c = counter;
+        return (c == null) ? 0 : c.calls;
+    }
+
+    /**
+     * Output stream that counts bytes and write calls.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private volatile long bytes;
+        private volatile long calls;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+            calls++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+            calls++;
+        }
+    }
+
+    /**
+     * Input stream that flushes the console before every read, so pending
+     * prompts are visible while the program waits for input.
+     */
+    private static final class FlushingInputStream extends FilterInputStream {
+
+        FlushingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            flush();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            flush();
+            return super.read(b, off, len);
+        }
+    }
+}
@@ -1,15 +1,38 @@
 package menu;
 
+import animations.AnimationScheduler;
 import animations.DiscoPartyOnTheFloor;
 import animations.ProjectIntroAnimation;
 import animations.DiscoBallRenderer;
+import animations.FrameCache;
+import animations.FrameEncoder;
 import input.Input;
+import services.StartupWarmUp;
 
 import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Supplier;
 import static menu.MenuUtils.*;
 
 public class MenuItems {
 
+    /** Number of cells in the loading screen progress bar. */
+    private static final int LOADING_BAR_LENGTH = 32;
+
+    /** Longest time the startup loading screen waits for the warm-up to finish. */
+    private static final long WARMUP_WAIT_LIMIT_MS = 10_000;
+
+    /** Palette of the loading screen: default, bar, ball and chain colors. */
+    private static final String[] LOADING_PALETTE = { RESET, CYAN, PURPLE, WHITE };
+
+    /** Maps loading screen characters to {@link #LOADING_PALETTE} indices. */
+    private static final FrameEncoder.ColorMap LOADING_COLORS = ch -> {
+        if (ch == '#' || ch == '[' || ch == ']') return 1;
+        if (ch == '8' || ch == '<' || ch == '>') return 2;
+        if (ch == '|') return 3;
+        return 0;
+    };
+
     /**
      * Runs the startup sequence of the application, displaying various animated
      * intro scenes and handling user input for proceeding to the login screen
@@ -20,14 +43,19 @@ public class MenuItems {
      *   <li>Showing a static intro scene</li>
      *   <li>Waiting for the user to press ENTER</li>
      *   <li>Running the disco animation loop</li>
-     *   <li>Displaying group members and a loading animation</li>
+     *   <li>Displaying group members and a loading animation that tracks the
+     *       background {@link StartupWarmUp}</li>
      *   <li>Allowing the user to choose between starting the system or restarting the sequence</li>
      * </ul>
      *@author Can
      * The method continues looping until the user chooses to start the system ('S'),
-     * at which point it returns.
+     * at which point it returns. In fast-start mode the whole sequence is skipped.
+     * @param warmUp the warm-up pipeline started before the animation; its
+     *               progress drives the loading bar
      */
-    public static void runStartupSequence() {
+    public static void runStartupSequence(StartupWarmUp warmUp) {
+        if (isFastMode()) return;
+
         DiscoPartyOnTheFloor.showStaticScene();
         System.out.print("\n" + spaces(20) + PURPLE + BOLD + "Press ENTER to start the party..." + RESET);
         Input.scanner.nextLine();
@@ -41,7 +69,7 @@ public class MenuItems {
 
             ProjectIntroAnimation.showOnlyGroupMembers();
 
-            showLoadingWithDiscoBall("System Initialization...");
+            showLoadingWithDiscoBall("System Initialization...", warmUp);
 
             char choice = showLoginOrRestartScreen();
 
@@ -79,6 +107,36 @@ public class MenuItems {
         showLoadingWithDiscoBall(statusText, 60); 
     }
 
+    /**
+     * Renders and animates a disco ball loading screen for a fixed number of
+     * frames, filling the progress bar evenly over time.
+     *
+     * @author Can
+     * @param statusText the status or description text displayed below the title
+     * @param delayMs    the delay in milliseconds between each animation frame
+     * @see #renderLoadingScreen(String, int, IntToDoubleFunction, Supplier, long, boolean)
+     */
+    public static void showLoadingWithDiscoBall(String statusText, int delayMs) {
+        renderLoadingScreen(statusText, delayMs, step -> (double) step / LOADING_BAR_LENGTH, null, Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Shows the disco ball loading screen while the given warm-up runs, with
+     * the progress bar reflecting the real fraction of finished warm-up steps
+     * and the current step name shown below it.
+     * <p>
+     * The screen stays up until the warm-up completes, but never longer than
+     * {@link #WARMUP_WAIT_LIMIT_MS}; after that the warm-up simply continues in
+     * the background.
+     * </p>
+     *
+     * @param statusText the status message displayed under the title
+     * @param warmUp     the running warm-up pipeline
+     */
+    public static void showLoadingWithDiscoBall(String statusText, StartupWarmUp warmUp) {
+        renderLoadingScreen(statusText, 60, step -> warmUp.progress(), warmUp::currentStep, WARMUP_WAIT_LIMIT_MS, false);
+    }
+
     /**
      * Renders and animates a disco ball loading screen in the console, including:
      * <ul>
@@ -89,97 +147,128 @@ public class MenuItems {
      *   <li>A status text line under a "PLEASE WAIT" title</li>
      * </ul>
      *
-     * <p>The animation is drawn frame by frame into a character buffer,
-     * then printed to the console using ANSI escape sequences to clear
-     * and reposition the cursor, as well as to apply basic coloring.</p>
+     * <p>The animation is drawn frame by frame on an {@link AnimationScheduler}
+     * render thread at a fixed {@code delayMs} timestep, then handed to a
+     * {@link FrameEncoder}, which redraws only the changed cells using cursor
+     * positioning and coalesced color codes.</p>
+     * <p>The animation ends once the progress function reports completion, or when
+     * {@code maxWaitMs} has elapsed. Nothing is shown in fast-start mode.</p>
+     * <p>Screens whose progress depends only on the frame index fill the bar in
+     * {@value #LOADING_BAR_LENGTH} + 1 frames and may be replayed from the
+     * {@link FrameCache}, keyed by their status text.</p>
      * @author Can
      * @param statusText the status or description text displayed below the title
      * @param delayMs    the delay in milliseconds between each animation frame
+     * @param progress   maps the frame index to the completed fraction ({@code 0.0}–{@code 1.0})
+     * @param detail     supplies an extra line shown under the percentage, or {@code null}
+     * @param maxWaitMs  upper bound on how long the screen is shown
+     * @param cacheable  {@code true} if the frames are fixed, so the frame cache may be used
      */
-    public static void showLoadingWithDiscoBall(String statusText, int delayMs) {
+    private static void renderLoadingScreen(String statusText, int delayMs, IntToDoubleFunction progress,
+                                            Supplier<String> detail, long maxWaitMs, boolean cacheable) {
+        if (isFastMode()) return;
+
         int width = DiscoPartyOnTheFloor.WIDTH;
         int height = DiscoPartyOnTheFloor.HEIGHT;
         int bufferSize = width * height;
 
-        char[] frameBuffer = new char[bufferSize];
         double[] zBuffer = new double[bufferSize];
+        int maxTicks = (int) Math.min(Integer.MAX_VALUE, maxWaitMs / Math.max(1, delayMs) + 1);
+        AnimationScheduler.Animation animation = (frame, tick) -> {
+            double fraction = Math.min(1.0, Math.max(0.0, progress.applyAsDouble(tick)));
+            drawLoadingFrame(frame, zBuffer, tick, fraction, statusText,
+                    detail == null ? null : detail.get());
+            return fraction < 1.0;
+        };
 
-        int barLength = 32;
+        AnimationScheduler.Handle handle = null;
+        if (cacheable) {
+            handle = FrameCache.play("loading-" + statusText, width, height, delayMs,
+                    Math.min(maxTicks, LOADING_BAR_LENGTH + 1), LOADING_PALETTE, tick -> LOADING_COLORS, animation);
+        }
+        if (handle == null) {
+            FrameEncoder encoder = new FrameEncoder(width, height, LOADING_PALETTE);
+            handle = AnimationScheduler.start("loading", bufferSize, delayMs, maxTicks, animation,
+                    (frame, tick) -> encoder.encode(frame, LOADING_COLORS));
+        }
+        try {
+            handle.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sleep(200);
+        clear();
+    }
+
+    /**
+     * Draws a single loading screen frame.
+     *
+     * @param frameBuffer the frame to draw into
+     * @param zBuffer     depth buffer used by the disco ball renderer
+     * @param step        frame index; drives the ball rotation and the spinner
+     * @param fraction    completed fraction shown by the bar and percentage
+     * @param statusText  the status text displayed below the title
+     * @param detailText  optional extra line under the percentage, or {@code null}
+     */
+    private static void drawLoadingFrame(char[] frameBuffer, double[] zBuffer, int step, double fraction,
+                                         String statusText, String detailText) {
+        int width = DiscoPartyOnTheFloor.WIDTH;
+        int height = DiscoPartyOnTheFloor.HEIGHT;
+
+        int barLength = LOADING_BAR_LENGTH;
         char[] spinner = { '|', '/', '-', '\\' };
 
-        double A = 0.0;
-        double B = 0.0;
+        double A = 0.06 * step;
+        double B = 0.10 * step;
         double C = 0.0;
         
         int ballCenterY = 12; 
         int ballCenterX = width / 2;
 
-        for (int step = 0; step <= barLength; step++) {
-            Arrays.fill(frameBuffer, ' ');
-            Arrays.fill(zBuffer, 0.0);
+        Arrays.fill(frameBuffer, ' ');
+        Arrays.fill(zBuffer, 0.0);
 
-            for (int y = 0; y < ballCenterY - 5; y++) {
-                putChar(frameBuffer, width, ballCenterX, y, '|');
-                if (y % 4 == 0) putChar(frameBuffer, width, ballCenterX, y, 'O'); 
-            }
+        for (int y = 0; y < ballCenterY - 5; y++) {
+            putChar(frameBuffer, width, ballCenterX, y, '|');
+            if (y % 4 == 0) putChar(frameBuffer, width, ballCenterX, y, 'O'); 
+        }
 
-            DiscoBallRenderer.renderBall(
-                    frameBuffer,
-                    zBuffer,
-                    width,
-                    height,
-                    A,
-                    B,
-                    C,
-                    ballCenterY, 
-                    20.0,    
-                    DiscoPartyOnTheFloor.ASPECT_RATIO
-            );
-
-            A += 0.06;
-            B += 0.10;
-
-            int textStartY = 28; 
-            
-            String title = "PLEASE WAIT";
-            putText(frameBuffer, width, textStartY, (width - title.length()) / 2, title);
-            putText(frameBuffer, width, textStartY + 2, (width - statusText.length()) / 2, statusText);
-
-            int barY = textStartY + 5;
-            putChar(frameBuffer, width, (width - (barLength + 2)) / 2, barY, '[');
-            putChar(frameBuffer, width, (width - (barLength + 2)) / 2 + 1 + barLength, barY, ']');
-            int barStartX = (width - (barLength + 2)) / 2 + 1;
-            for (int j = 0; j < barLength; j++) {
-                char ch = (j <= step) ? '#' : '.';
-                putChar(frameBuffer, width, barStartX + j, barY, ch);
-            }
+        DiscoBallRenderer.renderBall(
+                frameBuffer,
+                zBuffer,
+                width,
+                height,
+                A,
+                B,
+                C,
+                ballCenterY, 
+                20.0,    
+                DiscoPartyOnTheFloor.ASPECT_RATIO
+        );
 
-            int percent = (int) ((step * 100.0) / barLength);
-            String percStr = String.format("%3d%% ", percent) + spinner[step % spinner.length];
-            putText(frameBuffer, width, barY + 2, (width - percStr.length()) / 2, percStr);
-
-            StringBuilder sb = new StringBuilder();
-            sb.append("\u001b[2J"); 
-            sb.append("\u001b[H");  
-            for (int i = 0; i < bufferSize; i++) {
-                if (frameBuffer[i] == '#' || frameBuffer[i] == '[' || frameBuffer[i] == ']') {
-                     sb.append(CYAN).append(frameBuffer[i]).append(RESET);
-                } else if (frameBuffer[i] == '8' || frameBuffer[i] == '<' || frameBuffer[i] == '>') {
-                     sb.append(PURPLE).append(frameBuffer[i]).append(RESET);
-                } else if (frameBuffer[i] == '|') {
-                     sb.append(WHITE).append(frameBuffer[i]).append(RESET); 
-                } else {
-                     sb.append(frameBuffer[i]);
-                }
-                
-                if (i % width == width - 1) sb.append('\n');
-            }
+        int textStartY = 28; 
+        
+        String title = "PLEASE WAIT";
+        putText(frameBuffer, width, textStartY, (width - title.length()) / 2, title);
+        putText(frameBuffer, width, textStartY + 2, (width - statusText.length()) / 2, statusText);
 
-            System.out.print(sb.toString());
-            sleep(delayMs); 
+        int barY = textStartY + 5;
+        putChar(frameBuffer, width, (width - (barLength + 2)) / 2, barY, '[');
+        putChar(frameBuffer, width, (width - (barLength + 2)) / 2 + 1 + barLength, barY, ']');
+        int barStartX = (width - (barLength + 2)) / 2 + 1;
+        int filled = (int) Math.round(fraction * barLength);
+        for (int j = 0; j < barLength; j++) {
+            char ch = (j < filled) ? '#' : '.';
+            putChar(frameBuffer, width, barStartX + j, barY, ch);
+        }
+
+        int percent = (int) (fraction * 100.0);
+        String percStr = String.format("%3d%% ", percent) + spinner[step % spinner.length];
+        putText(frameBuffer, width, barY + 2, (width - percStr.length()) / 2, percStr);
+
+        if (detailText != null) {
+            putText(frameBuffer, width, barY + 4, (width - detailText.length()) / 2, detailText);
         }
-        sleep(200);
-        clear();
     }
 
     /**
@@ -28,23 +28,83 @@ public class MenuUtils {
     /** Bold text style. */
     public static final String BOLD = "\u001B[1m";
 
+    /** Reusable builder for menu lines, see {@link #line()}. */
+    private static final StringBuilder LINE = new StringBuilder(256);
+
+    /** Command-line flags that select fast-start mode. */
+    private static final String[] FAST_FLAGS = { "--fast", "--no-animation" };
+
+    /** Environment variable that selects fast-start mode when set to {@code 1} or {@code true}. */
+    public static final String FAST_ENV = "CMS_FAST_START";
+
+    /**
+     * When {@code true}, animations, screen clears and cosmetic pauses are skipped.
+     * Set once at startup by {@link #configureFastMode(String[])}.
+     */
+    private static boolean fastMode = false;
+
+    /**
+     * Decides whether the application runs in fast-start mode and stores the result.
+     * <p>
+     * Fast-start mode is selected when any of the following holds:
+     * <ul>
+     *   <li>A {@code --fast} or {@code --no-animation} argument is given</li>
+     *   <li>The {@value #FAST_ENV} environment variable is {@code 1} or {@code true}</li>
+     *   <li>No interactive console is attached (e.g. output is piped or redirected)</li>
+     * </ul>
+     *
+     * @param args the command-line arguments passed to {@code main}
+     * @return {@code true} if fast-start mode was selected
+     */
+    public static boolean configureFastMode(String[] args) {
+        boolean fast = System.console() == null;
+        if (args != null) {
+            for (String arg : args) {
+                for (String flag : FAST_FLAGS) {
+                    if (flag.equalsIgnoreCase(arg)) fast = true;
+                }
+            }
+        }
+        String env = System.getenv(FAST_ENV);
+        if (env != null && (env.equals("1") || env.equalsIgnoreCase("true"))) {
+            fast = true;
+        }
+        fastMode = fast;
+        return fast;
+    }
+
+    /**
+     * Returns whether fast-start mode is active.
+     *
+     * @return {@code true} if animations and cosmetic delays should be skipped
+     */
+    public static boolean isFastMode() {
+        return fastMode;
+    }
+
     /**
      * Clears the console screen using ANSI escape sequences and resets
      * the cursor position to the top-left corner.
      * @author Can
-     * <p>Note: Works on terminals that support ANSI codes.</p>
+     * <p>Note: Works on terminals that support ANSI codes. Does nothing in
+     * fast-start mode.</p>
      */
     public static void clear() {
+        if (fastMode) return;
         System.out.print("\033[H\033[2J");
         System.out.flush();
     }
 
     /**
-     * Pauses execution for a given number of milliseconds.
+     * Pauses execution for a given number of milliseconds, after flushing
+     * pending console output so it is visible during the pause.
+     * Returns immediately in fast-start mode.
      *@author Can
      * @param ms the number of milliseconds to sleep
      */
     public static void sleep(int ms) {
+        if (fastMode) return;
+        ConsoleWriter.flush();
         try { Thread.sleep(ms); }
         catch (InterruptedException e) { Thread.currentThread().interrupt(); }
     }
@@ -102,6 +162,30 @@ public class MenuUtils {
         return sb.toString();
     }
 
+    /**
+     * Appends {@code n} spaces to a builder.
+     *
+     * @param sb the builder to append to
+     * @param n  the number of spaces; nothing is appended if {@code n <= 0}
+     * @return {@code sb}, for chaining
+     */
+    public static StringBuilder appendSpaces(StringBuilder sb, int n) {
+        for (int i = 0; i < n; i++) sb.append(' ');
+        return sb;
+    }
+
+    /**
+     * Returns the emptied builder used to assemble menu lines. Kept separate
+     * from {@link ConsoleWriter#row()} so menu output can be printed while a
+     * record is being formatted.
+     *
+     * @return an empty, reusable builder
+     */
+    private static StringBuilder line() {
+        LINE.setLength(0);
+        return LINE;
+    }
+
     /**
      * Prints the given text centered horizontally within the console width,
      * applying the specified ANSI color.
@@ -111,7 +195,9 @@ public class MenuUtils {
      */
     public static void printCentered(String text, String color) {
         int padding = (CONSOLE_WIDTH - text.length()) / 2;
-        System.out.println(spaces(padding) + color + text + RESET);
+        StringBuilder line = line();
+        appendSpaces(line, padding).append(color).append(text).append(RESET);
+        ConsoleWriter.println(line);
     }
 
     /**
@@ -163,8 +249,10 @@ public class MenuUtils {
      * @param description the text describing the option's purpose
      */
     public static void printOption(String key, String description) {
-        String optionText = String.format("[%s] %s", key, description);
-        System.out.println(spaces(25) + CYAN + BOLD + "[" + key + "] " + RESET + WHITE + description);
+        StringBuilder line = line();
+        appendSpaces(line, 25).append(CYAN).append(BOLD).append('[').append(key).append("] ")
+                .append(RESET).append(WHITE).append(description);
+        ConsoleWriter.println(line);
     }
 
     /**
@@ -173,8 +261,11 @@ public class MenuUtils {
      * @author Can
      */
     public static void printPrompt() {
-         System.out.println();
-         System.out.print(spaces(25) + YELLOW + "Your choice > " + RESET);
+         StringBuilder line = line();
+         line.append('\n');
+         appendSpaces(line, 25).append(YELLOW).append("Your choice > ").append(RESET);
+         ConsoleWriter.print(line);
+         ConsoleWriter.flush();
     }
 
     /**
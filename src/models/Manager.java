@@ -54,6 +54,9 @@ public class Manager extends User {
      * <li>Show Salary Report.</li>
      * <li>Change Password.</li>
      * <li>Undo last user operation (e.g., undo firing a user).</li>
+     * <li>View Contact Statistics grouped by birth year, e-mail domain or creation month.</li>
+     * <li>View the age distribution of contacts (histogram, median and percentiles).</li>
+     * <li>View the most used e-mail domains with contact counts.</li>
      * <li>Logout.</li>
      * @author Bora
      * </ol>
@@ -78,6 +81,9 @@ public class Manager extends User {
             MenuUtils.printOption("7", "Show salary report");
             MenuUtils.printOption("8", "Change password");
             MenuUtils.printOption("9", "Undo last operation");
+            MenuUtils.printOption("10", "Grouped Contact Statistics");
+            MenuUtils.printOption("11", "Contact Age Distribution");
+            MenuUtils.printOption("12", "E-mail Domain Report");
             MenuUtils.printOption("0", "Logout");
 
             MenuUtils.printPrompt(); 
@@ -121,6 +127,18 @@ public class Manager extends User {
                     userService.undoLastUserOperation();
                     MenuUtils.waitForEnter();
                     break;
+                case "10":
+                    contactService.showGroupedStatistics();
+                    MenuUtils.waitForEnter();
+                    break;
+                case "11":
+                    contactService.showAgeDistribution();
+                    MenuUtils.waitForEnter();
+                    break;
+                case "12":
+                    contactService.showEmailDomainReport();
+                    MenuUtils.waitForEnter();
+                    break;
 
                 case "0":
                     logout();
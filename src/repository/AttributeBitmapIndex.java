@@ -0,0 +1,207 @@
+package repository;
+
+import models.Contact;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compressed bitmaps of contact ids for the low-cardinality attributes used
+ * as search filters: LinkedIn present, nickname present, secondary phone
+ * present, e-mail domain, birth year and birth month.
+ * <p>
+ * Each attribute value owns one {@link IdBitmap}, so a compound filter such
+ * as "born in the 1990s, no LinkedIn, gmail.com" is a handful of bitmap
+ * AND/OR/NOT operations instead of a table scan, and it combines directly
+ * with id lists from the other indexes through {@link IdBitmap#of}. Returned
+ * bitmaps are copies and stay valid after later writes.
+ * </p>
+ */
+public class AttributeBitmapIndex implements ContactIndex {
+
+    private final IdBitmap all = new IdBitmap();
+    private final IdBitmap linkedin = new IdBitmap();
+    private final IdBitmap nickname = new IdBitmap();
+    private final IdBitmap secondaryPhone = new IdBitmap();
+    private final Map<String, IdBitmap> domains = new HashMap<>();
+    private final TreeMap<Integer, IdBitmap> birthYears = new TreeMap<>();
+    private final IdBitmap[] birthMonths = new IdBitmap[12];
+
+    /** Attributes indexed for each contact, to remove them on change. */
+    private final Map<Integer, Attributes> attributesOf = new HashMap<>();
+
+    /**
+     * Creates an empty index.
+     */
+    public AttributeBitmapIndex() {
+        for (int m = 0; m < birthMonths.length; m++) {
+            birthMonths[m] = new IdBitmap();
+        }
+    }
+
+    /**
+     * Returns every contact, the universe a negated filter is taken from.
+     *
+     * @return all contact ids
+     */
+    public IdBitmap all() {
+        return all.copy();
+    }
+
+    /**
+     * Returns the contacts with a LinkedIn URL.
+     *
+     * @return matching ids
+     */
+    public IdBitmap withLinkedin() {
+        return linkedin.copy();
+    }
+
+    /**
+     * Returns the contacts with a nickname.
+     *
+     * @return matching ids
+     */
+    public IdBitmap withNickname() {
+        return nickname.copy();
+    }
+
+    /**
+     * Returns the contacts with a secondary phone number.
+     *
+     * @return matching ids
+     */
+    public IdBitmap withSecondaryPhone() {
+        return secondaryPhone.copy();
+    }
+
+    /**
+     * Returns the contacts whose e-mail has exactly the given domain.
+     *
+     * @param domain the domain, e.g. {@code gmail.com}; case and a leading {@code @} are ignored
+     * @return matching ids, possibly empty
+     */
+    public IdBitmap withDomain(String domain) {
+        String key = domain.trim();
+        if (key.startsWith("@")) key = key.substring(1);
+        IdBitmap bitmap = domains.get(key.toLowerCase(Locale.ROOT));
+        return (bitmap == null) ? new IdBitmap() : bitmap.copy();
+    }
+
+    /**
+     * Returns the contacts born in a range of years.
+     *
+     * @param fromYear first year, inclusive
+     * @param toYear   last year, inclusive
+     * @return matching ids, possibly empty
+     */
+    public IdBitmap bornBetween(int fromYear, int toYear) {
+        IdBitmap result = new IdBitmap();
+        if (fromYear > toYear) return result;
+        for (IdBitmap year : birthYears.subMap(fromYear, true, toYear, true).values()) {
+            result = result.or(year);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the contacts born in a month of any year.
+     *
+     * @param month the month, 1 to 12
+     * @return matching ids
+     * @throws IllegalArgumentException if the month is out of range
+     */
+    public IdBitmap bornInMonth(int month) {
+        if (month < 1 || month > 12) throw new IllegalArgumentException("Invalid month: " + month);
+        return birthMonths[month - 1].copy();
+    }
+
+    @Override
+    public void rebuild(List<Contact> contacts) {
+        for (int id : all.toArray()) {
+            contactDeleted(id);
+        }
+        for (Contact contact : contacts) {
+            contactSaved(contact);
+        }
+    }
+
+    @Override
+    public void contactSaved(Contact contact) {
+        int id = contact.getContactId();
+        contactDeleted(id);
+
+        LocalDate birth = (contact.getBirthDate() == null) ? null : contact.getBirthDate().toLocalDate();
+        Attributes attributes = new Attributes(
+                !isBlank(contact.getLinkedinUrl()),
+                !isBlank(contact.getNickname()),
+                !isBlank(contact.getPhoneSecondary()),
+                EmailDomainIndex.domainOf(contact.getEmail()),
+                (birth == null) ? 0 : birth.getYear(),
+                (birth == null) ? 0 : birth.getMonthValue());
+
+        all.add(id);
+        if (attributes.linkedin()) linkedin.add(id);
+        if (attributes.nickname()) nickname.add(id);
+        if (attributes.secondaryPhone()) secondaryPhone.add(id);
+        if (attributes.domain() != null) domains.computeIfAbsent(attributes.domain(), k -> new IdBitmap()).add(id);
+        if (attributes.birthYear() != 0) {
+            birthYears.computeIfAbsent(attributes.birthYear(), k -> new IdBitmap()).add(id);
+            birthMonths[attributes.birthMonth() - 1].add(id);
+        }
+        attributesOf.put(id, attributes);
+    }
+
+    @Override
+    public void contactDeleted(int contactId) {
+        Attributes attributes = attributesOf.remove(contactId);
+        if (attributes == null) return;
+
+        all.remove(contactId);
+        linkedin.remove(contactId);
+        nickname.remove(contactId);
+        secondaryPhone.remove(contactId);
+        if (attributes.domain() != null) remove(domains, attributes.domain(), contactId);
+        if (attributes.birthYear() != 0) {
+            remove(birthYears, attributes.birthYear(), contactId);
+            birthMonths[attributes.birthMonth() - 1].remove(contactId);
+        }
+    }
+
+    /**
+     * Removes an id from a value's bitmap and drops the value once it is empty.
+     *
+     * @param bitmaps the bitmaps by value
+     * @param value   the attribute value
+     * @param id      the contact id
+     * @param <K>     the value type
+     */
+    private static <K> void remove(Map<K, IdBitmap> bitmaps, K value, int id) {
+        IdBitmap bitmap = bitmaps.get(value);
+        if (bitmap == null) return;
+        bitmap.remove(id);
+        if (bitmap.isEmpty()) bitmaps.remove(value);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * The indexed attributes of one contact.
+     *
+     * @param linkedin       whether a LinkedIn URL is set
+     * @param nickname       whether a nickname is set
+     * @param secondaryPhone whether a secondary phone is set
+     * @param domain         the e-mail domain, or {@code null}
+     * @param birthYear      the birth year, or {@code 0} if unknown
+     * @param birthMonth     the birth month, or {@code 0} if unknown
+     */
+    private record Attributes(boolean linkedin, boolean nickname, boolean secondaryPhone,
+                              String domain, int birthYear, int birthMonth) {
+    }
+}
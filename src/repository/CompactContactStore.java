@@ -0,0 +1,627 @@
+package repository;
+
+import models.Contact;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Memory-compact in-memory store of contacts.
+ * <p>
+ * A {@link Contact} object costs about 12 references plus separate
+ * {@code String}, {@code Date} and {@code Timestamp} objects. This store keeps
+ * the same data in parallel primitive arrays, one slot per contact:
+ * </p>
+ * <ul>
+ *     <li>first names, last names and e-mail domains as {@link StringDictionary} codes,
+ *         since the same values repeat across many contacts</li>
+ *     <li>nicknames and e-mail local parts as UTF-8 bytes in one shared byte arena,
+ *         referenced by a {@code long} (offset and length), instead of one
+ *         {@code String} object each</li>
+ *     <li>the primary phone as a {@code long} (digits and length packed together)</li>
+ *     <li>the birth date as an epoch-day {@code int}, the timestamps as epoch-millis {@code long}s</li>
+ *     <li>middle names, secondary phones and LinkedIn URLs, which most contacts do not
+ *         have, in sparse side tables keyed by contact id</li>
+ * </ul>
+ * <p>
+ * {@link #get(int)} rebuilds an equal {@link Contact} on demand. Timestamps keep
+ * millisecond precision, which covers MySQL {@code TIMESTAMP} columns. Replaced
+ * and removed text is reclaimed by compacting the arena once more than half of
+ * it is garbage. {@link CompactStoreBenchmark} measures the heap saved against a
+ * {@code List<Contact>}.
+ * </p>
+ * <p>
+ * As a {@link ContactIndex} registered in {@link ContactIndexes}, one store
+ * holds every contact of the table and {@link ContactRepository#findByIds}
+ * rebuilds the contacts found by the other indexes from it instead of querying
+ * the database.
+ * </p>
+ * <p>
+ * The store is not thread-safe; callers must synchronize externally.
+ * </p>
+ */
+public class CompactContactStore implements ContactIndex {
+
+    /** Marks a missing date. */
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    /** Marks a missing timestamp. */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    /** Packed phone value for {@code null}. */
+    private static final long NO_PHONE = -1;
+
+    /** Packed phone value for a phone kept as text in {@link #oddPhones}. */
+    private static final long ODD_PHONE = -2;
+
+    /** Longest digit string that can be packed into a {@code long} with its length. */
+    private static final int MAX_PACKED_DIGITS = 17;
+
+    /** The arena is only compacted once it holds at least this many bytes. */
+    private static final int MIN_COMPACT_BYTES = 1 << 16;
+
+    private final StringDictionary firstNames = new StringDictionary();
+    private final StringDictionary lastNames = new StringDictionary();
+    private final StringDictionary emailDomains = new StringDictionary();
+
+    /** Maps contact ids to slots. */
+    private final IdIndex slots = new IdIndex();
+
+    /** Bytes of every variable-length text value. */
+    private StringArena text = new StringArena(1024);
+
+    private int size;
+    private int[] ids;
+    private int[] firstName;
+    private int[] lastName;
+    private long[] nickname;
+    private long[] phone;
+    private long[] emailLocal;
+    private int[] emailDomain;
+    private int[] birthDay;
+    private long[] createdAt;
+    private long[] updatedAt;
+
+    /** Sparse side tables of arena references, keyed by contact id. */
+    private final SparseColumn middleNames = new SparseColumn();
+    private final SparseColumn secondaryPhones = new SparseColumn();
+    private final SparseColumn linkedinUrls = new SparseColumn();
+
+    /** Primary phones that are not plain digit strings. */
+    private final SparseColumn oddPhones = new SparseColumn();
+
+    /**
+     * Creates an empty store.
+     */
+    public CompactContactStore() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty store sized for the given number of contacts.
+     *
+     * @param capacity expected number of contacts
+     */
+    public CompactContactStore(int capacity) {
+        int n = Math.max(1, capacity);
+        ids = new int[n];
+        firstName = new int[n];
+        lastName = new int[n];
+        nickname = new long[n];
+        phone = new long[n];
+        emailLocal = new long[n];
+        emailDomain = new int[n];
+        birthDay = new int[n];
+        createdAt = new long[n];
+        updatedAt = new long[n];
+    }
+
+    /**
+     * Creates a store holding the given contacts.
+     *
+     * @param contacts contacts to store
+     * @return the filled store
+     */
+    public static CompactContactStore of(Collection<Contact> contacts) {
+        CompactContactStore store = new CompactContactStore(contacts.size());
+        for (Contact contact : contacts) {
+            store.put(contact);
+        }
+        return store;
+    }
+
+    /**
+     * Adds a contact, or replaces the stored contact with the same id.
+     *
+     * @param contact the contact to store
+     */
+    public void put(Contact contact) {
+        int id = contact.getContactId();
+        int slot = slots.get(id);
+        if (slot < 0) {
+            if (size == ids.length) grow();
+            slot = size++;
+            slots.put(id, slot);
+            nickname[slot] = StringArena.NO_REF;
+            emailLocal[slot] = StringArena.NO_REF;
+        }
+
+        ids[slot] = id;
+        firstName[slot] = firstNames.encode(contact.getFirstName());
+        lastName[slot] = lastNames.encode(contact.getLastName());
+        nickname[slot] = replace(nickname[slot], contact.getNickname());
+        phone[slot] = packPhone(id, contact.getPhonePrimary());
+        putEmail(slot, contact.getEmail());
+        birthDay[slot] = (contact.getBirthDate() == null)
+                ? NO_DATE : (int) contact.getBirthDate().toLocalDate().toEpochDay();
+        createdAt[slot] = (contact.getCreatedAt() == null) ? NO_TIME : contact.getCreatedAt().getTime();
+        updatedAt[slot] = (contact.getUpdatedAt() == null) ? NO_TIME : contact.getUpdatedAt().getTime();
+
+        putSparse(middleNames, id, contact.getMiddleName());
+        putSparse(secondaryPhones, id, contact.getPhoneSecondary());
+        putSparse(linkedinUrls, id, contact.getLinkedinUrl());
+        compactIfWasteful();
+    }
+
+    /**
+     * Removes a contact.
+     *
+     * @param contactId id of the contact to remove
+     * @return {@code true} if the contact was stored
+     */
+    public boolean remove(int contactId) {
+        int slot = slots.remove(contactId);
+        if (slot < 0) return false;
+
+        text.release(nickname[slot]);
+        text.release(emailLocal[slot]);
+        text.release(middleNames.remove(contactId));
+        text.release(secondaryPhones.remove(contactId));
+        text.release(linkedinUrls.remove(contactId));
+        text.release(oddPhones.remove(contactId));
+
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            firstName[slot] = firstName[last];
+            lastName[slot] = lastName[last];
+            nickname[slot] = nickname[last];
+            phone[slot] = phone[last];
+            emailLocal[slot] = emailLocal[last];
+            emailDomain[slot] = emailDomain[last];
+            birthDay[slot] = birthDay[last];
+            createdAt[slot] = createdAt[last];
+            updatedAt[slot] = updatedAt[last];
+            slots.put(ids[slot], slot);
+        }
+        compactIfWasteful();
+        return true;
+    }
+
+    /**
+     * Rebuilds the stored contact with the given id.
+     *
+     * @param contactId the contact id
+     * @return a new {@link Contact}, or {@code null} if the id is not stored
+     */
+    public Contact get(int contactId) {
+        int slot = slots.get(contactId);
+        return (slot < 0) ? null : materialize(slot);
+    }
+
+    /**
+     * Rebuilds the stored contacts with the given ids, skipping ids that are
+     * not stored.
+     *
+     * @param contactIds the contact ids
+     * @return new {@link Contact}s in the order of the ids
+     */
+    public List<Contact> getAll(int[] contactIds) {
+        List<Contact> contacts = new ArrayList<>(contactIds.length);
+        for (int contactId : contactIds) {
+            int slot = slots.get(contactId);
+            if (slot >= 0) contacts.add(materialize(slot));
+        }
+        return contacts;
+    }
+
+    /**
+     * Checks whether a contact is stored.
+     *
+     * @param contactId the contact id
+     * @return {@code true} if present
+     */
+    public boolean contains(int contactId) {
+        return slots.get(contactId) >= 0;
+    }
+
+    /**
+     * Returns the number of stored contacts.
+     *
+     * @return contact count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Rebuilds every stored contact and passes it to the action, in slot order.
+     *
+     * @param action receives each contact
+     */
+    public void forEach(Consumer<Contact> action) {
+        for (int slot = 0; slot < size; slot++) {
+            action.accept(materialize(slot));
+        }
+    }
+
+    /**
+     * Returns the birth date of a contact as an epoch day.
+     *
+     * @param contactId the contact id
+     * @return the epoch day, or {@link #NO_DATE} if unknown or not stored
+     */
+    public int birthEpochDay(int contactId) {
+        int slot = slots.get(contactId);
+        return (slot < 0) ? NO_DATE : birthDay[slot];
+    }
+
+    /**
+     * Returns the creation time of a contact in epoch milliseconds.
+     *
+     * @param contactId the contact id
+     * @return the creation time, or {@link #NO_TIME} if unknown or not stored
+     */
+    public long createdAtMillis(int contactId) {
+        int slot = slots.get(contactId);
+        return (slot < 0) ? NO_TIME : createdAt[slot];
+    }
+
+    /**
+     * Returns the number of distinct first names, last names and e-mail domains.
+     *
+     * @return dictionary sizes as {@code {firstNames, lastNames, domains}}
+     */
+    public int[] dictionarySizes() {
+        return new int[] { firstNames.size(), lastNames.size(), emailDomains.size() };
+    }
+
+    @Override
+    public void rebuild(List<Contact> contacts) {
+        while (size > 0) {
+            remove(ids[size - 1]);
+        }
+        for (Contact contact : contacts) {
+            put(contact);
+        }
+    }
+
+    @Override
+    public void contactSaved(Contact contact) {
+        put(contact);
+    }
+
+    @Override
+    public void contactDeleted(int contactId) {
+        remove(contactId);
+    }
+
+    /**
+     * Builds a {@link Contact} from a slot.
+     *
+     * @param slot the slot
+     * @return the contact
+     */
+    private Contact materialize(int slot) {
+        int id = ids[slot];
+        Contact contact = new Contact();
+        contact.setContactId(id);
+        contact.setFirstName(firstNames.decode(firstName[slot]));
+        contact.setMiddleName(text.get(middleNames.get(id)));
+        contact.setLastName(lastNames.decode(lastName[slot]));
+        contact.setNickname(text.get(nickname[slot]));
+        contact.setPhonePrimary(unpackPhone(id, phone[slot]));
+        contact.setPhoneSecondary(text.get(secondaryPhones.get(id)));
+        contact.setEmail(email(slot));
+        contact.setLinkedinUrl(text.get(linkedinUrls.get(id)));
+        contact.setBirthDate((birthDay[slot] == NO_DATE) ? null : Date.valueOf(LocalDate.ofEpochDay(birthDay[slot])));
+        contact.setCreatedAt((createdAt[slot] == NO_TIME) ? null : new Timestamp(createdAt[slot]));
+        contact.setUpdatedAt((updatedAt[slot] == NO_TIME) ? null : new Timestamp(updatedAt[slot]));
+        return contact;
+    }
+
+    /**
+     * Stores an e-mail as a local part and a dictionary-coded domain.
+     *
+     * @param slot  the slot
+     * @param email the e-mail, may be {@code null}
+     */
+    private void putEmail(int slot, String email) {
+        int at = (email == null) ? -1 : email.lastIndexOf('@');
+        if (at < 0) {
+            emailLocal[slot] = replace(emailLocal[slot], email);
+            emailDomain[slot] = StringDictionary.NONE;
+        } else {
+            emailLocal[slot] = replace(emailLocal[slot], email.substring(0, at));
+            emailDomain[slot] = emailDomains.encode(email.substring(at + 1));
+        }
+    }
+
+    /**
+     * Rebuilds the e-mail of a slot.
+     *
+     * @param slot the slot
+     * @return the e-mail, or {@code null}
+     */
+    private String email(int slot) {
+        String local = text.get(emailLocal[slot]);
+        String domain = emailDomains.decode(emailDomain[slot]);
+        return (domain == null) ? local : local + '@' + domain;
+    }
+
+    /**
+     * Packs a phone number into a {@code long}: the digits times 32 plus the
+     * digit count, so leading zeros survive. Anything that is not a short
+     * digit string is kept in {@link #oddPhones}.
+     *
+     * @param id    the contact id, for the fallback table
+     * @param value the phone number
+     * @return the packed value, {@link #NO_PHONE} or {@link #ODD_PHONE}
+     */
+    private long packPhone(int id, String value) {
+        text.release(oddPhones.remove(id));
+        if (value == null) return NO_PHONE;
+
+        int length = value.length();
+        boolean digits = length > 0 && length <= MAX_PACKED_DIGITS;
+        long number = 0;
+        for (int i = 0; digits && i < length; i++) {
+            char ch = value.charAt(i);
+            if (ch < '0' || ch > '9') digits = false;
+            else number = number * 10 + (ch - '0');
+        }
+        if (!digits) {
+            oddPhones.put(id, text.add(value));
+            return ODD_PHONE;
+        }
+        return number * 32 + length;
+    }
+
+    /**
+     * Reverses {@link #packPhone}.
+     *
+     * @param id     the contact id
+     * @param packed the packed value
+     * @return the phone number, or {@code null}
+     */
+    private String unpackPhone(int id, long packed) {
+        if (packed == NO_PHONE) return null;
+        if (packed == ODD_PHONE) return text.get(oddPhones.get(id));
+
+        int length = (int) (packed % 32);
+        char[] digits = new char[length];
+        long number = packed / 32;
+        for (int i = length - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Releases a text reference and stores a new value in its place.
+     *
+     * @param oldRef the previous reference
+     * @param value  the new value, may be {@code null}
+     * @return the new reference
+     */
+    private long replace(long oldRef, String value) {
+        text.release(oldRef);
+        return text.add(value);
+    }
+
+    /**
+     * Puts a value into a sparse table, or removes the entry for {@code null}.
+     *
+     * @param column the side table
+     * @param id     the contact id
+     * @param value  the value
+     */
+    private void putSparse(SparseColumn column, int id, String value) {
+        text.release(column.remove(id));
+        if (value != null) column.put(id, text.add(value));
+    }
+
+    /**
+     * Copies all live text into a fresh arena once more than half of the
+     * current one is garbage.
+     */
+    private void compactIfWasteful() {
+        if (text.used < MIN_COMPACT_BYTES || text.garbage * 2 < text.used) return;
+
+        StringArena fresh = new StringArena((int) (text.used - text.garbage) + 1024);
+        for (int slot = 0; slot < size; slot++) {
+            nickname[slot] = text.copyTo(fresh, nickname[slot]);
+            emailLocal[slot] = text.copyTo(fresh, emailLocal[slot]);
+        }
+        for (SparseColumn column : new SparseColumn[] { middleNames, secondaryPhones, linkedinUrls, oddPhones }) {
+            for (int row = 0; row < column.size; row++) {
+                column.refs[row] = text.copyTo(fresh, column.refs[row]);
+            }
+        }
+        text = fresh;
+    }
+
+    /**
+     * Doubles the capacity of every slot array.
+     */
+    private void grow() {
+        int n = ids.length * 2;
+        ids = Arrays.copyOf(ids, n);
+        firstName = Arrays.copyOf(firstName, n);
+        lastName = Arrays.copyOf(lastName, n);
+        nickname = Arrays.copyOf(nickname, n);
+        phone = Arrays.copyOf(phone, n);
+        emailLocal = Arrays.copyOf(emailLocal, n);
+        emailDomain = Arrays.copyOf(emailDomain, n);
+        birthDay = Arrays.copyOf(birthDay, n);
+        createdAt = Arrays.copyOf(createdAt, n);
+        updatedAt = Arrays.copyOf(updatedAt, n);
+    }
+
+    /**
+     * Append-only byte buffer holding UTF-8 text. A reference packs the
+     * offset into the upper bits and the length into the lower 24 bits.
+     */
+    private static final class StringArena {
+
+        /** Reference used for {@code null}. */
+        static final long NO_REF = -1;
+
+        private static final int LENGTH_BITS = 24;
+
+        private byte[] bytes;
+        private int used;
+        private long garbage;
+
+        StringArena(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        /**
+         * Appends a value.
+         *
+         * @param value the value, may be {@code null}
+         * @return its reference, or {@link #NO_REF} for {@code null}
+         */
+        long add(String value) {
+            if (value == null) return NO_REF;
+            return append(value.getBytes(StandardCharsets.UTF_8), 0, -1);
+        }
+
+        /**
+         * Reads a value.
+         *
+         * @param ref a reference returned by {@link #add}
+         * @return the value, or {@code null} for {@link #NO_REF}
+         */
+        String get(long ref) {
+            if (ref == NO_REF) return null;
+            return new String(bytes, offset(ref), length(ref), StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Marks a value's bytes as garbage.
+         *
+         * @param ref the reference, may be {@link #NO_REF}
+         */
+        void release(long ref) {
+            if (ref != NO_REF) garbage += length(ref);
+        }
+
+        /**
+         * Copies a value into another arena.
+         *
+         * @param target the destination arena
+         * @param ref    the reference in this arena
+         * @return the reference in {@code target}
+         */
+        long copyTo(StringArena target, long ref) {
+            if (ref == NO_REF) return NO_REF;
+            return target.append(bytes, offset(ref), length(ref));
+        }
+
+        /**
+         * Appends raw bytes.
+         *
+         * @param source the bytes
+         * @param from   start offset in {@code source}
+         * @param length number of bytes, or {@code -1} for all of {@code source}
+         * @return the new reference
+         */
+        private long append(byte[] source, int from, int length) {
+            int n = (length < 0) ? source.length : length;
+            if (n >= (1 << LENGTH_BITS)) throw new IllegalArgumentException("Text value too long");
+            if (used + n > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + n));
+            }
+            System.arraycopy(source, from, bytes, used, n);
+            long ref = ((long) used << LENGTH_BITS) | n;
+            used += n;
+            return ref;
+        }
+
+        private static int offset(long ref) {
+            return (int) (ref >>> LENGTH_BITS);
+        }
+
+        private static int length(long ref) {
+            return (int) (ref & ((1 << LENGTH_BITS) - 1));
+        }
+    }
+
+    /**
+     * Values present for only some contacts: an id index plus dense arrays of
+     * ids and text references.
+     */
+    private static final class SparseColumn {
+
+        private final IdIndex rows = new IdIndex();
+        private int[] ids = new int[8];
+        private long[] refs = new long[8];
+        private int size;
+
+        /**
+         * Returns the reference stored for an id.
+         *
+         * @param id the contact id
+         * @return the reference, or {@link StringArena#NO_REF} if absent
+         */
+        long get(int id) {
+            int row = rows.get(id);
+            return (row < 0) ? StringArena.NO_REF : refs[row];
+        }
+
+        /**
+         * Stores a reference for an id that has none.
+         *
+         * @param id  the contact id
+         * @param ref the reference
+         */
+        void put(int id, long ref) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                refs = Arrays.copyOf(refs, size * 2);
+            }
+            ids[size] = id;
+            refs[size] = ref;
+            rows.put(id, size++);
+        }
+
+        /**
+         * Removes the entry of an id.
+         *
+         * @param id the contact id
+         * @return the removed reference, or {@link StringArena#NO_REF} if absent
+         */
+        long remove(int id) {
+            int row = rows.remove(id);
+            if (row < 0) return StringArena.NO_REF;
+            long removed = refs[row];
+            int last = --size;
+            if (row != last) {
+                ids[row] = ids[last];
+                refs[row] = refs[last];
+                rows.put(ids[row], row);
+            }
+            return removed;
+        }
+    }
+}
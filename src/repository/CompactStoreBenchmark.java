@@ -0,0 +1,171 @@
+package repository;
+
+import models.Contact;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Small stand-alone benchmark comparing the heap used by a {@code List<Contact>}
+ * with the same contacts held in a {@link CompactContactStore}.
+ * <p>
+ * The synthetic contacts mimic real data: first names, last names and e-mail
+ * domains repeat, and only some contacts have a middle name, a secondary phone
+ * or a LinkedIn URL. Heap usage is measured after forcing garbage collection,
+ * so run it with a fixed heap for stable numbers.
+ * </p>
+ *
+ * <p><b>Usage:</b></p>
+ * <pre>{@code
+ * java -Xms2g -Xmx2g -cp out repository.CompactStoreBenchmark [contacts]
+ * }</pre>
+ */
+public class CompactStoreBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+        "Ahmet", "Mehmet", "Ayşe", "Fatma", "Mustafa", "Emine", "Ali", "Hatice", "Hüseyin", "Zeynep",
+        "İbrahim", "Elif", "Can", "Melek", "Bora", "Mikail", "Deniz", "Ece", "Burak", "Şule"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Yılmaz", "Kaya", "Demir", "Şahin", "Çelik", "Yıldız", "Yıldırım", "Öztürk", "Aydın", "Özdemir",
+        "Arslan", "Doğan", "Kılıç", "Aslan", "Çetin", "Kara", "Koç", "Kurt", "Özkan", "Şimşek"
+    };
+
+    private static final String[] DOMAINS = {
+        "gmail.com", "hotmail.com", "outlook.com", "yahoo.com", "icloud.com",
+        "khas.edu.tr", "stu.khas.edu.tr", "example.com"
+    };
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of contacts (default 1000000)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        verifyRoundTrip(10_000);
+
+        long base = usedHeap();
+        List<Contact> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) list.add(sample(i));
+        long listBytes = usedHeap() - base;
+        System.out.println("List<Contact> size " + list.size());
+        list = null;
+
+        base = usedHeap();
+        CompactContactStore store = new CompactContactStore(count);
+        for (int i = 0; i < count; i++) store.put(sample(i));
+        long storeBytes = usedHeap() - base;
+        int[] dict = store.dictionarySizes();
+        System.out.println("CompactContactStore size " + store.size() + ", dictionaries (first/last/domain) "
+                + dict[0] + "/" + dict[1] + "/" + dict[2]);
+
+        report("List<Contact>      ", listBytes, count);
+        report("CompactContactStore", storeBytes, count);
+        System.out.printf("Reduction: %.2fx%n", (double) listBytes / storeBytes);
+    }
+
+    /**
+     * Checks that contacts read back from the store equal the originals,
+     * including after replacing and removing entries.
+     *
+     * @param count number of contacts to check
+     */
+    private static void verifyRoundTrip(int count) {
+        CompactContactStore store = new CompactContactStore();
+        for (int i = 0; i < count; i++) store.put(sample(i));
+        for (int i = 0; i < count; i += 3) store.remove(i + 1);
+        for (int i = 0; i < count; i += 7) store.put(sample(i));
+
+        for (int i = 0; i < count; i++) {
+            boolean expected = i % 3 != 0 || i % 7 == 0;
+            Contact stored = store.get(i + 1);
+            if (expected != (stored != null) || (stored != null && !same(sample(i), stored))) {
+                throw new IllegalStateException("Round trip failed for contact " + (i + 1));
+            }
+        }
+    }
+
+    /**
+     * Compares every field of two contacts.
+     *
+     * @param a first contact
+     * @param b second contact
+     * @return {@code true} if all fields are equal
+     */
+    private static boolean same(Contact a, Contact b) {
+        return a.getContactId() == b.getContactId()
+                && Objects.equals(a.getFirstName(), b.getFirstName())
+                && Objects.equals(a.getMiddleName(), b.getMiddleName())
+                && Objects.equals(a.getLastName(), b.getLastName())
+                && Objects.equals(a.getNickname(), b.getNickname())
+                && Objects.equals(a.getPhonePrimary(), b.getPhonePrimary())
+                && Objects.equals(a.getPhoneSecondary(), b.getPhoneSecondary())
+                && Objects.equals(a.getEmail(), b.getEmail())
+                && Objects.equals(a.getLinkedinUrl(), b.getLinkedinUrl())
+                && Objects.equals(a.getBirthDate(), b.getBirthDate())
+                && Objects.equals(a.getCreatedAt(), b.getCreatedAt())
+                && Objects.equals(a.getUpdatedAt(), b.getUpdatedAt());
+    }
+
+    /**
+     * Builds the i-th synthetic contact; the same index always gives equal data.
+     *
+     * @param i contact index
+     * @return the contact
+     */
+    private static Contact sample(int i) {
+        String first = FIRST_NAMES[i % FIRST_NAMES.length];
+        String last = LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+        Contact c = new Contact();
+        c.setContactId(i + 1);
+        c.setFirstName(new String(first));
+        c.setMiddleName(i % 5 == 0 ? "Nur" : null);
+        c.setLastName(new String(last));
+        c.setNickname("user" + i);
+        c.setPhonePrimary(String.format("05%08d", i));
+        c.setPhoneSecondary(i % 8 == 0 ? String.format("02%08d", i) : null);
+        c.setEmail("user" + i + "@" + DOMAINS[i % DOMAINS.length]);
+        c.setLinkedinUrl(i % 4 == 0 ? "https://www.linkedin.com/in/user" + i : null);
+        c.setBirthDate(i % 10 == 0 ? null : Date.valueOf("19" + (50 + i % 50) + "-0" + (1 + i % 9) + "-1" + (i % 9)));
+        c.setCreatedAt(new Timestamp(1_700_000_000_000L + i * 1000L));
+        c.setUpdatedAt(new Timestamp(1_700_000_000_000L + i * 2000L));
+        return c;
+    }
+
+    /**
+     * Prints one heap measurement.
+     *
+     * @param label name of the representation
+     * @param bytes heap bytes used
+     * @param count number of contacts
+     */
+    private static void report(String label, long bytes, int count) {
+        System.out.printf("%s: %8.1f MB  %6.1f bytes/contact%n", label, bytes / 1e6, (double) bytes / count);
+    }
+
+    /**
+     * Returns the heap in use after repeated garbage collection.
+     *
+     * @return used heap bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
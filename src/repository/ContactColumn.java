@@ -0,0 +1,100 @@
+package repository;
+
+import models.Contact;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Columns of the {@code contacts} table that can be projected by a query and
+ * shown in a contact table.
+ * <p>
+ * Each constant knows its SQL column name, the header used in tables, the
+ * widest a table column may grow, and how to read the value from a
+ * {@link Contact}. Column names come only from this enum, so they can be
+ * concatenated into SQL safely.
+ * </p>
+ */
+public enum ContactColumn {
+
+    ID("contact_id", "ID", 7, Contact::getContactId),
+    FIRST_NAME("first_name", "First Name", 14, Contact::getFirstName),
+    MIDDLE_NAME("middle_name", "Middle", 12, Contact::getMiddleName),
+    LAST_NAME("last_name", "Last Name", 14, Contact::getLastName),
+    NICKNAME("nickname", "Nickname", 14, Contact::getNickname),
+    PHONE_PRIMARY("phone_primary", "Phone", 10, Contact::getPhonePrimary),
+    PHONE_SECONDARY("phone_secondary", "Phone 2", 10, Contact::getPhoneSecondary),
+    EMAIL("email", "E-mail", 26, Contact::getEmail),
+    LINKEDIN("linkedin_url", "LinkedIn", 30, Contact::getLinkedinUrl),
+    BIRTH_DATE("birth_date", "Birth Date", 10, Contact::getBirthDate),
+    CREATED_AT("created_at", "Created At", 19, Contact::getCreatedAt),
+    UPDATED_AT("updated_at", "Updated At", 19, Contact::getUpdatedAt);
+
+    /** Columns shown when the user does not choose any. */
+    public static final List<ContactColumn> DEFAULT_TABLE =
+            List.of(ID, FIRST_NAME, LAST_NAME, NICKNAME, PHONE_PRIMARY, EMAIL);
+
+    private final String column;
+    private final String label;
+    private final int maxWidth;
+    private final Function<Contact, Object> getter;
+
+    ContactColumn(String column, String label, int maxWidth, Function<Contact, Object> getter) {
+        this.column = column;
+        this.label = label;
+        this.maxWidth = maxWidth;
+        this.getter = getter;
+    }
+
+    /**
+     * Returns the SQL column name.
+     *
+     * @return the column name in the {@code contacts} table
+     */
+    public String column() {
+        return column;
+    }
+
+    /**
+     * Returns the table header text.
+     *
+     * @return the header label
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Returns the widest this column may be rendered; longer values are truncated.
+     *
+     * @return maximum width in characters
+     */
+    public int maxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * Returns the constant for an SQL column name, so that callers passing
+     * column names as strings cannot splice arbitrary text into a query.
+     *
+     * @param column a column name such as {@code "first_name"}; case is ignored
+     * @return the matching constant
+     * @throws IllegalArgumentException if no column has this name
+     */
+    public static ContactColumn ofColumn(String column) {
+        for (ContactColumn candidate : values()) {
+            if (candidate.column.equalsIgnoreCase(column)) return candidate;
+        }
+        throw new IllegalArgumentException("Unknown contacts column: " + column);
+    }
+
+    /**
+     * Reads this column's value from a contact.
+     *
+     * @param contact the contact
+     * @return the value, or {@code null} if not set
+     */
+    public Object valueOf(Contact contact) {
+        return getter.apply(contact);
+    }
+}
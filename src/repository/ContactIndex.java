@@ -0,0 +1,40 @@
+package repository;
+
+import models.Contact;
+
+import java.util.List;
+
+/**
+ * An in-memory index over the {@code contacts} table that is kept up to date
+ * by {@link ContactRepository} writes.
+ * <p>
+ * Indexes are registered in {@link ContactIndexes}, which builds them from a
+ * full load and then forwards every successful insert, update and delete,
+ * including those made by the undo commands.
+ * </p>
+ */
+public interface ContactIndex {
+
+    /**
+     * Discards the current content and indexes the given contacts.
+     *
+     * @param contacts every contact in the table
+     */
+    void rebuild(List<Contact> contacts);
+
+    /**
+     * Indexes a contact that was inserted or updated, replacing any previous
+     * entries for its id.
+     *
+     * @param contact the contact as stored, read back with the timestamps the
+     *                database set; its id is set
+     */
+    void contactSaved(Contact contact);
+
+    /**
+     * Removes a deleted contact.
+     *
+     * @param contactId id of the deleted contact
+     */
+    void contactDeleted(int contactId);
+}
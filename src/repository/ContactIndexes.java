@@ -0,0 +1,190 @@
+package repository;
+
+import models.Contact;
+
+import java.util.List;
+
+/**
+ * Registry of the in-memory contact indexes shared by the whole application.
+ * <p>
+ * The indexes are built lazily from one {@link ContactRepository#findAll()}
+ * the first time any of them is requested (or earlier, by the startup
+ * warm-up calling {@link #load()}). After that, {@link ContactRepository}
+ * reports every successful write here and each index updates itself
+ * incrementally. Writes made before the first load are ignored, since the
+ * load reads the current table anyway.
+ * </p>
+ * <p>
+ * Loading and updates are synchronized on the registry, so a lookup made
+ * while the warm-up thread is still loading waits for it instead of loading
+ * twice.
+ * </p>
+ */
+public final class ContactIndexes {
+
+    private static final ContactIndexes INSTANCE = new ContactIndexes();
+
+    private final EmailDomainIndex emailDomains = new EmailDomainIndex();
+    private final PhoneIndex phones = new PhoneIndex();
+    private final NamePrefixIndex names = new NamePrefixIndex();
+    private final SearchKeyIndex searchKeys = new SearchKeyIndex();
+    private final FuzzyNameIndex fuzzyNames = new FuzzyNameIndex();
+    private final PhoneticIndex phonetic = new PhoneticIndex();
+    private final AttributeBitmapIndex attributes = new AttributeBitmapIndex();
+    private final SortedFieldIndex sortedFields = new SortedFieldIndex();
+    private final CompactContactStore contacts = new CompactContactStore();
+
+    /** Every registered index, updated in this order. */
+    private final List<ContactIndex> indexes = List.of(emailDomains, phones, names, searchKeys, fuzzyNames, phonetic, attributes,
+            sortedFields, contacts);
+
+    /** Whether the indexes have been built. */
+    private volatile boolean loaded;
+
+    private ContactIndexes() {
+    }
+
+    /**
+     * Returns the shared registry.
+     *
+     * @return the registry
+     */
+    public static ContactIndexes get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Builds every index from the current table, unless already built.
+     */
+    public synchronized void load() {
+        if (loaded) return;
+        List<Contact> contacts = new ContactRepository().findAll();
+        for (ContactIndex index : indexes) {
+            index.rebuild(contacts);
+        }
+        loaded = true;
+    }
+
+    /**
+     * Tells whether the indexes have been built and now receive every write.
+     *
+     * @return {@code true} once loaded
+     */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the e-mail domain index, building the indexes first if needed.
+     *
+     * @return the e-mail domain index
+     */
+    public EmailDomainIndex emailDomains() {
+        load();
+        return emailDomains;
+    }
+
+    /**
+     * Returns the phone number index, building the indexes first if needed.
+     *
+     * @return the phone index
+     */
+    public PhoneIndex phones() {
+        load();
+        return phones;
+    }
+
+    /**
+     * Returns the name type-ahead index, building the indexes first if needed.
+     *
+     * @return the name prefix index
+     */
+    public NamePrefixIndex names() {
+        load();
+        return names;
+    }
+
+    /**
+     * Returns the normalized search key index, building the indexes first if needed.
+     *
+     * @return the search key index
+     */
+    public SearchKeyIndex searchKeys() {
+        load();
+        return searchKeys;
+    }
+
+    /**
+     * Returns the typo-tolerant name index, building the indexes first if needed.
+     *
+     * @return the fuzzy name index
+     */
+    public FuzzyNameIndex fuzzyNames() {
+        load();
+        return fuzzyNames;
+    }
+
+    /**
+     * Returns the sound-alike name index, building the indexes first if needed.
+     *
+     * @return the phonetic index
+     */
+    public PhoneticIndex phonetic() {
+        load();
+        return phonetic;
+    }
+
+    /**
+     * Returns the attribute bitmap index, building the indexes first if needed.
+     *
+     * @return the attribute bitmaps
+     */
+    public AttributeBitmapIndex attributes() {
+        load();
+        return attributes;
+    }
+
+    /**
+     * Returns the sorted field index, building the indexes first if needed.
+     *
+     * @return the sorted fields
+     */
+    public SortedFieldIndex sortedFields() {
+        load();
+        return sortedFields;
+    }
+
+    /**
+     * Rebuilds contacts from the in-memory contact store.
+     *
+     * @param ids contact ids in the wanted order
+     * @return the stored contacts in that order, or {@code null} if the indexes are not built yet
+     */
+    synchronized List<Contact> storedContacts(int[] ids) {
+        return loaded ? contacts.getAll(ids) : null;
+    }
+
+    /**
+     * Forwards an inserted or updated contact to every index.
+     *
+     * @param contact the written contact
+     */
+    synchronized void contactSaved(Contact contact) {
+        if (!loaded) return;
+        for (ContactIndex index : indexes) {
+            index.contactSaved(contact);
+        }
+    }
+
+    /**
+     * Forwards a deleted contact id to every index.
+     *
+     * @param contactId id of the deleted contact
+     */
+    synchronized void contactDeleted(int contactId) {
+        if (!loaded) return;
+        for (ContactIndex index : indexes) {
+            index.contactDeleted(contactId);
+        }
+    }
+}
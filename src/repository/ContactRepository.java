@@ -10,9 +10,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map; 
 
 /**
  * Repository class responsible for performing CRUD and search operations
@@ -22,6 +24,11 @@ import java.util.Map;
  * entities: loading, inserting, updating, deleting and searching by
  * various criteria.
  * </p>
+ * <p>
+ * Every successful insert, update and delete is also reported to
+ * {@link ContactIndexes}, so the in-memory indexes stay in step with the
+ * table, including changes made by the undo commands.
+ * </p>
  */
 public class ContactRepository {
 
@@ -32,6 +39,9 @@ public class ContactRepository {
             "phone_primary, phone_secondary, email, linkedin_url, birth_date, created_at, updated_at " +
             "FROM contacts";
 
+    /** Maximum number of ids bound to one {@code IN (...)} query by {@link #findByIds}. */
+    private static final int ID_BATCH_SIZE = 500;
+
      /**
      * Retrieves all contacts from the database ordered by {@code contact_id}.
      * @author Bora
@@ -72,7 +82,130 @@ public class ContactRepository {
         return null;
     }
 
-    
+    /**
+     * Loads the contacts with the given ids, as returned by the in-memory indexes.
+     * <p>
+     * Once {@link ContactIndexes} is loaded, the contacts are rebuilt from its
+     * in-memory {@link CompactContactStore} without a query. Otherwise the ids
+     * are sent in batches of {@value #ID_BATCH_SIZE} per {@code IN (...)}
+     * query. Unknown ids are skipped.
+     * </p>
+     *
+     * @param ids contact ids to load
+     * @return the contacts that exist, ordered by {@code contact_id}
+     */
+    public List<Contact> findByIds(int[] ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+
+        List<Contact> stored = ContactIndexes.get().storedContacts(sorted);
+        if (stored != null) return stored;
+
+        List<Contact> contacts = new ArrayList<>(sorted.length);
+        try (Connection connection = requireConnection()) {
+            for (int from = 0; from < sorted.length; from += ID_BATCH_SIZE) {
+                int to = Math.min(sorted.length, from + ID_BATCH_SIZE);
+                StringBuilder sql = new StringBuilder(BASE_SELECT).append(" WHERE contact_id IN (");
+                for (int i = from; i < to; i++) {
+                    sql.append(i == from ? "?" : ", ?");
+                }
+                sql.append(") ORDER BY contact_id");
+
+                try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                    for (int i = from; i < to; i++) {
+                        statement.setInt(i - from + 1, sorted[i]);
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            contacts.add(mapRow(resultSet));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load " + ids.length + " contacts by id", e);
+        }
+        return contacts;
+    }
+
+    /**
+     * Loads the contacts matching a condition built by the contact query planner.
+     * <p>
+     * The condition must name columns only through {@link ContactColumn#column()}
+     * and pass every value as a {@code ?} parameter. When {@code ids} is given,
+     * the condition is combined with {@code contact_id IN (...)} batches of
+     * {@value #ID_BATCH_SIZE}, the rows come back ordered by id and
+     * {@code orderBy} is ignored.
+     * </p>
+     *
+     * @param where   SQL condition with {@code ?} placeholders, or {@code null} for every row
+     * @param params  values for the placeholders, in order
+     * @param ids     ids to restrict the result to, or {@code null} for no restriction
+     * @param orderBy {@code ORDER BY} list built from column names, or {@code null} to order by id
+     * @param limit   maximum number of rows, or {@code -1} for no limit
+     * @return the matching contacts
+     */
+    public List<Contact> findWhere(String where, List<Object> params, int[] ids, String orderBy, int limit) {
+        String condition = (where == null) ? "1=1" : "(" + where + ")";
+        List<Contact> contacts = new ArrayList<>();
+        try (Connection connection = requireConnection()) {
+            if (ids == null) {
+                String sql = BASE_SELECT + " WHERE " + condition
+                        + " ORDER BY " + ((orderBy == null) ? "contact_id" : orderBy)
+                        + ((limit < 0) ? "" : " LIMIT " + limit);
+                readInto(contacts, connection, sql, params, new int[0], 0, 0);
+                return contacts;
+            }
+
+            int[] sorted = ids.clone();
+            Arrays.sort(sorted);
+            for (int from = 0; from < sorted.length && (limit < 0 || contacts.size() < limit); from += ID_BATCH_SIZE) {
+                int to = Math.min(sorted.length, from + ID_BATCH_SIZE);
+                StringBuilder sql = new StringBuilder(BASE_SELECT).append(" WHERE ").append(condition)
+                        .append(" AND contact_id IN (");
+                for (int i = from; i < to; i++) {
+                    sql.append(i == from ? "?" : ", ?");
+                }
+                sql.append(") ORDER BY contact_id");
+                if (limit >= 0) sql.append(" LIMIT ").append(limit - contacts.size());
+                readInto(contacts, connection, sql.toString(), params, sorted, from, to);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Query failed: " + condition, e);
+        }
+        return contacts;
+    }
+
+    /**
+     * Runs a query with condition parameters followed by a range of id parameters.
+     *
+     * @param contacts   the list receiving the rows
+     * @param connection an open connection
+     * @param sql        the query
+     * @param params     condition parameters
+     * @param ids        id parameters
+     * @param from       first id to bind, inclusive
+     * @param to         last id to bind, exclusive
+     * @throws SQLException if the query fails
+     */
+    private void readInto(List<Contact> contacts, Connection connection, String sql,
+                          List<Object> params, int[] ids, int from, int to) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (Object param : params) {
+                statement.setObject(index++, param);
+            }
+            for (int i = from; i < to; i++) {
+                statement.setInt(index++, ids[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    contacts.add(mapRow(resultSet));
+                }
+            }
+        }
+    }
+
     /**
      * Performs an exact (case-sensitive, binary collation) search on a given field.
      * <p>
@@ -82,12 +215,13 @@ public class ContactRepository {
      * @param field the column name to search on (must be a valid contacts column)
      * @param value the exact value to match
      * @return list of contacts where the given field exactly equals the given value
+     * @throws IllegalArgumentException if the field is not a {@code contacts} column
      */
 public List<Contact> searchByFieldExact(String field, String value) {
     String sql =
         "SELECT contact_id, first_name, middle_name, last_name, nickname, " +
         "phone_primary, phone_secondary, email, linkedin_url, birth_date, created_at, updated_at " +
-        "FROM contacts WHERE LOWER(" + field + ") = LOWER(?)";
+        "FROM contacts WHERE LOWER(" + ContactColumn.ofColumn(field).column() + ") = LOWER(?)";
 
     List<Contact> results = new ArrayList<>();
 
@@ -128,18 +262,17 @@ public List<Contact> searchByFieldExact(String field, String value) {
              PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             bindContact(statement, contact);
             int affected = statement.executeUpdate();
-            if (affected > 0) {
-                try (ResultSet keys = statement.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        contact.setContactId(keys.getInt(1));
-                    }
+            if (affected == 0) return false;
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                if (keys.next()) {
+                    contact.setContactId(keys.getInt(1));
                 }
-                return true;
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to insert contact", e);
         }
-        return false;
+        indexSaved(contact);
+        return true;
     }
 
     /**
@@ -158,10 +291,26 @@ public List<Contact> searchByFieldExact(String field, String value) {
              PreparedStatement statement = connection.prepareStatement(sql)) {
             int index = bindContact(statement, contact);
             statement.setInt(index, contact.getContactId());
-            return statement.executeUpdate() > 0;
+            if (statement.executeUpdate() == 0) return false;
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update contact " + contact.getContactId(), e);
         }
+        indexSaved(contact);
+        return true;
+    }
+
+    /**
+     * Reports a written contact to {@link ContactIndexes}. Once the indexes are
+     * loaded the row is read back first, since {@code created_at} and
+     * {@code updated_at} are set by the database and the in-memory store must
+     * return them as a query would.
+     *
+     * @param contact the written contact; its id is set
+     */
+    private void indexSaved(Contact contact) {
+        if (!ContactIndexes.get().isLoaded()) return;
+        Contact stored = findById(contact.getContactId());
+        ContactIndexes.get().contactSaved((stored != null) ? stored : contact);
     }
 
     /**
@@ -175,7 +324,9 @@ public List<Contact> searchByFieldExact(String field, String value) {
              PreparedStatement statement = connection
                      .prepareStatement("DELETE FROM contacts WHERE contact_id = ?")) {
             statement.setInt(1, contactId);
-            return statement.executeUpdate() > 0;
+            if (statement.executeUpdate() == 0) return false;
+            ContactIndexes.get().contactDeleted(contactId);
+            return true;
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete contact " + contactId, e);
         }
@@ -191,6 +342,7 @@ public List<Contact> searchByFieldExact(String field, String value) {
      * @param field the column name to search on (must be a valid contacts column)
      * @param value the value used in the LIKE expression (wrapped with {@code %})
      * @return list of matching contacts
+     * @throws IllegalArgumentException if the field is not a {@code contacts} column
      */
 public List<Contact> searchByField(String field, String value) {
 
@@ -198,7 +350,7 @@ public List<Contact> searchByField(String field, String value) {
         "SELECT contact_id, first_name, middle_name, last_name, nickname, " +
         "phone_primary, phone_secondary, email, linkedin_url, birth_date, created_at, updated_at " +
         "FROM contacts " +
-        "WHERE BINARY LOWER(" + field + ") LIKE BINARY LOWER(?)";
+        "WHERE BINARY LOWER(" + ContactColumn.ofColumn(field).column() + ") LIKE BINARY LOWER(?)";
 
     List<Contact> results = new ArrayList<>();
 
@@ -220,95 +372,6 @@ public List<Contact> searchByField(String field, String value) {
     return results;
 }
 
-    /**
-     * Searches contacts based on whether they have a LinkedIn URL or not.
-     *
-     * @param hasLinkedin if {@code true}, returns only contacts with a non-empty
-     *                    LinkedIn URL; if {@code false}, returns contacts with no
-     *                    LinkedIn URL
-     * @author Mikail
-     * @return list of contacts matching the LinkedIn presence condition
-     */
-    public List<Contact> searchByLinkedinPresence(boolean hasLinkedin) {
-        String sql = BASE_SELECT;
-
-        if (hasLinkedin) {
-            sql += " WHERE linkedin_url IS NOT NULL AND linkedin_url <> ''";
-        } else {
-            sql += " WHERE linkedin_url IS NULL OR linkedin_url = ''";
-        }
-
-        List<Contact> results = new ArrayList<>();
-
-        try (Connection connection = requireConnection();
-             PreparedStatement st = connection.prepareStatement(sql);
-             ResultSet rs = st.executeQuery()) {
-
-            while (rs.next()) {
-                results.add(mapRow(rs));
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to search by LinkedIn presence", e);
-        }
-
-        return results;
-    }
-
-    /**
-     * Performs a multi-field search using a map of criteria.
-     * <p>
-     * Each entry in the map represents:
-     * <ul>
-     *     <li>key   → column name</li>
-     *     <li>value → search text, used in a {@code LIKE '%value%'} clause</li>
-     * </ul>
-     * All criteria are combined with {@code AND}.
-     * </p>
-     * @author Can
-     * @param criteria map of field names to search values
-     * @return list of contacts matching all criteria; empty list if criteria is
-     *         {@code null} or empty
-     */
-public List<Contact> searchByMultipleCriteria(Map<String, String> criteria) {
-    if (criteria == null || criteria.isEmpty()) {
-        return new ArrayList<>();
-    }
-
-    StringBuilder sqlBuilder = new StringBuilder(
-        "SELECT contact_id, first_name, middle_name, last_name, nickname, " +
-        "phone_primary, phone_secondary, email, linkedin_url, birth_date, created_at, updated_at " +
-        "FROM contacts WHERE 1=1"
-    );
-
-    List<Object> values = new ArrayList<>();
-
-    for (Map.Entry<String, String> entry : criteria.entrySet()) {
-        sqlBuilder.append(" AND BINARY LOWER(")
-                  .append(entry.getKey())
-                  .append(") LIKE BINARY LOWER(?)");
-        values.add("%" + entry.getValue() + "%");
-    }
-
-    List<Contact> results = new ArrayList<>();
-    try (Connection connection = requireConnection();
-         PreparedStatement st = connection.prepareStatement(sqlBuilder.toString())) {
-
-        for (int i = 0; i < values.size(); i++) {
-            st.setObject(i + 1, values.get(i));
-        }
-
-        try (ResultSet rs = st.executeQuery()) {
-            while (rs.next()) {
-                results.add(mapRow(rs));
-            }
-        }
-    } catch (SQLException e) {
-        throw new RuntimeException("Multi-field search failed", e);
-    }
-    return results;
-}
-
     /**
      * Returns all contacts sorted by a given column and direction.
      * <p>
@@ -352,6 +415,163 @@ public List<Contact> searchByMultipleCriteria(Map<String, String> criteria) {
         return contacts;
     }
 
+    /**
+     * Returns the ids of the contacts whose field equals the given value,
+     * ignoring case, without loading the contacts themselves.
+     * <p>
+     * This is the projection of {@link #searchByFieldExact} that uniqueness
+     * checks need: only {@code contact_id} is read and no {@link Contact}
+     * objects are built.
+     * </p>
+     *
+     * @param field the column name to search on (must be a valid contacts column)
+     * @param value the exact value to match
+     * @return ids of the matching contacts, possibly empty
+     * @throws IllegalArgumentException if the field is not a {@code contacts} column
+     */
+    public int[] findIdsByFieldExact(String field, String value) {
+        String sql = "SELECT contact_id FROM contacts WHERE LOWER(" + ContactColumn.ofColumn(field).column() + ") = LOWER(?)";
+
+        int[] ids = new int[4];
+        int count = 0;
+        try (Connection connection = requireConnection();
+             PreparedStatement st = connection.prepareStatement(sql)) {
+            st.setString(1, value);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+                    ids[count++] = rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Id lookup failed for field: " + field, e);
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Loads the fields needed for contact statistics, one lightweight row per contact.
+     * <p>
+     * Only {@code contact_id}, {@code birth_date}, {@code created_at} and
+     * {@code updated_at} are transferred; whether a LinkedIn URL is present and
+     * the lower-cased e-mail domain are computed by the database, so the URLs
+     * and addresses themselves are never read.
+     * </p>
+     * <p>
+     * With a {@code changedSince} time only rows updated at or after it are
+     * returned, which lets an in-memory snapshot catch up incrementally.
+     * </p>
+     *
+     * @param changedSince only return rows with {@code updated_at >= changedSince};
+     *                     {@code null} for all rows
+     * @return the matching rows, ordered by {@code contact_id}
+     */
+    public List<StatsRow> findStatsRows(LocalDateTime changedSince) {
+        String sql = "SELECT contact_id, birth_date, created_at, updated_at, " +
+                "(linkedin_url IS NOT NULL AND TRIM(linkedin_url) <> '') AS has_linkedin, " +
+                "CASE WHEN email LIKE '%@%' THEN LOWER(TRIM(SUBSTRING_INDEX(email, '@', -1))) END AS email_domain " +
+                "FROM contacts" +
+                (changedSince == null ? "" : " WHERE updated_at >= ?") +
+                " ORDER BY contact_id";
+
+        List<StatsRow> rows = new ArrayList<>();
+        try (Connection connection = requireConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (changedSince != null) {
+                statement.setObject(1, changedSince);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(new StatsRow(
+                            resultSet.getInt(1),
+                            resultSet.getObject(2, LocalDate.class),
+                            resultSet.getObject(3, LocalDateTime.class),
+                            resultSet.getObject(4, LocalDateTime.class),
+                            resultSet.getBoolean(5),
+                            resultSet.getString(6)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load contact statistics", e);
+        }
+        return rows;
+    }
+
+    /**
+     * Loads the ids of all contacts, without any other column.
+     *
+     * @return every {@code contact_id}, in ascending order
+     */
+    public int[] findAllIds() {
+        int[] ids = new int[64];
+        int count = 0;
+        try (Connection connection = requireConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT contact_id FROM contacts ORDER BY contact_id");
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+                ids[count++] = resultSet.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load contact ids", e);
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Counts the contacts in the table.
+     *
+     * @return number of contacts
+     */
+    public int count() {
+        try (Connection connection = requireConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM contacts");
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to count contacts", e);
+        }
+    }
+
+    /**
+     * Loads one page of contacts, reading only the requested columns.
+     * <p>
+     * Pages are addressed by key rather than by offset: the next page starts
+     * after the last {@code contact_id} of the previous one, so every page is an
+     * index range scan no matter how deep the listing goes. {@code contact_id}
+     * is always selected; the other fields of the returned contacts are only
+     * filled for the requested columns.
+     * </p>
+     *
+     * @param columns the columns to read
+     * @param afterId return contacts with an id greater than this; {@code 0} for the first page
+     * @param limit   maximum number of contacts to return
+     * @return up to {@code limit} contacts ordered by {@code contact_id}
+     */
+    public List<Contact> findPage(List<ContactColumn> columns, int afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT contact_id");
+        for (ContactColumn column : columns) {
+            if (column != ContactColumn.ID) sql.append(", ").append(column.column());
+        }
+        sql.append(" FROM contacts WHERE contact_id > ? ORDER BY contact_id LIMIT ?");
+
+        List<Contact> contacts = new ArrayList<>(limit);
+        try (Connection connection = requireConnection();
+             PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            statement.setInt(1, afterId);
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    contacts.add(mapProjectedRow(resultSet, columns));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load contact page after id " + afterId, e);
+        }
+        return contacts;
+    }
+
     /**
      * Ensures a non-null database connection is obtained.
      * @author Bora
@@ -445,4 +665,50 @@ public List<Contact> searchByMultipleCriteria(Map<String, String> criteria) {
         contact.setUpdatedAt(resultSet.getTimestamp("updated_at"));
         return contact;
     }
+
+    /**
+     * Maps a row produced by {@link #findPage} to a {@link Contact}, setting only
+     * the projected columns.
+     *
+     * @param resultSet the result set positioned at a valid row
+     * @param columns   the columns present in the row besides {@code contact_id}
+     * @return a partially populated {@link Contact}
+     * @throws SQLException if a JDBC error occurs while reading columns
+     */
+    private Contact mapProjectedRow(ResultSet resultSet, List<ContactColumn> columns) throws SQLException {
+        Contact contact = new Contact();
+        contact.setContactId(resultSet.getInt("contact_id"));
+        for (ContactColumn column : columns) {
+            String name = column.column();
+            switch (column) {
+                case FIRST_NAME -> contact.setFirstName(resultSet.getString(name));
+                case MIDDLE_NAME -> contact.setMiddleName(resultSet.getString(name));
+                case LAST_NAME -> contact.setLastName(resultSet.getString(name));
+                case NICKNAME -> contact.setNickname(resultSet.getString(name));
+                case PHONE_PRIMARY -> contact.setPhonePrimary(resultSet.getString(name));
+                case PHONE_SECONDARY -> contact.setPhoneSecondary(resultSet.getString(name));
+                case EMAIL -> contact.setEmail(resultSet.getString(name));
+                case LINKEDIN -> contact.setLinkedinUrl(resultSet.getString(name));
+                case BIRTH_DATE -> contact.setBirthDate(resultSet.getDate(name));
+                case CREATED_AT -> contact.setCreatedAt(resultSet.getTimestamp(name));
+                case UPDATED_AT -> contact.setUpdatedAt(resultSet.getTimestamp(name));
+                case ID -> { }
+            }
+        }
+        return contact;
+    }
+
+    /**
+     * Projection of a contact used for statistics.
+     *
+     * @param contactId   the contact id
+     * @param birthDate   the birth date, or {@code null} if unknown
+     * @param createdAt   the creation time, or {@code null} if unknown
+     * @param updatedAt   the last update time, or {@code null} if unknown
+     * @param hasLinkedin whether the contact has a non-blank LinkedIn URL
+     * @param emailDomain the lower-cased e-mail domain, or {@code null} if there is no e-mail
+     */
+    public record StatsRow(int contactId, LocalDate birthDate, LocalDateTime createdAt, LocalDateTime updatedAt,
+                           boolean hasLinkedin, String emailDomain) {
+    }
 }
@@ -0,0 +1,280 @@
+package repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Column-oriented in-memory copy of the contact fields used by statistics and reports.
+ * <p>
+ * Instead of one object per contact, every field is a primitive column indexed
+ * by slot:
+ * </p>
+ * <ul>
+ *     <li>{@code int[]} birth dates as epoch days, plus the same dates as
+ *         {@code yyyymmdd} numbers, so whole-year ages are a subtraction and a division</li>
+ *     <li>{@code long[]} creation times in milliseconds</li>
+ *     <li>{@code int[]} e-mail domains, coded by a {@link StringDictionary}</li>
+ *     <li>{@link BitSet}s for LinkedIn presence and for which birth dates and
+ *         creation times are known</li>
+ * </ul>
+ * <p>
+ * Aggregates are plain loops over these arrays, with no boxing, no date objects
+ * and no pointer chasing, so the JIT can keep them tight. Ages in whole years
+ * are {@code (today - birth) / 10000} on {@code yyyymmdd} numbers, which equals
+ * {@code Period.between(birth, today).getYears()}.
+ * </p>
+ * <p>
+ * {@link #refresh()} brings the snapshot up to date. The first call loads every
+ * row; later calls only load rows whose {@code updated_at} is at or after the
+ * newest one already seen, and reconcile deletions when the row count no
+ * longer matches. The snapshot is not thread-safe; do not refresh it while
+ * another thread reads it.
+ * </p>
+ *
+ * <p><b>Usage example:</b></p>
+ * <pre>{@code
+ * ContactSnapshot snapshot = new ContactSnapshot(contactRepository);
+ * snapshot.refresh();
+ * ContactStats stats = new ContactAggregator().aggregate(snapshot, LocalDate.now());
+ * }</pre>
+ */
+public class ContactSnapshot {
+
+    private final ContactRepository repository;
+
+    private final IdIndex slots = new IdIndex();
+    private final StringDictionary domains = new StringDictionary();
+
+    private int size;
+    private int[] ids = new int[64];
+    private int[] birthDay = new int[64];
+    private int[] birthYmd = new int[64];
+    private long[] createdAt = new long[64];
+    private int[] domain = new int[64];
+    private final BitSet linkedin = new BitSet();
+    private final BitSet hasBirth = new BitSet();
+    private final BitSet hasCreated = new BitSet();
+
+    /** Newest {@code updated_at} seen so far; {@code null} before the first refresh. */
+    private LocalDateTime watermark;
+
+    /**
+     * Creates an empty snapshot; call {@link #refresh()} to load it.
+     *
+     * @param repository repository the rows are loaded from
+     */
+    public ContactSnapshot(ContactRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Loads rows changed since the last refresh and drops deleted contacts.
+     *
+     * @return the number of rows loaded from the database
+     */
+    public int refresh() {
+        List<ContactRepository.StatsRow> rows = repository.findStatsRows(watermark);
+        for (ContactRepository.StatsRow row : rows) {
+            put(row);
+        }
+        if (size != repository.count()) {
+            retainOnly(repository.findAllIds());
+        }
+        return rows.size();
+    }
+
+    /**
+     * Returns the number of contacts in the snapshot.
+     *
+     * @return contact count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the contact id stored in a slot.
+     *
+     * @param slot a slot between {@code 0} and {@link #size()} - 1
+     * @return the contact id
+     */
+    public int contactId(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Checks whether the contact in a slot has a birth date.
+     *
+     * @param slot the slot
+     * @return {@code true} if the birth date is known
+     */
+    public boolean hasBirthDate(int slot) {
+        return hasBirth.get(slot);
+    }
+
+    /**
+     * Returns the birth date in a slot as an epoch day.
+     *
+     * @param slot the slot; only meaningful if {@link #hasBirthDate} is {@code true}
+     * @return the epoch day
+     */
+    public int birthEpochDay(int slot) {
+        return birthDay[slot];
+    }
+
+    /**
+     * Returns the birth date in a slot as a {@code yyyymmdd} number.
+     *
+     * @param slot the slot; only meaningful if {@link #hasBirthDate} is {@code true}
+     * @return the date, e.g. {@code 19950315}
+     */
+    public int birthYmd(int slot) {
+        return birthYmd[slot];
+    }
+
+    /**
+     * Checks whether the contact in a slot has a creation time.
+     *
+     * @param slot the slot
+     * @return {@code true} if the creation time is known
+     */
+    public boolean hasCreatedAt(int slot) {
+        return hasCreated.get(slot);
+    }
+
+    /**
+     * Returns the creation time in a slot, as milliseconds of the database's
+     * local time read as UTC. Only differences and order are meaningful.
+     *
+     * @param slot the slot; only meaningful if {@link #hasCreatedAt} is {@code true}
+     * @return the creation time in milliseconds
+     */
+    public long createdAtMillis(int slot) {
+        return createdAt[slot];
+    }
+
+    /**
+     * Checks whether the contact in a slot has a LinkedIn URL.
+     *
+     * @param slot the slot
+     * @return {@code true} if a non-blank URL is stored
+     */
+    public boolean hasLinkedin(int slot) {
+        return linkedin.get(slot);
+    }
+
+    /**
+     * Returns the e-mail domain code in a slot.
+     *
+     * @param slot the slot
+     * @return the code, or {@link StringDictionary#NONE} if there is no e-mail
+     */
+    public int domainCode(int slot) {
+        return domain[slot];
+    }
+
+    /**
+     * Returns the domain for a code from {@link #domainCode}.
+     *
+     * @param code the domain code
+     * @return the lower-cased domain, or {@code null} for {@link StringDictionary#NONE}
+     */
+    public String domainName(int code) {
+        return domains.decode(code);
+    }
+
+    /**
+     * Converts a date to a {@code yyyymmdd} number as used by {@link #birthYmd}.
+     *
+     * @param date the date
+     * @return the date as a number
+     */
+    public static int toYmd(LocalDate date) {
+        return date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * Adds or replaces the contact of a row.
+     *
+     * @param row the row
+     */
+    private void put(ContactRepository.StatsRow row) {
+        int slot = slots.get(row.contactId());
+        if (slot < 0) {
+            if (size == ids.length) grow();
+            slot = size++;
+            slots.put(row.contactId(), slot);
+        }
+
+        ids[slot] = row.contactId();
+        LocalDate birth = row.birthDate();
+        hasBirth.set(slot, birth != null);
+        birthDay[slot] = (birth == null) ? 0 : (int) birth.toEpochDay();
+        birthYmd[slot] = (birth == null) ? 0 : toYmd(birth);
+        hasCreated.set(slot, row.createdAt() != null);
+        createdAt[slot] = (row.createdAt() == null) ? 0 : toMillis(row.createdAt());
+        linkedin.set(slot, row.hasLinkedin());
+        domain[slot] = domains.encode(row.emailDomain());
+
+        if (row.updatedAt() != null && (watermark == null || row.updatedAt().isAfter(watermark))) {
+            watermark = row.updatedAt();
+        }
+    }
+
+    /**
+     * Removes every contact whose id is not in the given list.
+     *
+     * @param liveIds ids that still exist, in ascending order
+     */
+    private void retainOnly(int[] liveIds) {
+        for (int slot = size - 1; slot >= 0; slot--) {
+            if (Arrays.binarySearch(liveIds, ids[slot]) < 0) {
+                removeSlot(slot);
+            }
+        }
+    }
+
+    /**
+     * Removes a slot by moving the last slot into it.
+     *
+     * @param slot the slot to remove
+     */
+    private void removeSlot(int slot) {
+        slots.remove(ids[slot]);
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            birthDay[slot] = birthDay[last];
+            birthYmd[slot] = birthYmd[last];
+            createdAt[slot] = createdAt[last];
+            domain[slot] = domain[last];
+            linkedin.set(slot, linkedin.get(last));
+            hasBirth.set(slot, hasBirth.get(last));
+            hasCreated.set(slot, hasCreated.get(last));
+            slots.put(ids[slot], slot);
+        }
+        linkedin.clear(last);
+        hasBirth.clear(last);
+        hasCreated.clear(last);
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        int n = ids.length * 2;
+        ids = Arrays.copyOf(ids, n);
+        birthDay = Arrays.copyOf(birthDay, n);
+        birthYmd = Arrays.copyOf(birthYmd, n);
+        createdAt = Arrays.copyOf(createdAt, n);
+        domain = Arrays.copyOf(domain, n);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,125 @@
+package repository;
+
+import models.Contact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Reverse index from normalized e-mail domain to the ids of the contacts using it.
+ * <p>
+ * Domains are the part after the last {@code @}, trimmed and lower-cased, and
+ * are coded by a {@link StringDictionary}; each code owns a sorted
+ * {@link IdList}. An exact-domain lookup is one hash probe plus a copy of the
+ * matching ids, so it costs {@code O(result)} whatever the table size.
+ * </p>
+ */
+public class EmailDomainIndex implements ContactIndex {
+
+    private final StringDictionary domains = new StringDictionary();
+
+    /** Posting list of each domain code. */
+    private final List<IdList> postings = new ArrayList<>();
+
+    /** Domain code of each indexed contact; contacts without a domain are absent. */
+    private IdIndex codeOfContact = new IdIndex();
+
+    /**
+     * Extracts the normalized domain of an e-mail address.
+     *
+     * @param email the address, may be {@code null}
+     * @return the lower-cased domain, or {@code null} if there is none
+     */
+    public static String domainOf(String email) {
+        if (email == null) return null;
+        int at = email.lastIndexOf('@');
+        if (at < 0) return null;
+        String domain = email.substring(at + 1).trim().toLowerCase(Locale.ROOT);
+        return domain.isEmpty() ? null : domain;
+    }
+
+    /**
+     * Returns the ids of all contacts with exactly the given domain.
+     *
+     * @param domain the domain, e.g. {@code gmail.com}; case and a leading {@code @} are ignored
+     * @return matching contact ids in ascending order, possibly empty
+     */
+    public int[] idsForDomain(String domain) {
+        String key = domain.trim();
+        if (key.startsWith("@")) key = key.substring(1);
+        int code = domains.codeOf(key.toLowerCase(Locale.ROOT));
+        return (code == StringDictionary.NONE) ? new int[0] : postings.get(code).toArray();
+    }
+
+    /**
+     * Returns the domains used by the most contacts.
+     * <p>
+     * A min-heap of at most {@code limit} entries is kept while walking the
+     * domains, so only the winners are ever sorted.
+     * </p>
+     *
+     * @param limit maximum number of domains to return
+     * @return domains with their contact counts, most used first; ties by name
+     */
+    public List<DomainCount> topDomains(int limit) {
+        PriorityQueue<DomainCount> heap = new PriorityQueue<>(
+                (a, b) -> (a.count() != b.count()) ? Integer.compare(a.count(), b.count()) : b.domain().compareTo(a.domain()));
+        for (int code = 0; code < postings.size(); code++) {
+            int count = postings.get(code).size();
+            if (count == 0 || limit <= 0) continue;
+            if (heap.size() < limit) {
+                heap.add(new DomainCount(domains.decode(code), count));
+            } else if (count >= heap.peek().count()) {
+                heap.add(new DomainCount(domains.decode(code), count));
+                heap.poll();
+            }
+        }
+
+        List<DomainCount> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) result.add(heap.poll());
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public void rebuild(List<Contact> contacts) {
+        for (IdList posting : postings) {
+            posting.clear();
+        }
+        codeOfContact = new IdIndex();
+        for (Contact contact : contacts) {
+            contactSaved(contact);
+        }
+    }
+
+    @Override
+    public void contactSaved(Contact contact) {
+        int id = contact.getContactId();
+        contactDeleted(id);
+
+        String domain = domainOf(contact.getEmail());
+        if (domain == null) return;
+        int code = domains.encode(domain);
+        while (postings.size() <= code) postings.add(new IdList());
+        postings.get(code).add(id);
+        codeOfContact.put(id, code);
+    }
+
+    @Override
+    public void contactDeleted(int contactId) {
+        int code = codeOfContact.remove(contactId);
+        if (code >= 0) postings.get(code).remove(contactId);
+    }
+
+    /**
+     * A domain and the number of contacts using it.
+     *
+     * @param domain the lower-cased domain
+     * @param count  number of contacts
+     */
+    public record DomainCount(String domain, int count) {
+    }
+}
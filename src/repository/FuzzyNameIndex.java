@@ -0,0 +1,243 @@
+package repository;
+
+import models.Contact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo-tolerant lookup of the words used in the first, middle and last names
+ * and nicknames of all contacts.
+ * <p>
+ * Every distinct word is reduced to plain ASCII with {@link TurkishText} (so
+ * "Çelik" and "Celik" are the same word) and stored in a BK-tree: each child
+ * hangs under its parent by its Levenshtein distance to it. Because that
+ * distance obeys the triangle inequality, a search for words within
+ * {@code d} edits of the query only descends into children whose edge is
+ * within {@code d} of the query's distance to the parent, and skips the rest
+ * of the dictionary. The tree holds distinct words, not contacts, so it stays
+ * small even when many contacts share a name.
+ * </p>
+ * <p>
+ * The tree lives in parallel arrays. Words no longer used by any contact keep
+ * their node with an empty id list and are skipped, as in {@link NamePrefixIndex}.
+ * </p>
+ */
+public class FuzzyNameIndex implements ContactIndex {
+
+    /** Marks a missing node. */
+    private static final int NIL = -1;
+
+    /** Ranks candidates by distance, then by use, then alphabetically. */
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt(Candidate::distance)
+            .thenComparing(Comparator.comparingInt(Candidate::count).reversed())
+            .thenComparing(Candidate::word);
+
+    private String[] words = new String[256];
+    private String[] spellings = new String[256];
+    private IdList[] postings = new IdList[256];
+    private int[] edge = new int[256];
+    private int[] firstChild = new int[256];
+    private int[] nextSibling = new int[256];
+    private int nodes;
+
+    /** Node of each ASCII word. */
+    private final Map<String, Integer> nodeOf = new HashMap<>();
+
+    /** Words indexed for each contact, to remove them on change. */
+    private final Map<Integer, String[]> wordsOf = new HashMap<>();
+
+    /**
+     * Finds the indexed words within an edit distance of a word.
+     *
+     * @param query       a single word; case, diacritics and surrounding spaces are ignored
+     * @param maxDistance maximum number of inserted, deleted or replaced letters
+     * @param limit       maximum number of candidates
+     * @return candidates ordered by distance, then by contact count, then alphabetically
+     */
+    public List<Candidate> search(String query, int maxDistance, int limit) {
+        String key = TurkishText.stripDiacritics(TurkishText.fold(query));
+        List<Candidate> found = new ArrayList<>();
+        if (key == null || nodes == 0 || maxDistance < 0 || limit <= 0) return found;
+
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        int[][] rows = { new int[key.length() + 1], new int[key.length() + 1] };
+        while (top > 0) {
+            int node = stack[--top];
+            int distance = distance(key, words[node], rows);
+            if (distance <= maxDistance && postings[node].size() > 0) {
+                found.add(new Candidate(spellings[node], words[node], distance, postings[node].size()));
+            }
+            for (int child = firstChild[node]; child != NIL; child = nextSibling[child]) {
+                if (Math.abs(edge[child] - distance) <= maxDistance) {
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = child;
+                }
+            }
+        }
+
+        found.sort(RANKING);
+        return (found.size() > limit) ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * Returns the contacts using a word, ignoring case and diacritics.
+     *
+     * @param word a complete word, e.g. {@link Candidate#key()}
+     * @return matching contact ids in ascending order, possibly empty
+     */
+    public int[] idsForWord(String word) {
+        String key = TurkishText.stripDiacritics(TurkishText.fold(word));
+        Integer node = (key == null) ? null : nodeOf.get(key);
+        return (node == null) ? new int[0] : postings[node].toArray();
+    }
+
+    @Override
+    public void rebuild(List<Contact> contacts) {
+        nodes = 0;
+        Arrays.fill(postings, null);
+        nodeOf.clear();
+        wordsOf.clear();
+        for (Contact contact : contacts) {
+            contactSaved(contact);
+        }
+    }
+
+    @Override
+    public void contactSaved(Contact contact) {
+        int id = contact.getContactId();
+        contactDeleted(id);
+
+        List<String> folded = new ArrayList<>(4);
+        NamePrefixIndex.addWords(folded, contact.getFirstName());
+        NamePrefixIndex.addWords(folded, contact.getMiddleName());
+        NamePrefixIndex.addWords(folded, contact.getLastName());
+        NamePrefixIndex.addWords(folded, contact.getNickname());
+        if (folded.isEmpty()) return;
+
+        List<String> keys = new ArrayList<>(folded.size());
+        for (String word : folded) {
+            String key = TurkishText.stripDiacritics(word);
+            if (keys.contains(key)) continue;
+            keys.add(key);
+            int node = insert(key, word);
+            postings[node].add(id);
+        }
+        wordsOf.put(id, keys.toArray(new String[0]));
+    }
+
+    @Override
+    public void contactDeleted(int contactId) {
+        String[] keys = wordsOf.remove(contactId);
+        if (keys == null) return;
+        for (String key : keys) {
+            Integer node = nodeOf.get(key);
+            if (node != null) postings[node].remove(contactId);
+        }
+    }
+
+    /**
+     * Adds a word to the tree if needed.
+     *
+     * @param key      the ASCII word
+     * @param spelling the word as written, shown to the user
+     * @return the word's node
+     */
+    private int insert(String key, String spelling) {
+        Integer existing = nodeOf.get(key);
+        if (existing != null) {
+            if (postings[existing].size() == 0) spellings[existing] = spelling;
+            return existing;
+        }
+        if (nodes == 0) return newNode(key, spelling, 0);
+
+        int[][] rows = { new int[key.length() + 1], new int[key.length() + 1] };
+        int node = 0;
+        while (true) {
+            int distance = distance(key, words[node], rows);
+            int child = firstChild[node];
+            while (child != NIL && edge[child] != distance) child = nextSibling[child];
+            if (child == NIL) {
+                // newNode() may replace the arrays, so it runs before the link is stored.
+                int added = newNode(key, spelling, distance);
+                nextSibling[added] = firstChild[node];
+                firstChild[node] = added;
+                return added;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Allocates a node.
+     *
+     * @param key      the ASCII word
+     * @param spelling the word as written
+     * @param distance distance to the parent node
+     * @return the node number
+     */
+    private int newNode(String key, String spelling, int distance) {
+        if (nodes == words.length) {
+            int n = nodes * 2;
+            words = Arrays.copyOf(words, n);
+            spellings = Arrays.copyOf(spellings, n);
+            postings = Arrays.copyOf(postings, n);
+            edge = Arrays.copyOf(edge, n);
+            firstChild = Arrays.copyOf(firstChild, n);
+            nextSibling = Arrays.copyOf(nextSibling, n);
+        }
+        words[nodes] = key;
+        spellings[nodes] = spelling;
+        postings[nodes] = new IdList();
+        edge[nodes] = distance;
+        firstChild[nodes] = NIL;
+        nextSibling[nodes] = NIL;
+        nodeOf.put(key, nodes);
+        return nodes++;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two words with two reusable rows.
+     *
+     * @param a    the first word
+     * @param b    the second word
+     * @param rows two arrays of length {@code a.length() + 1}
+     * @return the number of single-letter insertions, deletions and replacements
+     *         turning {@code a} into {@code b}
+     */
+    static int distance(String a, String b, int[][] rows) {
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        for (int i = 0; i <= a.length(); i++) previous[i] = i;
+        for (int j = 1; j <= b.length(); j++) {
+            current[0] = j;
+            char ch = b.charAt(j - 1);
+            for (int i = 1; i <= a.length(); i++) {
+                int replace = previous[i - 1] + ((a.charAt(i - 1) == ch) ? 0 : 1);
+                current[i] = Math.min(replace, Math.min(previous[i], current[i - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[a.length()];
+    }
+
+    /**
+     * A word close to the searched one.
+     *
+     * @param word     the word as written in a contact, folded to lower case
+     * @param key      the word without diacritics, to pass to {@link #idsForWord}
+     * @param distance edits between the query and the word
+     * @param count    number of contacts using the word
+     */
+    public record Candidate(String word, String key, int distance, int count) {
+    }
+}
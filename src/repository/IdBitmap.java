@@ -0,0 +1,471 @@
+package repository;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of contact ids in the style of a Roaring bitmap.
+ * <p>
+ * Ids are split by their upper 16 bits into chunks of 65536. Each chunk is a
+ * container holding the lower 16 bits of its ids either as a sorted
+ * {@code char[]}, while it has at most 4096 ids, or as a 1024-word bitmap
+ * once it is denser. Sparse sets therefore cost two bytes per id and dense
+ * sets one bit per possible id, and {@link #and}, {@link #or} and
+ * {@link #andNot} work chunk by chunk, merging arrays or combining words, so
+ * their cost follows the size of the bitmaps, not the number of contacts.
+ * </p>
+ * <p>
+ * The set operations return new bitmaps and leave their operands unchanged.
+ * Only the indexes in this package add and remove ids.
+ * </p>
+ */
+public final class IdBitmap {
+
+    /** Largest number of ids kept in an array container. */
+    private static final int ARRAY_LIMIT = 4096;
+
+    /** Number of 64-bit words in a bitmap container. */
+    private static final int WORDS = 1024;
+
+    /** Upper 16 bits of each chunk, ascending. */
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Creates an empty bitmap.
+     */
+    public IdBitmap() {
+    }
+
+    /**
+     * Creates a bitmap holding the given ids.
+     *
+     * @param ids contact ids, in any order
+     * @return the bitmap
+     */
+    public static IdBitmap of(int[] ids) {
+        IdBitmap bitmap = new IdBitmap();
+        for (int id : ids) {
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Checks whether an id is in the set.
+     *
+     * @param id the contact id
+     * @return {@code true} if present
+     */
+    public boolean contains(int id) {
+        int at = find((char) (id >>> 16));
+        return at >= 0 && containers[at].contains((char) id);
+    }
+
+    /**
+     * Returns the number of ids in the set.
+     *
+     * @return the cardinality
+     */
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality;
+        }
+        return total;
+    }
+
+    /**
+     * Checks whether the set is empty.
+     *
+     * @return {@code true} if it holds no ids
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the ids in the set.
+     *
+     * @return the ids in ascending order
+     */
+    public int[] toArray() {
+        int[] ids = new int[cardinality()];
+        int at = 0;
+        for (int i = 0; i < size; i++) {
+            at = containers[i].fill(ids, at, keys[i] << 16);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the ids present in both bitmaps.
+     *
+     * @param other the other bitmap
+     * @return a new bitmap with the intersection
+     */
+    public IdBitmap and(IdBitmap other) {
+        IdBitmap result = new IdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], Container.and(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ids present in either bitmap.
+     *
+     * @param other the other bitmap
+     * @return a new bitmap with the union
+     */
+    public IdBitmap or(IdBitmap other) {
+        IdBitmap result = new IdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], Container.or(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ids of this bitmap that are not in the other.
+     *
+     * @param other the ids to leave out
+     * @return a new bitmap with the difference
+     */
+    public IdBitmap andNot(IdBitmap other) {
+        IdBitmap result = new IdBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) j++;
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.append(keys[i], Container.andNot(containers[i], other.containers[j]));
+            } else {
+                result.append(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds an id.
+     *
+     * @param id the contact id
+     */
+    void add(int id) {
+        char key = (char) (id >>> 16);
+        int at = find(key);
+        if (at < 0) {
+            at = -at - 1;
+            insert(at, key, new Container());
+        }
+        containers[at].add((char) id);
+    }
+
+    /**
+     * Removes an id, dropping its chunk once empty.
+     *
+     * @param id the contact id
+     */
+    void remove(int id) {
+        int at = find((char) (id >>> 16));
+        if (at < 0) return;
+        Container container = containers[at];
+        container.remove((char) id);
+        if (container.cardinality == 0) {
+            System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+            System.arraycopy(containers, at + 1, containers, at, size - at - 1);
+            containers[--size] = null;
+        }
+    }
+
+    /**
+     * Returns a copy that later changes to this bitmap do not affect.
+     *
+     * @return the copy
+     */
+    IdBitmap copy() {
+        IdBitmap result = new IdBitmap();
+        for (int i = 0; i < size; i++) {
+            result.append(keys[i], containers[i].copy());
+        }
+        return result;
+    }
+
+    /**
+     * Finds the chunk with a key.
+     *
+     * @param key upper 16 bits of an id
+     * @return its position, or {@code -(insertion point) - 1} if absent
+     */
+    private int find(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * Adds a chunk after all others, skipping empty results.
+     *
+     * @param key       the chunk key, greater than any present
+     * @param container the container, or {@code null} if empty
+     */
+    private void append(char key, Container container) {
+        if (container != null) insert(size, key, container);
+    }
+
+    /**
+     * Inserts a chunk at a position.
+     *
+     * @param at        the position
+     * @param key       the chunk key
+     * @param container the container
+     */
+    private void insert(int at, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(containers, at, containers, at + 1, size - at);
+        keys[at] = key;
+        containers[at] = container;
+        size++;
+    }
+
+    /**
+     * The lower 16 bits of the ids in one chunk, as a sorted array or as a bitmap.
+     */
+    private static final class Container {
+
+        /** Sorted values while sparse, otherwise {@code null}. */
+        private char[] values = new char[4];
+
+        /** Bit words while dense, otherwise {@code null}. */
+        private long[] words;
+
+        private int cardinality;
+
+        boolean contains(char low) {
+            if (words != null) return (words[low >>> 6] & (1L << low)) != 0;
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        void add(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) == 0) {
+                    words[low >>> 6] |= bit;
+                    cardinality++;
+                }
+                return;
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, low);
+            if (at >= 0) return;
+            if (cardinality == ARRAY_LIMIT) {
+                words = asWords();
+                values = null;
+                add(low);
+                return;
+            }
+            at = -at - 1;
+            if (cardinality == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+            System.arraycopy(values, at, values, at + 1, cardinality - at);
+            values[at] = low;
+            cardinality++;
+        }
+
+        void remove(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) != 0) {
+                    words[low >>> 6] &= ~bit;
+                    cardinality--;
+                }
+                // Switching back only well below the limit avoids flipping on every add and remove.
+                if (cardinality < ARRAY_LIMIT / 2) {
+                    values = toValues(words, cardinality);
+                    words = null;
+                }
+                return;
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, low);
+            if (at < 0) return;
+            System.arraycopy(values, at + 1, values, at, cardinality - at - 1);
+            cardinality--;
+        }
+
+        Container copy() {
+            Container copy = new Container();
+            copy.cardinality = cardinality;
+            copy.values = (values == null) ? null : Arrays.copyOf(values, Math.max(4, cardinality));
+            copy.words = (words == null) ? null : words.clone();
+            return copy;
+        }
+
+        int fill(int[] out, int at, int high) {
+            if (words == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    out[at++] = high | values[i];
+                }
+                return at;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    out[at++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return at;
+        }
+
+        /**
+         * Returns the container's bits as words; a new array when it is sparse.
+         *
+         * @return the bit words
+         */
+        long[] asWords() {
+            if (words != null) return words;
+            long[] bits = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            return bits;
+        }
+
+        static Container and(Container a, Container b) {
+            if (a.words == null) return filter(a, b, true);
+            if (b.words == null) return filter(b, a, true);
+            long[] bits = new long[WORDS];
+            for (int w = 0; w < WORDS; w++) {
+                bits[w] = a.words[w] & b.words[w];
+            }
+            return fromWords(bits);
+        }
+
+        static Container or(Container a, Container b) {
+            if (a.words == null && b.words == null && a.cardinality + b.cardinality <= ARRAY_LIMIT) {
+                return merge(a, b);
+            }
+            long[] bits = a.asWords().clone();
+            if (b.words != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    bits[w] |= b.words[w];
+                }
+            } else {
+                for (int i = 0; i < b.cardinality; i++) {
+                    bits[b.values[i] >>> 6] |= 1L << b.values[i];
+                }
+            }
+            return fromWords(bits);
+        }
+
+        static Container andNot(Container a, Container b) {
+            if (a.words == null) return filter(a, b, false);
+            long[] bits = a.words.clone();
+            if (b.words != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    bits[w] &= ~b.words[w];
+                }
+            } else {
+                for (int i = 0; i < b.cardinality; i++) {
+                    bits[b.values[i] >>> 6] &= ~(1L << b.values[i]);
+                }
+            }
+            return fromWords(bits);
+        }
+
+        /**
+         * Keeps the values of an array container that are, or are not, in another container.
+         *
+         * @param sparse an array container
+         * @param other  any container
+         * @param keep   {@code true} to keep values present in {@code other}, {@code false} to keep absent ones
+         * @return the filtered container, or {@code null} if empty
+         */
+        private static Container filter(Container sparse, Container other, boolean keep) {
+            char[] kept = new char[sparse.cardinality];
+            int count = 0;
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (other.contains(sparse.values[i]) == keep) kept[count++] = sparse.values[i];
+            }
+            return ofValues(kept, count);
+        }
+
+        private static Container merge(Container a, Container b) {
+            char[] merged = new char[a.cardinality + b.cardinality];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < a.cardinality || j < b.cardinality) {
+                if (j == b.cardinality || (i < a.cardinality && a.values[i] < b.values[j])) {
+                    merged[count++] = a.values[i++];
+                } else if (i == a.cardinality || a.values[i] > b.values[j]) {
+                    merged[count++] = b.values[j++];
+                } else {
+                    merged[count++] = a.values[i++];
+                    j++;
+                }
+            }
+            return ofValues(merged, count);
+        }
+
+        private static Container ofValues(char[] values, int count) {
+            if (count == 0) return null;
+            Container container = new Container();
+            container.values = values;
+            container.cardinality = count;
+            return container;
+        }
+
+        private static Container fromWords(long[] bits) {
+            int count = 0;
+            for (long word : bits) {
+                count += Long.bitCount(word);
+            }
+            if (count == 0) return null;
+            Container container = new Container();
+            container.cardinality = count;
+            if (count <= ARRAY_LIMIT) {
+                container.values = toValues(bits, count);
+            } else {
+                container.values = null;
+                container.words = bits;
+            }
+            return container;
+        }
+
+        private static char[] toValues(long[] bits, int count) {
+            char[] values = new char[Math.max(4, count)];
+            int at = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    values[at++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package repository;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from contact id to an array slot, without boxing.
+ * <p>
+ * Used by the in-memory contact stores to find the slot of a contact in
+ * their parallel arrays. Uses linear probing; removal shifts later entries
+ * back, so no tombstones are needed.
+ * </p>
+ */
+final class IdIndex {
+
+    /** Marks an empty table cell; contact ids are never negative. */
+    private static final int EMPTY = -1;
+
+    private int[] keys = filled(16);
+    private int[] values = new int[16];
+    private int count;
+
+    /**
+     * Returns the slot of an id.
+     *
+     * @param id the contact id
+     * @return the slot, or {@code -1} if absent
+     */
+    int get(int id) {
+        int mask = keys.length - 1;
+        for (int i = hash(id) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == id) return values[i];
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the slot of an id.
+     *
+     * @param id   the contact id
+     * @param slot the slot
+     */
+    void put(int id, int slot) {
+        if ((count + 1) * 4 > keys.length * 3) rehash(keys.length * 2);
+        int mask = keys.length - 1;
+        int i = hash(id) & mask;
+        while (keys[i] != EMPTY && keys[i] != id) i = (i + 1) & mask;
+        if (keys[i] == EMPTY) count++;
+        keys[i] = id;
+        values[i] = slot;
+    }
+
+    /**
+     * Removes an id.
+     *
+     * @param id the contact id
+     * @return its slot, or {@code -1} if absent
+     */
+    int remove(int id) {
+        int mask = keys.length - 1;
+        int i = hash(id) & mask;
+        while (keys[i] != id) {
+            if (keys[i] == EMPTY) return -1;
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        count--;
+
+        // Shift back following entries whose probe sequence passes through the gap.
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        return removed;
+    }
+
+    /**
+     * Rebuilds the table with a new capacity.
+     *
+     * @param capacity new table size, a power of two
+     */
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = filled(capacity);
+        values = new int[capacity];
+        count = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] filled(int capacity) {
+        int[] array = new int[capacity];
+        Arrays.fill(array, EMPTY);
+        return array;
+    }
+}
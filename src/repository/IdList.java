@@ -0,0 +1,96 @@
+package repository;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of contact ids backed by a growable {@code int[]}.
+ * <p>
+ * Used as the posting list of the in-memory indexes: lookups return a copy of
+ * the array in {@code O(result)}, membership is a binary search, and inserts
+ * and removals shift the tail, which is cheap for the short lists an index
+ * key typically holds.
+ * </p>
+ */
+final class IdList {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] ids = EMPTY;
+    private int size;
+
+    /**
+     * Adds an id if it is not present yet.
+     *
+     * @param id the contact id
+     * @return {@code true} if the list changed
+     */
+    boolean add(int id) {
+        int at = Arrays.binarySearch(ids, 0, size, id);
+        if (at >= 0) return false;
+        at = -at - 1;
+        if (size == ids.length) ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        ids[at] = id;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an id.
+     *
+     * @param id the contact id
+     * @return {@code true} if the id was present
+     */
+    boolean remove(int id) {
+        int at = Arrays.binarySearch(ids, 0, size, id);
+        if (at < 0) return false;
+        System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every id.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Checks whether an id is present.
+     *
+     * @param id the contact id
+     * @return {@code true} if present
+     */
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Returns the number of ids.
+     *
+     * @return list size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id at a position.
+     *
+     * @param index position between {@code 0} and {@link #size()} - 1
+     * @return the id
+     */
+    int get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Copies the ids into a new array.
+     *
+     * @return the ids in ascending order
+     */
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+}
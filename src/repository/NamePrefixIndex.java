@@ -0,0 +1,331 @@
+package repository;
+
+import models.Contact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Type-ahead index over the first, middle and last names and nicknames of all contacts.
+ * <p>
+ * Each name is folded with {@link TurkishText#fold} and split into words, and
+ * every word is stored in a ternary search tree whose end nodes hold the ids of
+ * the contacts using it. Completing a prefix walks down the tree once and then
+ * visits only the subtree below the prefix, keeping the {@code k} most used
+ * words in a small min-heap, so the cost depends on the prefix, not on the
+ * number of contacts.
+ * </p>
+ * <p>
+ * A second tree holds the same words without diacritics, and queries pick the
+ * tree the way {@link SearchKeyIndex} picks its keys: a plain ASCII prefix
+ * such as "cel" or "Ir" is looked up without diacritics and completes
+ * "Çelik" and "İrem" (shown as "celik" and "irem"), while a prefix with
+ * Turkish letters is matched exactly, ignoring case only.
+ * </p>
+ * <p>
+ * The trees live in parallel arrays rather than node objects. Nodes of words
+ * that are no longer used stay in place with an empty id list and are skipped.
+ * </p>
+ */
+public class NamePrefixIndex implements ContactIndex {
+
+    /** Marks a missing child. */
+    private static final int NIL = -1;
+
+    /** Folded words. */
+    private final Tree folded = new Tree();
+
+    /** Folded words without diacritics. */
+    private final Tree loose = new Tree();
+
+    /** Folded words indexed for each contact, to remove them on change. */
+    private final Map<Integer, String[]> wordsOf = new HashMap<>();
+
+    /**
+     * Returns the most used words starting with a prefix.
+     *
+     * @param prefix the typed text; case and surrounding spaces are ignored, and
+     *               a plain ASCII prefix also matches letters with diacritics
+     * @param limit  maximum number of completions
+     * @return completions ordered by contact count, then alphabetically
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        String key = TurkishText.searchKey(prefix);
+        if (key == null || limit <= 0) return new ArrayList<>();
+        Tree tree = treeFor(prefix);
+        int node = tree.find(key);
+        if (node == NIL) return new ArrayList<>();
+
+        PriorityQueue<Completion> heap = new PriorityQueue<>(
+                (a, b) -> (a.count() != b.count()) ? Integer.compare(a.count(), b.count()) : b.word().compareTo(a.word()));
+        StringBuilder word = new StringBuilder(key);
+        tree.offer(heap, limit, node, word);
+        tree.collect(tree.eq[node], word, heap, limit);
+
+        List<Completion> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) result.add(heap.poll());
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Returns the contacts using a word in any of their names.
+     *
+     * @param word a complete word; case and surrounding spaces are ignored, and
+     *             a plain ASCII word also matches the word with diacritics
+     * @return matching contact ids in ascending order, possibly empty
+     */
+    public int[] idsForWord(String word) {
+        String key = TurkishText.searchKey(word);
+        if (key == null) return new int[0];
+        Tree tree = treeFor(word);
+        int node = tree.find(key);
+        return (node == NIL || tree.postings[node] == null) ? new int[0] : tree.postings[node].toArray();
+    }
+
+    @Override
+    public void rebuild(List<Contact> contacts) {
+        folded.clear();
+        loose.clear();
+        wordsOf.clear();
+        for (Contact contact : contacts) {
+            contactSaved(contact);
+        }
+    }
+
+    @Override
+    public void contactSaved(Contact contact) {
+        int id = contact.getContactId();
+        contactDeleted(id);
+
+        List<String> words = new ArrayList<>(4);
+        addWords(words, contact.getFirstName());
+        addWords(words, contact.getMiddleName());
+        addWords(words, contact.getLastName());
+        addWords(words, contact.getNickname());
+        if (words.isEmpty()) return;
+
+        List<String> looseWords = new ArrayList<>(words.size());
+        for (String word : words) {
+            folded.add(word, id);
+            String key = TurkishText.stripDiacritics(word);
+            if (!looseWords.contains(key)) {
+                looseWords.add(key);
+                loose.add(key, id);
+            }
+        }
+        wordsOf.put(id, words.toArray(new String[0]));
+    }
+
+    @Override
+    public void contactDeleted(int contactId) {
+        String[] words = wordsOf.remove(contactId);
+        if (words == null) return;
+        for (String word : words) {
+            folded.remove(word, contactId);
+            loose.remove(TurkishText.stripDiacritics(word), contactId);
+        }
+    }
+
+    /**
+     * Adds the distinct folded words of a name to a list.
+     *
+     * @param words the list to add to
+     * @param name  the name, may be {@code null}
+     */
+    static void addWords(List<String> words, String name) {
+        String folded = TurkishText.fold(name);
+        if (folded == null) return;
+        for (String word : folded.split("\\s+")) {
+            if (!words.contains(word)) words.add(word);
+        }
+    }
+
+    /**
+     * Picks the tree a typed query is looked up in.
+     *
+     * @param query the text the user typed
+     * @return the tree without diacritics for a plain ASCII query, otherwise the folded one
+     */
+    private Tree treeFor(String query) {
+        return TurkishText.isAscii(query) ? loose : folded;
+    }
+
+    /**
+     * A ternary search tree of words with the ids of the contacts using each word.
+     */
+    private static final class Tree {
+
+        private char[] split = new char[256];
+        private int[] lo = new int[256];
+        private int[] eq = new int[256];
+        private int[] hi = new int[256];
+        private IdList[] postings = new IdList[256];
+        private int nodes;
+        private int root = NIL;
+
+        /**
+         * Removes every word.
+         */
+        void clear() {
+            nodes = 0;
+            root = NIL;
+            Arrays.fill(postings, null);
+        }
+
+        /**
+         * Records that a contact uses a word.
+         *
+         * @param word      a non-empty word
+         * @param contactId the contact id
+         */
+        void add(String word, int contactId) {
+            int node = insert(word);
+            if (postings[node] == null) postings[node] = new IdList();
+            postings[node].add(contactId);
+        }
+
+        /**
+         * Records that a contact no longer uses a word.
+         *
+         * @param word      a non-empty word
+         * @param contactId the contact id
+         */
+        void remove(String word, int contactId) {
+            int node = find(word);
+            if (node != NIL && postings[node] != null) postings[node].remove(contactId);
+        }
+
+        /**
+         * Finds the node where a word ends.
+         *
+         * @param word a non-empty word
+         * @return the node, or {@link NamePrefixIndex#NIL} if no indexed word has this prefix
+         */
+        int find(String word) {
+            int node = root;
+            int i = 0;
+            while (node != NIL) {
+                char ch = word.charAt(i);
+                if (ch < split[node]) {
+                    node = lo[node];
+                } else if (ch > split[node]) {
+                    node = hi[node];
+                } else if (++i == word.length()) {
+                    return node;
+                } else {
+                    node = eq[node];
+                }
+            }
+            return NIL;
+        }
+
+        /**
+         * Adds a word to the tree if needed.
+         *
+         * @param word a non-empty word
+         * @return the node where the word ends
+         */
+        private int insert(String word) {
+            if (root == NIL) root = newNode(word.charAt(0));
+            int node = root;
+            int i = 0;
+            while (true) {
+                // newNode() may replace the arrays, so it runs before the child is stored.
+                char ch = word.charAt(i);
+                if (ch < split[node]) {
+                    if (lo[node] == NIL) {
+                        int child = newNode(ch);
+                        lo[node] = child;
+                    }
+                    node = lo[node];
+                } else if (ch > split[node]) {
+                    if (hi[node] == NIL) {
+                        int child = newNode(ch);
+                        hi[node] = child;
+                    }
+                    node = hi[node];
+                } else if (++i == word.length()) {
+                    return node;
+                } else {
+                    if (eq[node] == NIL) {
+                        int child = newNode(word.charAt(i));
+                        eq[node] = child;
+                    }
+                    node = eq[node];
+                }
+            }
+        }
+
+        /**
+         * Visits every word in a subtree and offers it to the heap.
+         *
+         * @param node  the subtree root
+         * @param word  the characters leading to {@code node}
+         * @param heap  the bounded min-heap of best completions
+         * @param limit heap capacity
+         */
+        void collect(int node, StringBuilder word, PriorityQueue<Completion> heap, int limit) {
+            if (node == NIL) return;
+            collect(lo[node], word, heap, limit);
+            word.append(split[node]);
+            offer(heap, limit, node, word);
+            collect(eq[node], word, heap, limit);
+            word.setLength(word.length() - 1);
+            collect(hi[node], word, heap, limit);
+        }
+
+        /**
+         * Offers the word ending at a node to the heap, if it is still used.
+         *
+         * @param heap  the bounded min-heap of best completions
+         * @param limit heap capacity
+         * @param node  the node
+         * @param word  the word ending at {@code node}
+         */
+        void offer(PriorityQueue<Completion> heap, int limit, int node, CharSequence word) {
+            int count = (postings[node] == null) ? 0 : postings[node].size();
+            if (count == 0) return;
+            if (heap.size() == limit && count < heap.peek().count()) return;
+            heap.add(new Completion(word.toString(), count));
+            if (heap.size() > limit) heap.poll();
+        }
+
+        /**
+         * Allocates a node.
+         *
+         * @param ch the node's character
+         * @return the node number
+         */
+        private int newNode(char ch) {
+            if (nodes == split.length) {
+                int n = nodes * 2;
+                split = Arrays.copyOf(split, n);
+                lo = Arrays.copyOf(lo, n);
+                eq = Arrays.copyOf(eq, n);
+                hi = Arrays.copyOf(hi, n);
+                postings = Arrays.copyOf(postings, n);
+            }
+            split[nodes] = ch;
+            lo[nodes] = NIL;
+            eq[nodes] = NIL;
+            hi[nodes] = NIL;
+            postings[nodes] = null;
+            return nodes++;
+        }
+    }
+
+    /**
+     * A completed word and the number of contacts using it.
+     *
+     * @param word  the folded word, without diacritics when an ASCII prefix was completed
+     * @param count number of contacts with the word in one of their names
+     */
+    public record Completion(String word, int count) {
+    }
+}
@@ -0,0 +1,161 @@
+package repository;
+
+import models.Contact;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Unified index over the primary and secondary phone numbers of all contacts,
+ * answering exact, prefix and suffix (last digits) lookups.
+ * <p>
+ * Every phone is reduced to its digits and stored twice in one sorted map:
+ * once forward and once reversed, each key tagged with its direction. A prefix
+ * lookup is a range scan over the forward keys and a suffix lookup a range
+ * scan over the reversed keys, since the last digits of a number are the first
+ * digits of its reversal; an exact lookup is a single forward key. Both phone
+ * columns share the map, so each lookup is one probe regardless of which
+ * column matched.
+ * </p>
+ */
+public class PhoneIndex implements ContactIndex {
+
+    /** How the searched digits must match a phone number. */
+    public enum Match {
+        /** The whole number equals the digits. */
+        EXACT,
+        /** The number starts with the digits. */
+        PREFIX,
+        /** The number ends with the digits. */
+        SUFFIX
+    }
+
+    /** Tag of keys holding digits in reading order. */
+    private static final char FORWARD = '>';
+
+    /** Tag of keys holding digits in reverse order. */
+    private static final char REVERSED = '<';
+
+    private final TreeMap<String, IdList> keys = new TreeMap<>();
+
+    /** Digits of the phones indexed for each contact, to remove them on change. */
+    private final Map<Integer, String[]> phonesOf = new HashMap<>();
+
+    /**
+     * Keeps only the digits of a phone number.
+     *
+     * @param phone the phone number, may be {@code null}
+     * @return its digits, or {@code null} if it has none
+     */
+    public static String digitsOf(String phone) {
+        if (phone == null) return null;
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char ch = phone.charAt(i);
+            if (ch >= '0' && ch <= '9') digits.append(ch);
+        }
+        return (digits.length() == 0) ? null : digits.toString();
+    }
+
+    /**
+     * Finds contacts with a primary or secondary phone matching the digits.
+     *
+     * @param digits the digits to look for; other characters are ignored
+     * @param match  how the digits must match
+     * @return matching contact ids in ascending order, possibly empty
+     */
+    public int[] find(String digits, Match match) {
+        String key = digitsOf(digits);
+        if (key == null) return new int[0];
+
+        switch (match) {
+            case EXACT: {
+                IdList ids = keys.get(FORWARD + key);
+                return (ids == null) ? new int[0] : ids.toArray();
+            }
+            case PREFIX:
+                return range(FORWARD + key);
+            default:
+                return range(REVERSED + new StringBuilder(key).reverse().toString());
+        }
+    }
+
+    @Override
+    public void rebuild(List<Contact> contacts) {
+        keys.clear();
+        phonesOf.clear();
+        for (Contact contact : contacts) {
+            contactSaved(contact);
+        }
+    }
+
+    @Override
+    public void contactSaved(Contact contact) {
+        int id = contact.getContactId();
+        contactDeleted(id);
+
+        String primary = digitsOf(contact.getPhonePrimary());
+        String secondary = digitsOf(contact.getPhoneSecondary());
+        if (primary == null && secondary == null) return;
+
+        String[] phones = { primary, secondary };
+        for (String phone : phones) {
+            if (phone == null) continue;
+            keys.computeIfAbsent(FORWARD + phone, k -> new IdList()).add(id);
+            keys.computeIfAbsent(REVERSED + new StringBuilder(phone).reverse().toString(), k -> new IdList()).add(id);
+        }
+        phonesOf.put(id, phones);
+    }
+
+    @Override
+    public void contactDeleted(int contactId) {
+        String[] phones = phonesOf.remove(contactId);
+        if (phones == null) return;
+        for (String phone : phones) {
+            if (phone == null) continue;
+            removeKey(FORWARD + phone, contactId);
+            removeKey(REVERSED + new StringBuilder(phone).reverse().toString(), contactId);
+        }
+    }
+
+    /**
+     * Collects the ids of every key starting with the given key.
+     *
+     * @param from the tagged key prefix
+     * @return the distinct ids in ascending order
+     */
+    private int[] range(String from) {
+        int[] ids = new int[16];
+        int count = 0;
+        for (IdList list : keys.subMap(from, from + Character.MAX_VALUE).values()) {
+            for (int i = 0; i < list.size(); i++) {
+                if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+                ids[count++] = list.get(i);
+            }
+        }
+
+        // A contact may match through both of its phones.
+        Arrays.sort(ids, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || ids[i] != ids[distinct - 1]) ids[distinct++] = ids[i];
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    /**
+     * Removes an id from a key and drops the key once it is empty.
+     *
+     * @param key the tagged key
+     * @param id  the contact id
+     */
+    private void removeKey(String key, int id) {
+        IdList ids = keys.get(key);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.size() == 0) keys.remove(key);
+    }
+}
@@ -0,0 +1,207 @@
+package repository;
+
+import models.Contact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sound-alike index over the first and last names of all contacts.
+ * <p>
+ * Every word of a name is reduced to a phonetic key with {@link #keyOf}, a
+ * Soundex-style code adapted to Turkish spelling, and the key is stored in a
+ * hash map per field. Names that sound the same, such as "Mehmet", "Memet" and
+ * "Mehmed", or "Ayşe", "Aişe" and "Ayse", share a key, so a sound-alike lookup
+ * is one hash probe per query word instead of a scan.
+ * </p>
+ */
+public class PhoneticIndex implements ContactIndex {
+
+    /** Fields that get phonetic keys. */
+    public static final List<ContactColumn> FIELDS = List.of(ContactColumn.FIRST_NAME, ContactColumn.LAST_NAME);
+
+    /** Longest key produced; later sounds rarely tell names apart. */
+    private static final int MAX_KEY_LENGTH = 6;
+
+    /** Code of each letter {@code a}..{@code z}; {@code 0} marks a vowel, {@code -} a silent letter. */
+    private static final String CODES = "0123045-025677015893044909";
+
+    /** Keys of each field, in the order of {@link #FIELDS}. */
+    private final List<Map<String, IdList>> keys = new ArrayList<>();
+
+    /** Keys indexed for each contact, per field, to remove them on change. */
+    private final List<Map<Integer, String[]>> keysOf = new ArrayList<>();
+
+    /**
+     * Creates an empty index.
+     */
+    public PhoneticIndex() {
+        for (int f = 0; f < FIELDS.size(); f++) {
+            keys.add(new HashMap<>());
+            keysOf.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Computes the phonetic key of one word.
+     * <p>
+     * The word is folded with Turkish rules. A leading vowel is kept as its
+     * plain letter; every consonant becomes the digit of its sound group:
+     * </p>
+     * <ul>
+     *     <li>1: b p</li>
+     *     <li>2: c ç j</li>
+     *     <li>3: d t</li>
+     *     <li>4: f v w</li>
+     *     <li>5: g k q</li>
+     *     <li>6: l</li>
+     *     <li>7: m n</li>
+     *     <li>8: r</li>
+     *     <li>9: s ş z x</li>
+     * </ul>
+     * <p>
+     * Vowels and {@code y} only separate consonants, {@code h} and {@code ğ}
+     * are silent, and repeated digits with no vowel between them collapse into
+     * one, so "Mehmet" and "Memet" both give {@code 773}. Keys are cut after
+     * six characters.
+     * </p>
+     *
+     * @param word a single word, may be {@code null}
+     * @return the key, or {@code null} if the word has no letters
+     */
+    public static String keyOf(String word) {
+        String folded = TurkishText.fold(word);
+        if (folded == null) return null;
+
+        StringBuilder key = new StringBuilder(MAX_KEY_LENGTH);
+        char last = 0;
+        for (int i = 0; i < folded.length() && key.length() < MAX_KEY_LENGTH; i++) {
+            char ch = folded.charAt(i);
+            if (ch == 'ğ' || ch == 'h') continue;
+            char letter = TurkishText.stripDiacritics(String.valueOf(ch)).charAt(0);
+            if (letter < 'a' || letter > 'z') continue;
+
+            char code = CODES.charAt(letter - 'a');
+            if (code == '0') {
+                if (key.length() == 0) key.append(letter);
+            } else if (code != last) {
+                key.append(code);
+            }
+            last = code;
+        }
+        return (key.length() == 0) ? null : key.toString();
+    }
+
+    /**
+     * Finds contacts whose name sounds like the given one.
+     * <p>
+     * Each word of the query is looked up with one probe; a contact matches
+     * when its name has a word sounding like every query word, in any order.
+     * </p>
+     *
+     * @param field one of {@link #FIELDS}
+     * @param name  the name as heard, one or more words
+     * @return matching contact ids in ascending order, possibly empty
+     */
+    public int[] find(ContactColumn field, String name) {
+        Map<String, IdList> map = keys.get(column(field));
+        String[] queryKeys = keysOfName(name);
+        if (queryKeys.length == 0) return new int[0];
+
+        int[] result = null;
+        for (String key : queryKeys) {
+            IdList ids = map.get(key);
+            if (ids == null) return new int[0];
+            result = (result == null) ? ids.toArray() : intersect(result, ids);
+            if (result.length == 0) break;
+        }
+        return result;
+    }
+
+    @Override
+    public void rebuild(List<Contact> contacts) {
+        for (int f = 0; f < FIELDS.size(); f++) {
+            keys.get(f).clear();
+            keysOf.get(f).clear();
+        }
+        for (Contact contact : contacts) {
+            contactSaved(contact);
+        }
+    }
+
+    @Override
+    public void contactSaved(Contact contact) {
+        int id = contact.getContactId();
+        contactDeleted(id);
+        for (int f = 0; f < FIELDS.size(); f++) {
+            Object value = FIELDS.get(f).valueOf(contact);
+            String[] nameKeys = keysOfName((value == null) ? null : value.toString());
+            if (nameKeys.length == 0) continue;
+            for (String key : nameKeys) {
+                keys.get(f).computeIfAbsent(key, k -> new IdList()).add(id);
+            }
+            keysOf.get(f).put(id, nameKeys);
+        }
+    }
+
+    @Override
+    public void contactDeleted(int contactId) {
+        for (int f = 0; f < FIELDS.size(); f++) {
+            String[] nameKeys = keysOf.get(f).remove(contactId);
+            if (nameKeys == null) continue;
+            for (String key : nameKeys) {
+                IdList ids = keys.get(f).get(key);
+                if (ids == null) continue;
+                ids.remove(contactId);
+                if (ids.size() == 0) keys.get(f).remove(key);
+            }
+        }
+    }
+
+    /**
+     * Computes the distinct keys of the words of a name.
+     *
+     * @param name the name, may be {@code null}
+     * @return the keys, possibly empty
+     */
+    private static String[] keysOfName(String name) {
+        String folded = TurkishText.fold(name);
+        if (folded == null) return new String[0];
+        return Arrays.stream(folded.split(" "))
+                .map(PhoneticIndex::keyOf)
+                .filter(key -> key != null)
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Keeps the ids of a sorted array that are also in a list.
+     *
+     * @param ids  sorted ids
+     * @param list the list to intersect with
+     * @return the common ids in ascending order
+     */
+    private static int[] intersect(int[] ids, IdList list) {
+        int count = 0;
+        for (int id : ids) {
+            if (list.contains(id)) ids[count++] = id;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Returns the key map position of a field.
+     *
+     * @param field the field
+     * @return its position in {@link #FIELDS}
+     * @throws IllegalArgumentException if the field has no phonetic keys
+     */
+    private static int column(ContactColumn field) {
+        int f = FIELDS.indexOf(field);
+        if (f < 0) throw new IllegalArgumentException("No phonetic keys for " + field);
+        return f;
+    }
+}
@@ -0,0 +1,196 @@
+package repository;
+
+import models.Contact;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precomputed, Turkish-aware search keys for the text fields of all contacts.
+ * <p>
+ * When a contact is written, each of its names, its nickname, its e-mail and its phones is
+ * normalized once with {@link TurkishText#fold} and {@link TurkishText#stripDiacritics}
+ * and the two keys are kept in per-field columns. A search normalizes only the
+ * query, with {@link TurkishText#searchKey}, and compares it with the stored
+ * keys using plain {@code String} operations: no lower-casing or other function
+ * call is made per contact, unlike the {@code LOWER(col) LIKE LOWER(?)} query it
+ * replaces, and Turkish İ/ı are matched correctly.
+ * </p>
+ */
+public class SearchKeyIndex implements ContactIndex {
+
+    /** Fields that get search keys, in column order. */
+    public static final List<ContactColumn> FIELDS = List.of(
+            ContactColumn.FIRST_NAME, ContactColumn.MIDDLE_NAME, ContactColumn.LAST_NAME,
+            ContactColumn.NICKNAME, ContactColumn.EMAIL, ContactColumn.PHONE_PRIMARY, ContactColumn.PHONE_SECONDARY);
+
+    /** How a stored key must match a query key. */
+    private enum Mode {
+        EQUAL, PREFIX, CONTAINS;
+
+        boolean matches(String candidate, String key) {
+            switch (this) {
+                case EQUAL: return candidate.equals(key);
+                case PREFIX: return candidate.startsWith(key);
+                default: return candidate.contains(key);
+            }
+        }
+    }
+
+    private final IdIndex slots = new IdIndex();
+    private int size;
+    private int[] ids = new int[64];
+
+    /** Folded keys, {@code [field][slot]}. */
+    private final String[][] folded = new String[FIELDS.size()][64];
+
+    /** Folded keys without diacritics, {@code [field][slot]}. */
+    private final String[][] loose = new String[FIELDS.size()][64];
+
+    /**
+     * Finds contacts whose field contains the query.
+     * <p>
+     * A plain ASCII query is compared without diacritics ("celik" finds
+     * "Çelik"); a query with Turkish letters is compared exactly, ignoring case.
+     * </p>
+     *
+     * @param field one of {@link #FIELDS}
+     * @param query the text the user typed
+     * @return matching contact ids in ascending order, possibly empty
+     */
+    public int[] findContaining(ContactColumn field, String query) {
+        return find(field, query, Mode.CONTAINS);
+    }
+
+    /**
+     * Finds contacts whose field starts with the query, with the same
+     * normalization as {@link #findContaining}.
+     *
+     * @param field one of {@link #FIELDS}
+     * @param query the text the user typed
+     * @return matching contact ids in ascending order, possibly empty
+     */
+    public int[] findStartingWith(ContactColumn field, String query) {
+        return find(field, query, Mode.PREFIX);
+    }
+
+    /**
+     * Finds contacts whose field equals the query, with the same
+     * normalization as {@link #findContaining}.
+     *
+     * @param field one of {@link #FIELDS}
+     * @param query the text the user typed
+     * @return matching contact ids in ascending order, possibly empty
+     */
+    public int[] findEqual(ContactColumn field, String query) {
+        return find(field, query, Mode.EQUAL);
+    }
+
+    /**
+     * Returns the stored key of a contact's field.
+     *
+     * @param field          one of {@link #FIELDS}
+     * @param contactId      the contact id
+     * @param withDiacritics {@code true} for the folded key, {@code false} for the ASCII key
+     * @return the key, or {@code null} if the field is empty or the contact unknown
+     */
+    public String keyOf(ContactColumn field, int contactId, boolean withDiacritics) {
+        int slot = slots.get(contactId);
+        if (slot < 0) return null;
+        return (withDiacritics ? folded : loose)[column(field)][slot];
+    }
+
+    @Override
+    public void rebuild(List<Contact> contacts) {
+        while (size > 0) contactDeleted(ids[size - 1]);
+        for (Contact contact : contacts) {
+            contactSaved(contact);
+        }
+    }
+
+    @Override
+    public void contactSaved(Contact contact) {
+        int id = contact.getContactId();
+        int slot = slots.get(id);
+        if (slot < 0) {
+            if (size == ids.length) grow();
+            slot = size++;
+            slots.put(id, slot);
+            ids[slot] = id;
+        }
+        for (int f = 0; f < FIELDS.size(); f++) {
+            Object value = FIELDS.get(f).valueOf(contact);
+            String key = TurkishText.fold((value == null) ? null : value.toString());
+            folded[f][slot] = key;
+            loose[f][slot] = TurkishText.stripDiacritics(key);
+        }
+    }
+
+    @Override
+    public void contactDeleted(int contactId) {
+        int slot = slots.remove(contactId);
+        if (slot < 0) return;
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            slots.put(ids[slot], slot);
+        }
+        for (int f = 0; f < FIELDS.size(); f++) {
+            folded[f][slot] = folded[f][last];
+            loose[f][slot] = loose[f][last];
+            folded[f][last] = null;
+            loose[f][last] = null;
+        }
+    }
+
+    /**
+     * Scans one key column for the query.
+     *
+     * @param field the field
+     * @param query the raw query
+     * @param mode  how a key must match the query
+     * @return matching ids in ascending order
+     */
+    private int[] find(ContactColumn field, String query, Mode mode) {
+        String key = TurkishText.searchKey(query);
+        if (key == null) return new int[0];
+        String[] keys = (TurkishText.isAscii(query) ? loose : folded)[column(field)];
+
+        int[] result = new int[16];
+        int count = 0;
+        for (int slot = 0; slot < size; slot++) {
+            String candidate = keys[slot];
+            if (candidate != null && mode.matches(candidate, key)) {
+                if (count == result.length) result = Arrays.copyOf(result, count * 2);
+                result[count++] = ids[slot];
+            }
+        }
+        Arrays.sort(result, 0, count);
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the key column of a field.
+     *
+     * @param field the field
+     * @return its position in {@link #FIELDS}
+     * @throws IllegalArgumentException if the field has no search keys
+     */
+    private static int column(ContactColumn field) {
+        int f = FIELDS.indexOf(field);
+        if (f < 0) throw new IllegalArgumentException("No search keys for " + field);
+        return f;
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        int n = ids.length * 2;
+        ids = Arrays.copyOf(ids, n);
+        for (int f = 0; f < FIELDS.size(); f++) {
+            folded[f] = Arrays.copyOf(folded[f], n);
+            loose[f] = Arrays.copyOf(loose[f], n);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package repository;
+
+import models.Contact;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Contact ids kept in sorted order for the fields that contacts are most
+ * often sorted by.
+ * <p>
+ * Each field has a {@link TreeMap} from sort key to the ids holding that
+ * value. Text keys are Turkish {@link java.text.CollationKey}s ignoring case,
+ * the same order as an in-memory multi-key sort, birth dates are keyed by
+ * their epoch day and timestamps by their epoch milliseconds. Writes move one
+ * contact between entries, so a sorted listing is a walk over the map instead
+ * of a full {@code ORDER BY}, a page of it only touches the entries on that
+ * page, and the descending order is the same walk backwards.
+ * </p>
+ * <p>
+ * Contacts without a value sort below every value, as {@code NULL} does in
+ * MySQL: first when ascending, last when descending. Contacts with equal
+ * values are in id order, reversed when descending.
+ * </p>
+ */
+public class SortedFieldIndex implements ContactIndex {
+
+    /** Fields kept in sorted order. */
+    public static final List<ContactColumn> FIELDS = List.of(
+            ContactColumn.ID, ContactColumn.FIRST_NAME, ContactColumn.MIDDLE_NAME,
+            ContactColumn.LAST_NAME, ContactColumn.NICKNAME, ContactColumn.EMAIL,
+            ContactColumn.BIRTH_DATE, ContactColumn.CREATED_AT, ContactColumn.UPDATED_AT);
+
+    private final Collator collator = Collator.getInstance(TurkishText.TURKISH);
+
+    /** Ids by sort key, per field in the order of {@link #FIELDS}. */
+    private final List<TreeMap<Object, IdList>> sorted = new ArrayList<>();
+
+    /** Ids without a value, per field. */
+    private final List<IdList> empty = new ArrayList<>();
+
+    /** Sort key indexed for each contact, per field, to remove it on change. */
+    private final List<Map<Integer, Object>> keyOf = new ArrayList<>();
+
+    /**
+     * Creates an empty index.
+     */
+    public SortedFieldIndex() {
+        collator.setStrength(Collator.SECONDARY);
+        for (int f = 0; f < FIELDS.size(); f++) {
+            sorted.add(new TreeMap<>());
+            empty.add(new IdList());
+            keyOf.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Returns the number of indexed contacts.
+     *
+     * @return the contact count
+     */
+    public int size() {
+        return keyOf.get(0).size();
+    }
+
+    /**
+     * Walks the contact ids in the order of a field.
+     * <p>
+     * The iterator reads the index directly, so it must be used up before the
+     * next write.
+     * </p>
+     *
+     * @param field      one of {@link #FIELDS}
+     * @param descending {@code true} to walk from the highest value down
+     * @return the ids in order
+     */
+    public PrimitiveIterator.OfInt walk(ContactColumn field, boolean descending) {
+        return new Walk(entries(field, descending).iterator(), descending);
+    }
+
+    /**
+     * Returns one page of contact ids in the order of a field. Whole entries
+     * before the page are skipped by their size, not id by id.
+     *
+     * @param field      one of {@link #FIELDS}
+     * @param descending {@code true} for the highest value first
+     * @param offset     number of ids to skip
+     * @param limit      maximum number of ids
+     * @return the ids of the page in order, possibly empty
+     */
+    public int[] page(ContactColumn field, boolean descending, int offset, int limit) {
+        int[] page = new int[Math.max(0, Math.min(limit, size() - offset))];
+        int count = 0;
+        int skip = offset;
+        Iterator<IdList> lists = entries(field, descending).iterator();
+        while (count < page.length && lists.hasNext()) {
+            IdList ids = lists.next();
+            if (skip >= ids.size()) {
+                skip -= ids.size();
+                continue;
+            }
+            for (int i = skip; i < ids.size() && count < page.length; i++) {
+                page[count++] = ids.get(descending ? ids.size() - 1 - i : i);
+            }
+            skip = 0;
+        }
+        return page;
+    }
+
+    /**
+     * Lists the entries of a field in walk order, the empty values being the
+     * lowest entry.
+     *
+     * @param field      one of {@link #FIELDS}
+     * @param descending {@code true} for the highest value first
+     * @return the id lists, read lazily from the index
+     */
+    private Stream<IdList> entries(ContactColumn field, boolean descending) {
+        int f = column(field);
+        TreeMap<Object, IdList> map = sorted.get(f);
+        Collection<IdList> values = (descending ? map.descendingMap() : map).values();
+        return descending
+                ? Stream.concat(values.stream(), Stream.of(empty.get(f)))
+                : Stream.concat(Stream.of(empty.get(f)), values.stream());
+    }
+
+    @Override
+    public void rebuild(List<Contact> contacts) {
+        for (int f = 0; f < FIELDS.size(); f++) {
+            sorted.get(f).clear();
+            empty.get(f).clear();
+            keyOf.get(f).clear();
+        }
+        for (Contact contact : contacts) {
+            contactSaved(contact);
+        }
+    }
+
+    @Override
+    public void contactSaved(Contact contact) {
+        int id = contact.getContactId();
+        contactDeleted(id);
+        for (int f = 0; f < FIELDS.size(); f++) {
+            Object key = sortKeyOf(FIELDS.get(f).valueOf(contact));
+            if (key == null) {
+                empty.get(f).add(id);
+            } else {
+                sorted.get(f).computeIfAbsent(key, k -> new IdList()).add(id);
+            }
+            keyOf.get(f).put(id, key);
+        }
+    }
+
+    @Override
+    public void contactDeleted(int contactId) {
+        for (int f = 0; f < FIELDS.size(); f++) {
+            if (!keyOf.get(f).containsKey(contactId)) continue;
+            Object key = keyOf.get(f).remove(contactId);
+            if (key == null) {
+                empty.get(f).remove(contactId);
+                continue;
+            }
+            IdList ids = sorted.get(f).get(key);
+            if (ids == null) continue;
+            ids.remove(contactId);
+            if (ids.size() == 0) sorted.get(f).remove(key);
+        }
+    }
+
+    /**
+     * Computes the sort key of a field value.
+     *
+     * @param value the value, may be {@code null}
+     * @return a collation key for text, the epoch day for a date, epoch
+     *         milliseconds for a timestamp, the number for an id, or
+     *         {@code null} for an empty value
+     */
+    private Object sortKeyOf(Object value) {
+        if (value instanceof java.sql.Date date) return date.toLocalDate().toEpochDay();
+        if (value instanceof java.util.Date time) return time.getTime();
+        if (value instanceof Number number) return number.longValue();
+        String folded = (value == null) ? null : TurkishText.fold(value.toString());
+        return (folded == null) ? null : collator.getCollationKey(folded);
+    }
+
+    /**
+     * Returns the map position of a field.
+     *
+     * @param field the field
+     * @return its position in {@link #FIELDS}
+     * @throws IllegalArgumentException if the field is not kept sorted
+     */
+    private static int column(ContactColumn field) {
+        int f = FIELDS.indexOf(field);
+        if (f < 0) throw new IllegalArgumentException("No sorted index for " + field);
+        return f;
+    }
+
+    /**
+     * Iterates the ids of the entries one after the other.
+     */
+    private static final class Walk implements PrimitiveIterator.OfInt {
+
+        private final Iterator<IdList> lists;
+        private final boolean descending;
+        private IdList current;
+        private int next;
+
+        Walk(Iterator<IdList> lists, boolean descending) {
+            this.lists = lists;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || next >= current.size()) {
+                if (!lists.hasNext()) return false;
+                current = lists.next();
+                next = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int i = next++;
+            return current.get(descending ? current.size() - 1 - i : i);
+        }
+    }
+}
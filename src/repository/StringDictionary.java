@@ -0,0 +1,72 @@
+package repository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns a small integer code to each distinct string, so repeated values
+ * (first names, last names, e-mail domains) are stored once and referenced
+ * by an {@code int}.
+ * <p>
+ * Codes start at {@code 0} and are never reused or removed; {@link #NONE}
+ * stands for {@code null}.
+ * </p>
+ */
+public class StringDictionary {
+
+    /** Code used for {@code null}. */
+    public static final int NONE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+    private int size;
+
+    /**
+     * Returns the code of a value, adding it to the dictionary if needed.
+     *
+     * @param value the value, may be {@code null}
+     * @return its code, or {@link #NONE} for {@code null}
+     */
+    public int encode(String value) {
+        if (value == null) return NONE;
+        Integer code = codes.get(value);
+        if (code != null) return code;
+
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Returns the code of a value without adding it.
+     *
+     * @param value the value
+     * @return its code, or {@link #NONE} if the value is unknown or {@code null}
+     */
+    public int codeOf(String value) {
+        if (value == null) return NONE;
+        Integer code = codes.get(value);
+        return (code == null) ? NONE : code;
+    }
+
+    /**
+     * Returns the value for a code.
+     *
+     * @param code a code returned by {@link #encode}
+     * @return the value, or {@code null} for {@link #NONE}
+     */
+    public String decode(int code) {
+        return (code == NONE) ? null : values[code];
+    }
+
+    /**
+     * Returns the number of distinct values.
+     *
+     * @return dictionary size
+     */
+    public int size() {
+        return size;
+    }
+}
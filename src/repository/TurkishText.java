@@ -0,0 +1,124 @@
+package repository;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Text normalization for searching Turkish names.
+ * <p>
+ * {@code String.toLowerCase()} with the default locale maps {@code I} to
+ * {@code i} and {@code İ} to {@code i̇} (i plus a combining dot), so
+ * "IŞIK" and "ışık" never meet. Folding with the Turkish locale maps
+ * {@code I} to {@code ı} and {@code İ} to {@code i}, as a Turkish reader expects.
+ * </p>
+ * <p>
+ * Search keys are built in two steps, each computed once when a contact is
+ * written:
+ * </p>
+ * <ul>
+ *     <li>{@link #fold}: trimmed, inner whitespace collapsed, lower-cased with Turkish rules
+ *         ("  İrem  Işık " becomes "irem ışık")</li>
+ *     <li>{@link #stripDiacritics}: the folded key with ç, ğ, ı, ö, ş, ü and any other
+ *         accented letters reduced to plain ASCII ("irem ışık" becomes "irem isik")</li>
+ * </ul>
+ * <p>
+ * {@link #searchKey} picks the variant a typed query should be compared with.
+ * </p>
+ */
+public final class TurkishText {
+
+    /** The Turkish locale used for case folding. */
+    public static final Locale TURKISH = Locale.forLanguageTag("tr-TR");
+
+    private TurkishText() {
+    }
+
+    /**
+     * Trims a value, collapses runs of whitespace to one space and lower-cases
+     * it with Turkish rules.
+     *
+     * @param value the text, may be {@code null}
+     * @return the folded text, or {@code null} if the value is {@code null} or blank
+     */
+    public static String fold(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) return null;
+
+        StringBuilder out = new StringBuilder(trimmed.length());
+        boolean space = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char ch = trimmed.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                space = true;
+            } else {
+                if (space) out.append(' ');
+                space = false;
+                out.append(ch);
+            }
+        }
+        return out.toString().toLowerCase(TURKISH);
+    }
+
+    /**
+     * Reduces a folded key to plain ASCII letters: the Turkish letters ç, ğ, ı,
+     * ö, ş and ü become c, g, i, o, s and u, and combining accents of other
+     * letters are dropped.
+     *
+     * @param folded a key returned by {@link #fold}, may be {@code null}
+     * @return the key without diacritics; the same instance if it had none
+     */
+    public static String stripDiacritics(String folded) {
+        if (folded == null || isAscii(folded)) return folded;
+
+        StringBuilder out = new StringBuilder(folded.length());
+        boolean other = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char ch = folded.charAt(i);
+            switch (ch) {
+                case 'ç': out.append('c'); break;
+                case 'ğ': out.append('g'); break;
+                case 'ı': out.append('i'); break;
+                case 'ö': out.append('o'); break;
+                case 'ş': out.append('s'); break;
+                case 'ü': out.append('u'); break;
+                default:
+                    out.append(ch);
+                    if (ch >= 0x80) other = true;
+            }
+        }
+        if (!other) return out.toString();
+        return Normalizer.normalize(out, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+    }
+
+    /**
+     * Returns the key a typed query is compared with.
+     * <p>
+     * A query typed in plain ASCII is matched without diacritics, so "celik"
+     * and "Isik" find "Çelik" and "Işık". A query that contains Turkish or
+     * other accented letters was typed deliberately and is matched exactly
+     * (ignoring case only). Use {@link #isAscii} on the raw query to tell
+     * which key set to compare with.
+     * </p>
+     *
+     * @param query the text the user typed
+     * @return the search key, or {@code null} if the query is blank
+     */
+    public static String searchKey(String query) {
+        String folded = fold(query);
+        return (folded == null || !isAscii(query)) ? folded : stripDiacritics(folded);
+    }
+
+    /**
+     * Checks whether a text contains only ASCII characters.
+     *
+     * @param text the text
+     * @return {@code true} if every character is below {@code 0x80}
+     */
+    public static boolean isAscii(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+}
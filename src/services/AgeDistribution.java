@@ -0,0 +1,131 @@
+package services;
+
+import repository.ContactSnapshot;
+
+/**
+ * Mergeable sketch of contact ages, giving a histogram by decade and
+ * percentiles in one pass.
+ * <p>
+ * Ages are whole years, so the sketch is simply one counter per age from
+ * {@code 0} to {@value #MAX_AGE}: a fixed {@code int[]} no matter how many
+ * contacts are added, and quantiles read from it are exact rather than
+ * approximated. Ages below zero (birth dates in the future) are counted as
+ * {@code 0} and ages above {@value #MAX_AGE} as {@value #MAX_AGE}.
+ * </p>
+ * <p>
+ * Sketches over disjoint contacts merge by adding their counters, so they
+ * work as accumulators for {@link ContactAggregator#reduce} or for any other
+ * streamed or parallel source of ages.
+ * </p>
+ */
+public final class AgeDistribution {
+
+    /** Highest age with its own counter. */
+    public static final int MAX_AGE = 150;
+
+    /** Width of a histogram bucket in years. */
+    public static final int DECADE = 10;
+
+    /** Number of contacts at each age. */
+    private final int[] counts = new int[MAX_AGE + 1];
+
+    /** Today as a {@code yyyymmdd} number, the reference date for ages. */
+    private final int todayYmd;
+
+    private int total;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param todayYmd the date ages are computed at, as from {@link ContactSnapshot#toYmd}
+     */
+    public AgeDistribution(int todayYmd) {
+        this.todayYmd = todayYmd;
+    }
+
+    /**
+     * Adds the contact in a snapshot slot, if it has a birth date.
+     *
+     * @param snapshot the snapshot
+     * @param slot     the slot
+     */
+    public void add(ContactSnapshot snapshot, int slot) {
+        if (snapshot.hasBirthDate(slot)) {
+            addAge((todayYmd - snapshot.birthYmd(slot)) / 10_000);
+        }
+    }
+
+    /**
+     * Adds one age.
+     *
+     * @param age age in whole years
+     */
+    public void addAge(int age) {
+        counts[Math.max(0, Math.min(MAX_AGE, age))]++;
+        total++;
+    }
+
+    /**
+     * Adds the counts of another sketch.
+     *
+     * @param other the other sketch
+     * @return this sketch, for use as a combiner
+     */
+    public AgeDistribution merge(AgeDistribution other) {
+        for (int age = 0; age <= MAX_AGE; age++) {
+            counts[age] += other.counts[age];
+        }
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * Returns the number of ages added.
+     *
+     * @return age count
+     */
+    public int count() {
+        return total;
+    }
+
+    /**
+     * Returns the age at a quantile, using the nearest-rank method: the
+     * smallest age such that at least {@code q * count()} ages are less than
+     * or equal to it.
+     *
+     * @param q the quantile, between {@code 0} and {@code 1}
+     * @return the age, or {@code -1} if the sketch is empty
+     */
+    public int quantile(double q) {
+        if (total == 0) return -1;
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int age = 0; age <= MAX_AGE; age++) {
+            seen += counts[age];
+            if (seen >= rank) return age;
+        }
+        return MAX_AGE;
+    }
+
+    /**
+     * Returns the median age.
+     *
+     * @return the median, or {@code -1} if the sketch is empty
+     */
+    public int median() {
+        return quantile(0.5);
+    }
+
+    /**
+     * Returns the number of contacts per decade of age.
+     *
+     * @return counts where index {@code i} covers ages {@code i*10} to {@code i*10+9}
+     */
+    public int[] decades() {
+        int[] result = new int[MAX_AGE / DECADE + 1];
+        for (int age = 0; age <= MAX_AGE; age++) {
+            result[age / DECADE] += counts[age];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,194 @@
+package services;
+
+import menu.ConsoleWriter;
+import models.Contact;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small stand-alone benchmark of contact listing throughput.
+ * <p>
+ * It prints the same synthetic contacts twice to standard output:
+ * </p>
+ * <ul>
+ *     <li><b>line-flushed</b> – string concatenation per contact and a stream that
+ *         flushes on every {@code println}, like the default {@code System.out}</li>
+ *     <li><b>buffered</b> – {@link ContactFormatter} into one reusable builder and a
+ *         {@link ConsoleWriter#BUFFER_SIZE}-byte buffer flushed once at the end</li>
+ * </ul>
+ * <p>
+ * Results go to standard error, so redirect standard output to a file, a pipe
+ * or {@code /dev/null} to measure each kind of sink.
+ * </p>
+ *
+ * <p><b>Usage:</b></p>
+ * <pre>{@code
+ * java -cp out services.ConsoleThroughputBenchmark [contacts] > /dev/null
+ * }</pre>
+ */
+public class ConsoleThroughputBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of contacts to print (default 100000)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<Contact> contacts = sampleContacts(count);
+
+        // One untimed round of each, so both paths are JIT-compiled.
+        runLineFlushed(contacts.subList(0, Math.min(2_000, count)), new Counter());
+        runBuffered(contacts.subList(0, Math.min(2_000, count)), new Counter());
+
+        Counter legacy = new Counter();
+        long t0 = System.nanoTime();
+        runLineFlushed(contacts, legacy);
+        long t1 = System.nanoTime();
+
+        Counter buffered = new Counter();
+        runBuffered(contacts, buffered);
+        long t2 = System.nanoTime();
+
+        report("line-flushed", count, legacy, t1 - t0);
+        report("buffered    ", count, buffered, t2 - t1);
+        System.err.printf("Speed-up: %.2fx%n", (double) (t1 - t0) / (t2 - t1));
+    }
+
+    /**
+     * Prints contacts the way listings worked before {@link ConsoleWriter}.
+     *
+     * @param contacts contacts to print
+     * @param counter  counts what reaches the file descriptor
+     */
+    private static void runLineFlushed(List<Contact> contacts, Counter counter) {
+        PrintStream out = new PrintStream(new BufferedOutputStream(counter.wrap(), 8192), true,
+                StandardCharsets.UTF_8);
+        out.println(ContactFormatter.DOUBLE_DIVIDER);
+        for (Contact c : contacts) {
+            out.println("Contact " + c.getContactId() + "\n" + "----------------------------\n"
+                    + "First Name     : " + safe(c.getFirstName()) + "\n" + "Middle Name    : " + safe(c.getMiddleName()) + "\n"
+                    + "Last Name      : " + safe(c.getLastName()) + "\n" + "Nickname       : " + safe(c.getNickname()) + "\n"
+                    + "\n" + "Primary Phone  : " + safe(c.getPhonePrimary()) + "\n"
+                    + "Secondary Phone: " + safe(c.getPhoneSecondary()) + "\n" + "\n"
+                    + "E-mail         : " + safe(c.getEmail()) + "\n" + "LinkedIn       : " + safe(c.getLinkedinUrl()) + "\n"
+                    + "\n" + "Birth Date     : " + safe(c.getBirthDate()) + "\n" + "Created At     : " + safe(c.getCreatedAt())
+                    + "\n" + "Updated At     : " + safe(c.getUpdatedAt()) + "\n");
+            out.println(ContactFormatter.DIVIDER);
+        }
+        out.println("TOTAL: " + contacts.size() + " record(s).");
+        out.println(ContactFormatter.DOUBLE_DIVIDER);
+        out.flush();
+    }
+
+    /**
+     * Prints contacts through a reusable builder and a large, explicitly flushed buffer.
+     *
+     * @param contacts contacts to print
+     * @param counter  counts what reaches the file descriptor
+     */
+    private static void runBuffered(List<Contact> contacts, Counter counter) {
+        PrintStream out = new PrintStream(new BufferedOutputStream(counter.wrap(), ConsoleWriter.BUFFER_SIZE),
+                false, StandardCharsets.UTF_8);
+        StringBuilder row = new StringBuilder(1024);
+        out.append(ContactFormatter.DOUBLE_DIVIDER).append('\n');
+        for (Contact c : contacts) {
+            row.setLength(0);
+            ContactFormatter.appendDetails(row, c).append('\n');
+            row.append(ContactFormatter.DIVIDER).append('\n');
+            out.append(row);
+        }
+        row.setLength(0);
+        row.append("TOTAL: ").append(contacts.size()).append(" record(s).\n");
+        row.append(ContactFormatter.DOUBLE_DIVIDER).append('\n');
+        out.append(row);
+        out.flush();
+    }
+
+    /**
+     * Converts a value to a string, using an empty string for {@code null}.
+     *
+     * @param o the value
+     * @return its string form, or {@code ""}
+     */
+    private static String safe(Object o) {
+        return (o == null) ? "" : o.toString();
+    }
+
+    /**
+     * Prints one result line to standard error.
+     *
+     * @param label   name of the variant
+     * @param rows    contacts printed
+     * @param counter output counters of the run
+     * @param nanos   elapsed time
+     */
+    private static void report(String label, int rows, Counter counter, long nanos) {
+        double seconds = nanos / 1e9;
+        System.err.printf("%s: %,12.0f contacts/sec  %8.1f MB/s  %,10d write calls%n",
+                label, rows / seconds, counter.bytes / seconds / 1e6, counter.calls);
+    }
+
+    /**
+     * Builds deterministic sample contacts with every field filled.
+     *
+     * @param count number of contacts
+     * @return the contacts
+     */
+    private static List<Contact> sampleContacts(int count) {
+        List<Contact> contacts = new ArrayList<>(count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            Contact c = new Contact();
+            c.setContactId(i + 1);
+            c.setFirstName("Ayşe" + (i % 97));
+            c.setMiddleName(i % 3 == 0 ? "Nur" : null);
+            c.setLastName("Yılmaz" + (i % 89));
+            c.setNickname("user" + i);
+            c.setPhonePrimary(String.format("5%09d", i));
+            c.setPhoneSecondary(i % 4 == 0 ? String.format("4%09d", i) : null);
+            c.setEmail("user" + i + "@example.com");
+            c.setLinkedinUrl(i % 2 == 0 ? "https://www.linkedin.com/in/user" + i : null);
+            c.setBirthDate(Date.valueOf("1990-01-01"));
+            c.setCreatedAt(new Timestamp(now - i * 1000L));
+            c.setUpdatedAt(new Timestamp(now));
+            contacts.add(c);
+        }
+        return contacts;
+    }
+
+    /**
+     * Counts the bytes and write calls that reach standard output.
+     */
+    private static final class Counter {
+        long bytes;
+        long calls;
+
+        /**
+         * Returns a stream writing to file descriptor 1 and updating this counter.
+         *
+         * @return the counting stream
+         */
+        OutputStream wrap() {
+            return new FilterOutputStream(new FileOutputStream(FileDescriptor.out)) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    bytes += len;
+                    calls++;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package services;
+
+import repository.ContactSnapshot;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Parallel aggregation over the slots of a {@link ContactSnapshot}.
+ * <p>
+ * The slots are covered by a {@link Spliterator.OfInt} that halves its range on
+ * each {@code trySplit()}. A fork/join task keeps splitting it until a piece is
+ * at most {@value #LEAF_SIZE} slots, folds each piece into its own accumulator
+ * on a worker thread, and combines the partial results as the tasks join. Small
+ * snapshots therefore run as a single task on the calling pool thread.
+ * </p>
+ * <p>
+ * {@link #reduce} is the general form: any accumulator with a supplier, a
+ * per-slot step and a combiner. {@link #aggregate} computes a
+ * {@link ContactStats} for all contacts and {@link #groupBy} one per group,
+ * with ready-made groupings by birth year, e-mail domain and creation month.
+ * </p>
+ * <p>
+ * The snapshot must not be refreshed while an aggregation runs.
+ * </p>
+ *
+ * <p><b>Usage example:</b></p>
+ * <pre>{@code
+ * ContactAggregator aggregator = new ContactAggregator();
+ * ContactStats all = aggregator.aggregate(snapshot, LocalDate.now());
+ * Map<String, ContactStats> perDomain =
+ *         aggregator.groupBy(snapshot, LocalDate.now(), ContactAggregator.BY_EMAIL_DOMAIN);
+ * }</pre>
+ */
+public class ContactAggregator {
+
+    /** Pieces of at most this many slots are aggregated without further splitting. */
+    static final int LEAF_SIZE = 4096;
+
+    /** Groups contacts by birth year; contacts without a birth date are skipped. */
+    public static final GroupKey<Integer> BY_BIRTH_YEAR =
+            (snapshot, slot) -> snapshot.hasBirthDate(slot) ? snapshot.birthYmd(slot) / 10_000 : null;
+
+    /** Groups contacts by lower-cased e-mail domain; contacts without an e-mail are skipped. */
+    public static final GroupKey<String> BY_EMAIL_DOMAIN =
+            (snapshot, slot) -> snapshot.domainName(snapshot.domainCode(slot));
+
+    /** Groups contacts by the month they were created; contacts without {@code created_at} are skipped. */
+    public static final GroupKey<YearMonth> BY_CREATION_MONTH = (snapshot, slot) -> {
+        if (!snapshot.hasCreatedAt(slot)) return null;
+        LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(snapshot.createdAtMillis(slot), 86_400_000L));
+        return YearMonth.from(day);
+    };
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an aggregator running on the common fork/join pool.
+     */
+    public ContactAggregator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an aggregator running on the given pool.
+     *
+     * @param pool the pool the tasks run in
+     */
+    public ContactAggregator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the statistics of every contact in the snapshot.
+     *
+     * @param snapshot the snapshot
+     * @param today    the date ages are computed at
+     * @return the combined statistics
+     */
+    public ContactStats aggregate(ContactSnapshot snapshot, LocalDate today) {
+        int todayYmd = ContactSnapshot.toYmd(today);
+        return reduce(snapshot,
+                () -> new ContactStats(todayYmd),
+                (stats, slot) -> stats.add(snapshot, slot),
+                ContactStats::merge);
+    }
+
+    /**
+     * Computes statistics per group.
+     *
+     * @param snapshot the snapshot
+     * @param today    the date ages are computed at
+     * @param key      assigns each slot to a group, or {@code null} to skip it
+     * @param <K>      group key type
+     * @return statistics for every group that has at least one contact
+     */
+    public <K> Map<K, ContactStats> groupBy(ContactSnapshot snapshot, LocalDate today, GroupKey<K> key) {
+        int todayYmd = ContactSnapshot.toYmd(today);
+        return this.<Map<K, ContactStats>>reduce(snapshot,
+                HashMap::new,
+                (groups, slot) -> {
+                    K group = key.keyOf(snapshot, slot);
+                    if (group != null) {
+                        groups.computeIfAbsent(group, g -> new ContactStats(todayYmd)).add(snapshot, slot);
+                    }
+                },
+                (left, right) -> {
+                    Map<K, ContactStats> into = (left.size() >= right.size()) ? left : right;
+                    Map<K, ContactStats> from = (into == left) ? right : left;
+                    from.forEach((group, stats) -> into.merge(group, stats, ContactStats::merge));
+                    return into;
+                });
+    }
+
+    /**
+     * Folds every slot of the snapshot into an accumulator, in parallel.
+     *
+     * @param snapshot    the snapshot
+     * @param supplier    creates an empty accumulator for each piece
+     * @param accumulator adds one slot to an accumulator
+     * @param combiner    merges two accumulators of adjacent pieces, left first
+     * @param <R>         accumulator type
+     * @return the accumulator covering all slots
+     */
+    public <R> R reduce(ContactSnapshot snapshot, Supplier<R> supplier,
+                        ObjIntConsumer<R> accumulator, BinaryOperator<R> combiner) {
+        SlotSpliterator slots = new SlotSpliterator(0, snapshot.size());
+        return pool.invoke(new ReduceTask<>(slots, supplier, accumulator, combiner));
+    }
+
+    /**
+     * Maps a snapshot slot to the group it belongs to.
+     *
+     * @param <K> group key type
+     */
+    @FunctionalInterface
+    public interface GroupKey<K> {
+
+        /**
+         * Returns the group of a slot.
+         *
+         * @param snapshot the snapshot
+         * @param slot     the slot
+         * @return the group, or {@code null} to leave the contact out
+         */
+        K keyOf(ContactSnapshot snapshot, int slot);
+    }
+
+    /**
+     * Spliterator over a range of slot numbers.
+     */
+    static final class SlotSpliterator implements Spliterator.OfInt {
+
+        private int next;
+        private final int end;
+
+        /**
+         * Creates a spliterator over {@code [from, end)}.
+         *
+         * @param from first slot
+         * @param end  slot after the last one
+         */
+        SlotSpliterator(int from, int end) {
+            this.next = from;
+            this.end = end;
+        }
+
+        @Override
+        public OfInt trySplit() {
+            int mid = (next + end) >>> 1;
+            if (mid <= next) return null;
+            SlotSpliterator prefix = new SlotSpliterator(next, mid);
+            next = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (next >= end) return false;
+            action.accept(next++);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            int slot = next;
+            next = end;
+            for (; slot < end; slot++) {
+                action.accept(slot);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | DISTINCT | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Splits its slots until they are small enough, then folds them sequentially.
+     *
+     * @param <R> accumulator type
+     */
+    private static final class ReduceTask<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator.OfInt slots;
+        private final Supplier<R> supplier;
+        private final ObjIntConsumer<R> accumulator;
+        private final BinaryOperator<R> combiner;
+
+        ReduceTask(Spliterator.OfInt slots, Supplier<R> supplier,
+                   ObjIntConsumer<R> accumulator, BinaryOperator<R> combiner) {
+            this.slots = slots;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (slots.estimateSize() > LEAF_SIZE) {
+                Spliterator.OfInt prefix = slots.trySplit();
+                if (prefix != null) {
+                    ReduceTask<R> left = new ReduceTask<>(prefix, supplier, accumulator, combiner);
+                    left.fork();
+                    R right = new ReduceTask<>(slots, supplier, accumulator, combiner).compute();
+                    return combiner.apply(left.join(), right);
+                }
+            }
+            R result = supplier.get();
+            slots.forEachRemaining((int slot) -> accumulator.accept(result, slot));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package services;
+
+import models.Contact;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Formats contacts for console output by appending into a caller-supplied
+ * {@link StringBuilder}.
+ * <p>
+ * Listings pass the same builder (usually {@link menu.ConsoleWriter#row()})
+ * for every contact, so formatting a long result set does not build a chain of
+ * temporary strings per record. The text produced is the same as the
+ * historical {@code formatContact}/{@code formatShort} output.
+ * </p>
+ */
+public class ContactFormatter {
+
+    /** Divider printed between contacts in a listing. */
+    public static final String DIVIDER =
+            "--------------------------------------------------------------------------------";
+
+    /** Double divider printed above and below a listing. */
+    public static final String DOUBLE_DIVIDER =
+            "================================================================================";
+
+    /** Private constructor to prevent instantiation. */
+    private ContactFormatter() {}
+
+    /**
+     * Appends the full, multi-line description of a contact. Every line,
+     * including the last, ends with a line break.
+     *
+     * @param sb the builder to append to
+     * @param c  the contact to format
+     * @return {@code sb}, for chaining
+     */
+    public static StringBuilder appendDetails(StringBuilder sb, Contact c) {
+        sb.append("Contact ").append(c.getContactId()).append('\n');
+        sb.append("----------------------------\n");
+        line(sb, "First Name     : ", c.getFirstName());
+        line(sb, "Middle Name    : ", c.getMiddleName());
+        line(sb, "Last Name      : ", c.getLastName());
+        line(sb, "Nickname       : ", c.getNickname());
+        sb.append('\n');
+        line(sb, "Primary Phone  : ", c.getPhonePrimary());
+        line(sb, "Secondary Phone: ", c.getPhoneSecondary());
+        sb.append('\n');
+        line(sb, "E-mail         : ", c.getEmail());
+        line(sb, "LinkedIn       : ", c.getLinkedinUrl());
+        sb.append('\n');
+        line(sb, "Birth Date     : ", c.getBirthDate());
+        line(sb, "Created At     : ", c.getCreatedAt());
+        line(sb, "Updated At     : ", c.getUpdatedAt());
+        return sb;
+    }
+
+    /**
+     * Appends a short description of a contact: id, name, primary phone and
+     * e-mail, optionally followed by the age and the creation timestamp.
+     *
+     * @param sb               the builder to append to
+     * @param c                the contact to format
+     * @param includeAge       whether the age should be included
+     * @param includeCreatedAt whether the creation timestamp should be included
+     * @param today            the date used to calculate age
+     * @return {@code sb}, for chaining
+     */
+    public static StringBuilder appendSummary(StringBuilder sb, Contact c, boolean includeAge,
+                                              boolean includeCreatedAt, LocalDate today) {
+        sb.append("ID: ").append(c.getContactId()).append('\n');
+        sb.append("Name       : ");
+        appendSafe(sb, c.getFirstName()).append(' ');
+        appendSafe(sb, c.getLastName()).append('\n');
+        line(sb, "Phone(main): ", c.getPhonePrimary());
+        line(sb, "E-mail     : ", c.getEmail());
+
+        if (includeAge) {
+            sb.append("Age        : ");
+            if (c.getBirthDate() != null) {
+                sb.append(Period.between(c.getBirthDate().toLocalDate(), today).getYears());
+            } else {
+                sb.append("N/A");
+            }
+            sb.append('\n');
+        }
+
+        if (includeCreatedAt) {
+            line(sb, "Created at : ", c.getCreatedAt());
+        }
+        return sb;
+    }
+
+    /**
+     * Appends a value, or nothing if it is {@code null}.
+     *
+     * @param sb    the builder to append to
+     * @param value the value to append
+     * @return {@code sb}, for chaining
+     */
+    public static StringBuilder appendSafe(StringBuilder sb, Object value) {
+        if (value != null) sb.append(value);
+        return sb;
+    }
+
+    /**
+     * Appends a labelled line.
+     *
+     * @param sb    the builder to append to
+     * @param label the label, including its separator
+     * @param value the value, or {@code null} for an empty value
+     */
+    private static void line(StringBuilder sb, String label, Object value) {
+        sb.append(label);
+        appendSafe(sb, value).append('\n');
+    }
+}
@@ -0,0 +1,573 @@
+package services;
+
+import repository.ContactColumn;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A parsed contact search written in a small query language.
+ * <p>
+ * Examples:
+ * </p>
+ * <pre>
+ * first ~ ali AND YEAR(birth) BETWEEN 1990 AND 1999
+ * (email ~ gmail OR email ~ outlook) AND NOT linkedin IS EMPTY SORT BY last, first LIMIT 20
+ * created &gt;= 2024-01-01 AND MONTH(birth) = 5 SORT BY birth DESC
+ * </pre>
+ * <p>
+ * Grammar (keywords are case-insensitive):
+ * </p>
+ * <pre>
+ * query      := [condition] [SORT BY key {"," key}] [LIMIT n]
+ * condition  := term {OR term}
+ * term       := factor {AND factor}
+ * factor     := NOT factor | "(" condition ")" | comparison
+ * comparison := field op value | field BETWEEN value AND value | field IS [NOT] EMPTY
+ * field      := column | (YEAR | MONTH | DAY) "(" column ")"
+ * op         := = | != | &lt;&gt; | &lt; | &lt;= | &gt; | &gt;= | ~ (contains) | ^= (starts with) | $= (ends with)
+ * key        := column [ASC | DESC]
+ * </pre>
+ * <p>
+ * Columns are the {@link ContactColumn} names ({@code first_name}) or short
+ * aliases ({@code first}, {@code last}, {@code phone}, {@code birth}, ...).
+ * Values are bare words, numbers, {@code yyyy-MM-dd} dates or quoted strings.
+ * Text is compared ignoring case with Turkish rules, and an ASCII value also
+ * ignores diacritics, as in the other searches. {@code !=} is the negation of
+ * {@code =}, so it also matches empty fields.
+ * </p>
+ * <p>
+ * {@link ContactQueryPlan} decides where each part of a parsed query runs.
+ * </p>
+ */
+public final class ContactQuery {
+
+    /** Comparison operators. */
+    public enum Operator {
+        EQ("="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">="),
+        CONTAINS("~"), STARTS_WITH("^="), ENDS_WITH("$="), BETWEEN("BETWEEN"), EMPTY("IS EMPTY");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * Returns the operator as written in a query.
+         *
+         * @return the symbol
+         */
+        public String symbol() {
+            return symbol;
+        }
+    }
+
+    /** Part of a date compared instead of the whole value. */
+    public enum DatePart {
+        NONE, YEAR, MONTH, DAY
+    }
+
+    /** A node of the condition tree. */
+    public sealed interface Condition permits All, Any, Not, Comparison {
+    }
+
+    /**
+     * Conditions that must all hold.
+     *
+     * @param parts two or more conditions
+     */
+    public record All(List<Condition> parts) implements Condition {
+        @Override
+        public String toString() {
+            return join(parts, " AND ");
+        }
+    }
+
+    /**
+     * Conditions of which at least one must hold.
+     *
+     * @param parts two or more conditions
+     */
+    public record Any(List<Condition> parts) implements Condition {
+        @Override
+        public String toString() {
+            return join(parts, " OR ");
+        }
+    }
+
+    /**
+     * A negated condition.
+     *
+     * @param part the condition that must not hold
+     */
+    public record Not(Condition part) implements Condition {
+        @Override
+        public String toString() {
+            return "NOT " + ((part instanceof Comparison) ? part : "(" + part + ")");
+        }
+    }
+
+    /**
+     * A column, or part of a date column, compared with a value.
+     * <p>
+     * Values are already converted: {@link Integer} for the id and date parts,
+     * {@link LocalDate} for whole dates and {@link String} for text.
+     * </p>
+     *
+     * @param column   the column
+     * @param part     the compared date part, or {@link DatePart#NONE}
+     * @param operator the operator
+     * @param value    the value, or {@code null} for {@link Operator#EMPTY}
+     * @param upper    the upper bound of {@link Operator#BETWEEN}, otherwise {@code null}
+     */
+    public record Comparison(ContactColumn column, DatePart part, Operator operator, Object value, Object upper)
+            implements Condition {
+
+        /**
+         * Returns the compared field as written in a query.
+         *
+         * @return the column name, wrapped in the date part if any
+         */
+        public String field() {
+            return (part == DatePart.NONE) ? column.column() : part + "(" + column.column() + ")";
+        }
+
+        @Override
+        public String toString() {
+            switch (operator) {
+                case BETWEEN:
+                    return field() + " BETWEEN " + literal(value) + " AND " + literal(upper);
+                case EMPTY:
+                    return field() + " IS EMPTY";
+                default:
+                    return field() + " " + operator.symbol() + " " + literal(value);
+            }
+        }
+    }
+
+    /**
+     * A sort key.
+     *
+     * @param column     the column to sort by
+     * @param descending {@code true} for descending order
+     */
+    public record SortKey(ContactColumn column, boolean descending) {
+        @Override
+        public String toString() {
+            return column.column() + (descending ? " DESC" : " ASC");
+        }
+    }
+
+    /** Column names and aliases accepted in queries. */
+    private static final Map<String, ContactColumn> COLUMNS = new HashMap<>();
+
+    static {
+        for (ContactColumn column : ContactColumn.values()) {
+            COLUMNS.put(column.column(), column);
+            COLUMNS.put(column.name().toLowerCase(Locale.ROOT), column);
+        }
+        COLUMNS.put("id", ContactColumn.ID);
+        COLUMNS.put("first", ContactColumn.FIRST_NAME);
+        COLUMNS.put("middle", ContactColumn.MIDDLE_NAME);
+        COLUMNS.put("last", ContactColumn.LAST_NAME);
+        COLUMNS.put("nick", ContactColumn.NICKNAME);
+        COLUMNS.put("phone", ContactColumn.PHONE_PRIMARY);
+        COLUMNS.put("phone2", ContactColumn.PHONE_SECONDARY);
+        COLUMNS.put("linkedin", ContactColumn.LINKEDIN);
+        COLUMNS.put("birth", ContactColumn.BIRTH_DATE);
+        COLUMNS.put("created", ContactColumn.CREATED_AT);
+        COLUMNS.put("updated", ContactColumn.UPDATED_AT);
+    }
+
+    private final Condition where;
+    private final List<SortKey> sort;
+    private final int limit;
+
+    private ContactQuery(Condition where, List<SortKey> sort, int limit) {
+        this.where = where;
+        this.sort = sort;
+        this.limit = limit;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param text the query text
+     * @return the parsed query
+     * @throws IllegalArgumentException if the text is not a valid query; the
+     *                                  message names the offending position
+     */
+    public static ContactQuery parse(String text) {
+        return new Parser(text).parseQuery();
+    }
+
+    /**
+     * Parses a list of sort keys on their own, as written after {@code SORT BY}.
+     *
+     * @param text keys such as {@code last, first, birth DESC}
+     * @return the keys in priority order
+     * @throws IllegalArgumentException if the text is not a valid key list
+     */
+    public static List<SortKey> parseSort(String text) {
+        return new Parser(text).parseSortOnly();
+    }
+
+    /**
+     * Returns the condition.
+     *
+     * @return the condition tree, or {@code null} if every contact matches
+     */
+    public Condition where() {
+        return where;
+    }
+
+    /**
+     * Returns the sort keys.
+     *
+     * @return the keys in priority order, possibly empty
+     */
+    public List<SortKey> sort() {
+        return sort;
+    }
+
+    /**
+     * Returns the maximum number of results.
+     *
+     * @return the limit, or {@code -1} if unlimited
+     */
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * Returns the columns the query compares or sorts by.
+     *
+     * @return each column once, in the order they appear in the query
+     */
+    public List<ContactColumn> columns() {
+        List<ContactColumn> columns = new ArrayList<>();
+        if (where != null) collectColumns(where, columns);
+        for (SortKey key : sort) {
+            if (!columns.contains(key.column())) columns.add(key.column());
+        }
+        return columns;
+    }
+
+    /**
+     * Adds the columns compared in a condition to a list, skipping those already in it.
+     *
+     * @param condition the condition
+     * @param columns   receives the columns
+     */
+    private static void collectColumns(Condition condition, List<ContactColumn> columns) {
+        if (condition instanceof Comparison comparison) {
+            if (!columns.contains(comparison.column())) columns.add(comparison.column());
+        } else if (condition instanceof Not not) {
+            collectColumns(not.part(), columns);
+        } else {
+            List<Condition> parts = (condition instanceof All all) ? all.parts() : ((Any) condition).parts();
+            for (Condition part : parts) {
+                collectColumns(part, columns);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a column holds dates.
+     *
+     * @param column the column
+     * @return {@code true} for the birth, creation and update dates
+     */
+    static boolean isDate(ContactColumn column) {
+        return column == ContactColumn.BIRTH_DATE || column == ContactColumn.CREATED_AT
+                || column == ContactColumn.UPDATED_AT;
+    }
+
+    private static String join(List<Condition> parts, String separator) {
+        StringBuilder out = new StringBuilder();
+        for (Condition part : parts) {
+            if (out.length() > 0) out.append(separator);
+            boolean nested = (part instanceof All || part instanceof Any);
+            out.append(nested ? "(" + part + ")" : part.toString());
+        }
+        return out.toString();
+    }
+
+    private static String literal(Object value) {
+        return (value instanceof String) ? "'" + value + "'" : String.valueOf(value);
+    }
+
+    /**
+     * Recursive-descent parser over a simple tokenizer.
+     */
+    private static final class Parser {
+
+        /** Characters that end a bare word. */
+        private static final String DELIMITERS = "()=!<>~^$,'\"";
+
+        /** Largest year, month or day value; keeps every derived date representable. */
+        private static final int MAX_DATE_PART = 9999;
+
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = (text == null) ? "" : text;
+        }
+
+        ContactQuery parseQuery() {
+            Condition where = null;
+            if (!atKeyword("SORT") && !atKeyword("ORDER") && !atKeyword("LIMIT") && !atEnd()) {
+                where = parseOr();
+            }
+
+            List<SortKey> sort = new ArrayList<>();
+            if (acceptKeyword("SORT") || acceptKeyword("ORDER")) {
+                expectKeyword("BY");
+                sort = parseSortKeys();
+            }
+
+            int limit = -1;
+            if (acceptKeyword("LIMIT")) {
+                String word = word("a number after LIMIT");
+                try {
+                    limit = Integer.parseInt(word);
+                } catch (NumberFormatException e) {
+                    throw error("LIMIT expects a number, found '" + word + "'");
+                }
+                if (limit < 0) throw error("LIMIT must not be negative");
+            }
+
+            if (!atEnd()) throw error("Unexpected '" + peekWord() + "'");
+            return new ContactQuery(where, List.copyOf(sort), limit);
+        }
+
+        List<SortKey> parseSortOnly() {
+            List<SortKey> sort = parseSortKeys();
+            if (!atEnd()) throw error("Unexpected '" + peekWord() + "'");
+            return List.copyOf(sort);
+        }
+
+        private List<SortKey> parseSortKeys() {
+            List<SortKey> sort = new ArrayList<>();
+            do {
+                ContactColumn column = parseColumn();
+                boolean descending = acceptKeyword("DESC");
+                if (!descending) acceptKeyword("ASC");
+                sort.add(new SortKey(column, descending));
+            } while (accept(","));
+            return sort;
+        }
+
+        private Condition parseOr() {
+            List<Condition> parts = new ArrayList<>();
+            parts.add(parseAnd());
+            while (acceptKeyword("OR")) {
+                parts.add(parseAnd());
+            }
+            return (parts.size() == 1) ? parts.get(0) : new Any(List.copyOf(parts));
+        }
+
+        private Condition parseAnd() {
+            List<Condition> parts = new ArrayList<>();
+            parts.add(parseFactor());
+            while (acceptKeyword("AND")) {
+                parts.add(parseFactor());
+            }
+            return (parts.size() == 1) ? parts.get(0) : new All(List.copyOf(parts));
+        }
+
+        private Condition parseFactor() {
+            if (acceptKeyword("NOT")) return new Not(parseFactor());
+            if (accept("(")) {
+                Condition inner = parseOr();
+                expect(")");
+                return inner;
+            }
+            return parseComparison();
+        }
+
+        private Condition parseComparison() {
+            DatePart part = DatePart.NONE;
+            for (DatePart candidate : new DatePart[] { DatePart.YEAR, DatePart.MONTH, DatePart.DAY }) {
+                if (atKeyword(candidate.name()) && text.startsWith("(", skipSpaces(skipSpaces(pos) + candidate.name().length()))) {
+                    acceptKeyword(candidate.name());
+                    part = candidate;
+                }
+            }
+            ContactColumn column;
+            if (part != DatePart.NONE) {
+                expect("(");
+                column = parseColumn();
+                expect(")");
+                if (!isDate(column)) throw error(part + "() needs a date column, not " + column.column());
+            } else {
+                column = parseColumn();
+            }
+
+            if (acceptKeyword("IS")) {
+                boolean negated = acceptKeyword("NOT");
+                expectKeyword("EMPTY");
+                Comparison empty = new Comparison(column, part, Operator.EMPTY, null, null);
+                return negated ? new Not(empty) : empty;
+            }
+            if (acceptKeyword("BETWEEN")) {
+                Object lower = parseValue(column, part);
+                expectKeyword("AND");
+                Object upper = parseValue(column, part);
+                return new Comparison(column, part, Operator.BETWEEN, lower, upper);
+            }
+
+            Operator operator = parseOperator();
+            Object value = parseValue(column, part);
+            boolean ordered = operator == Operator.LT || operator == Operator.LE
+                    || operator == Operator.GT || operator == Operator.GE;
+            if (!ordered && operator != Operator.EQ && operator != Operator.NE && !(value instanceof String)) {
+                throw error(operator.symbol() + " only applies to text, not " + column.column());
+            }
+            return new Comparison(column, part, operator, value, null);
+        }
+
+        private Operator parseOperator() {
+            String[] symbols = { "<=", ">=", "!=", "<>", "^=", "$=", "=", "<", ">", "~" };
+            Operator[] operators = { Operator.LE, Operator.GE, Operator.NE, Operator.NE, Operator.STARTS_WITH,
+                    Operator.ENDS_WITH, Operator.EQ, Operator.LT, Operator.GT, Operator.CONTAINS };
+            pos = skipSpaces(pos);
+            for (int i = 0; i < symbols.length; i++) {
+                if (text.startsWith(symbols[i], pos)) {
+                    pos += symbols[i].length();
+                    return operators[i];
+                }
+            }
+            throw error("Expected an operator such as =, ~ or >=");
+        }
+
+        private Object parseValue(ContactColumn column, DatePart part) {
+            int start = skipSpaces(pos);
+            String word = value();
+            int end = pos;
+            pos = start;
+            if (part != DatePart.NONE || column == ContactColumn.ID) {
+                Integer number;
+                try {
+                    number = Integer.valueOf(word);
+                } catch (NumberFormatException e) {
+                    throw error("Expected a number, found '" + word + "'");
+                }
+                if (part != DatePart.NONE && (number < 0 || number > MAX_DATE_PART)) {
+                    throw error("Expected a " + part.name().toLowerCase(Locale.ROOT)
+                            + " between 0 and " + MAX_DATE_PART + ", found '" + word + "'");
+                }
+                pos = end;
+                return number;
+            }
+            if (isDate(column)) {
+                try {
+                    LocalDate date = LocalDate.parse(word);
+                    pos = end;
+                    return date;
+                } catch (DateTimeParseException e) {
+                    throw error("Expected a date as yyyy-MM-dd, found '" + word + "'");
+                }
+            }
+            pos = end;
+            return word;
+        }
+
+        private ContactColumn parseColumn() {
+            int start = skipSpaces(pos);
+            String word = word("a field name");
+            ContactColumn column = COLUMNS.get(word.toLowerCase(Locale.ROOT));
+            if (column == null) {
+                pos = start;
+                throw error("Unknown field '" + word + "'");
+            }
+            return column;
+        }
+
+        /** Reads a quoted string or a bare word. */
+        private String value() {
+            pos = skipSpaces(pos);
+            if (pos < text.length() && (text.charAt(pos) == '\'' || text.charAt(pos) == '"')) {
+                char quote = text.charAt(pos);
+                int end = text.indexOf(quote, pos + 1);
+                if (end < 0) throw error("Unclosed quote");
+                String value = text.substring(pos + 1, end);
+                pos = end + 1;
+                return value;
+            }
+            return word("a value");
+        }
+
+        /** Reads a bare word. */
+        private String word(String expected) {
+            pos = skipSpaces(pos);
+            int start = pos;
+            while (pos < text.length() && !Character.isWhitespace(text.charAt(pos))
+                    && DELIMITERS.indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            if (start == pos) throw error("Expected " + expected);
+            return text.substring(start, pos);
+        }
+
+        private String peekWord() {
+            int saved = pos;
+            try {
+                pos = skipSpaces(pos);
+                return (pos < text.length() && DELIMITERS.indexOf(text.charAt(pos)) >= 0)
+                        ? String.valueOf(text.charAt(pos)) : word("a word");
+            } finally {
+                pos = saved;
+            }
+        }
+
+        private boolean atKeyword(String keyword) {
+            int start = skipSpaces(pos);
+            int end = start + keyword.length();
+            return text.regionMatches(true, start, keyword, 0, keyword.length())
+                    && (end == text.length() || Character.isWhitespace(text.charAt(end))
+                    || DELIMITERS.indexOf(text.charAt(end)) >= 0);
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (!atKeyword(keyword)) return false;
+            pos = skipSpaces(pos) + keyword.length();
+            return true;
+        }
+
+        private void expectKeyword(String keyword) {
+            if (!acceptKeyword(keyword)) throw error("Expected " + keyword);
+        }
+
+        private boolean accept(String symbol) {
+            int start = skipSpaces(pos);
+            if (!text.startsWith(symbol, start)) return false;
+            pos = start + symbol.length();
+            return true;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) throw error("Expected '" + symbol + "'");
+        }
+
+        private boolean atEnd() {
+            return skipSpaces(pos) == text.length();
+        }
+
+        private int skipSpaces(int at) {
+            while (at < text.length() && Character.isWhitespace(text.charAt(at))) at++;
+            return at;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + (skipSpaces(pos) + 1));
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package services;
+
+import models.Contact;
+import repository.AttributeBitmapIndex;
+import repository.ContactColumn;
+import repository.ContactIndexes;
+import repository.ContactRepository;
+import repository.IdBitmap;
+import repository.SearchKeyIndex;
+import repository.TurkishText;
+import services.ContactQuery.All;
+import services.ContactQuery.Any;
+import services.ContactQuery.Comparison;
+import services.ContactQuery.Condition;
+import services.ContactQuery.DatePart;
+import services.ContactQuery.Not;
+import services.ContactQuery.Operator;
+import services.ContactQuery.SortKey;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Execution plan of a {@link ContactQuery}.
+ * <p>
+ * The top-level AND of the condition is split into parts, and each part is
+ * assigned to the cheapest place that can answer it exactly:
+ * </p>
+ * <ul>
+ *     <li><b>index</b>: text equality and containment on the columns of the
+ *         {@link SearchKeyIndex}, presence of LinkedIn / nickname / secondary
+ *         phone, and year or month of birth from the {@link AttributeBitmapIndex}.
+ *         These parts become {@link IdBitmap}s and are intersected.</li>
+ *     <li><b>sql</b>: comparisons on the id and on whole dates, years of the
+ *         creation and update dates (rewritten as date ranges) and empty
+ *         checks of other columns. They form one {@code WHERE} clause, limited
+ *         to the index result when there is one.</li>
+ *     <li><b>filter</b>: everything else, compiled once into a single
+ *         {@link Predicate} that runs on the loaded rows. Text keys are taken
+ *         from the {@link SearchKeyIndex} when it has them, so rows are not
+ *         normalized again.</li>
+ * </ul>
+ * <p>
+ * An OR or NOT runs in the index or in SQL when all of its parts can; a mix
+ * becomes a filter. Sorting and the limit are pushed into SQL when nothing
+ * filters rows after the query and the sort keys are not text, whose order
+ * follows Turkish collation in memory through {@link ContactSorter}. {@link #explain()} prints the assignment.
+ * </p>
+ */
+public final class ContactQueryPlan {
+
+    /** Where a part of the query runs. */
+    private enum Stage {
+        INDEX, SQL, FILTER
+    }
+
+    /** Columns whose presence is kept in the attribute bitmaps. */
+    private static final Set<ContactColumn> PRESENCE_BITMAPS =
+            Set.of(ContactColumn.LINKEDIN, ContactColumn.NICKNAME, ContactColumn.PHONE_SECONDARY);
+
+    private final ContactQuery query;
+    private final List<Condition> indexParts = new ArrayList<>();
+    private final List<Condition> sqlParts = new ArrayList<>();
+    private final List<Condition> filterParts = new ArrayList<>();
+
+    private final String where;
+    private final List<Object> params = new ArrayList<>();
+    private final Predicate<Contact> filter;
+    private final boolean sortInSql;
+    private final boolean limitInSql;
+
+    /**
+     * Plans a query.
+     *
+     * @param query the parsed query
+     */
+    public ContactQueryPlan(ContactQuery query) {
+        this.query = query;
+        Condition condition = query.where();
+        List<Condition> parts = (condition == null) ? List.of()
+                : (condition instanceof All all) ? all.parts() : List.of(condition);
+        for (Condition part : parts) {
+            switch (stageOf(part)) {
+                case INDEX -> indexParts.add(part);
+                case SQL -> sqlParts.add(part);
+                default -> filterParts.add(part);
+            }
+        }
+
+        StringBuilder sql = new StringBuilder();
+        for (Condition part : sqlParts) {
+            if (sql.length() > 0) sql.append(" AND ");
+            appendSql(part, sql, params);
+        }
+        where = (sql.length() == 0) ? null : sql.toString();
+
+        Predicate<Contact> fused = null;
+        for (Condition part : filterParts) {
+            Predicate<Contact> next = predicateOf(part);
+            fused = (fused == null) ? next : fused.and(next);
+        }
+        filter = fused;
+
+        boolean textSort = query.sort().stream().anyMatch(key -> !isNumericOrDate(key.column()));
+        sortInSql = !query.sort().isEmpty() && filter == null && indexParts.isEmpty() && !textSort;
+        limitInSql = query.limit() >= 0 && filter == null && (query.sort().isEmpty() || sortInSql);
+    }
+
+    /**
+     * Runs the plan.
+     *
+     * @param repository the repository used for the SQL part
+     * @return the matching contacts, sorted and limited as requested
+     */
+    public List<Contact> execute(ContactRepository repository) {
+        return execute(repository, null);
+    }
+
+    /**
+     * Runs the plan over some of the contacts only, such as those matching
+     * filters chosen outside the query. The ids are intersected with the index
+     * part; since the rows are then loaded by id, the sort and the limit run
+     * in memory.
+     *
+     * @param repository the repository used for the SQL part
+     * @param within     ids the result is restricted to, or {@code null} for every contact
+     * @return the matching contacts, sorted and limited as requested
+     */
+    public List<Contact> execute(ContactRepository repository, IdBitmap within) {
+        IdBitmap matches = within;
+        for (Condition part : indexParts) {
+            IdBitmap next = bitmapOf(part);
+            matches = (matches == null) ? next : matches.and(next);
+            if (matches.isEmpty()) return new ArrayList<>();
+        }
+        if (matches != null && matches.isEmpty()) return new ArrayList<>();
+        int[] ids = (matches == null) ? null : matches.toArray();
+        boolean sqlSort = sortInSql && within == null;
+        boolean sqlLimit = limitInSql && (query.sort().isEmpty() || sqlSort);
+
+        List<Contact> rows = repository.findWhere(where, params, ids,
+                sqlSort ? orderBy() : null, sqlLimit ? query.limit() : -1);
+
+        List<Contact> results = rows;
+        if (filter != null) {
+            boolean stopEarly = query.sort().isEmpty() && query.limit() >= 0;
+            results = new ArrayList<>();
+            for (Contact contact : rows) {
+                if (stopEarly && results.size() == query.limit()) break;
+                if (filter.test(contact)) results.add(contact);
+            }
+        }
+        if (!query.sort().isEmpty() && !sqlSort) results = new ContactSorter(results).sort(query.sort());
+        if (query.limit() >= 0 && results.size() > query.limit()) {
+            results = new ArrayList<>(results.subList(0, query.limit()));
+        }
+        return results;
+    }
+
+    /**
+     * Describes where each part of the query runs.
+     *
+     * @return a multi-line plan description
+     */
+    public String explain() {
+        StringBuilder out = new StringBuilder("QUERY PLAN\n");
+        int step = 1;
+        for (Condition part : indexParts) {
+            Set<String> indexes = new LinkedHashSet<>();
+            collectIndexes(part, indexes);
+            out.append(String.format("  %d. index   %s%n             using %s%n", step++, part, String.join(", ", indexes)));
+        }
+        out.append(String.format("  %d. sql     SELECT ... FROM contacts WHERE %s%s%n", step++,
+                (where == null) ? "1=1" : where,
+                indexParts.isEmpty() ? "" : " AND contact_id IN (<index result>)"));
+        if (!params.isEmpty()) out.append("             params ").append(params).append('\n');
+        if (sortInSql) out.append("             ORDER BY ").append(orderBy()).append('\n');
+        if (limitInSql) out.append("             LIMIT ").append(query.limit()).append('\n');
+        for (Condition part : filterParts) {
+            out.append(String.format("  %d. filter  %s%n", step++, part));
+        }
+        if (filter != null) out.append("             (one fused predicate over the loaded rows)\n");
+        if (!query.sort().isEmpty() && !sortInSql) {
+            out.append(String.format("  %d. sort    %s in memory%n", step++, orderBy()));
+        }
+        if (query.limit() >= 0 && !limitInSql) {
+            out.append(String.format("  %d. limit   %d in memory%n", step, query.limit()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Decides where a condition can run exactly.
+     *
+     * @param condition the condition
+     * @return the cheapest stage able to answer it
+     */
+    private static Stage stageOf(Condition condition) {
+        if (condition instanceof Comparison comparison) {
+            if (inIndex(comparison)) return Stage.INDEX;
+            return inSql(comparison) ? Stage.SQL : Stage.FILTER;
+        }
+        List<Condition> parts = (condition instanceof All all) ? all.parts()
+                : (condition instanceof Any any) ? any.parts() : List.of(((Not) condition).part());
+        Stage common = null;
+        for (Condition part : parts) {
+            Stage stage = stageOf(part);
+            if (stage == Stage.FILTER || (common != null && stage != common)) return Stage.FILTER;
+            common = stage;
+        }
+        return common;
+    }
+
+    private static boolean inIndex(Comparison c) {
+        Operator op = c.operator();
+        if (c.part() == DatePart.NONE && op == Operator.EMPTY) return PRESENCE_BITMAPS.contains(c.column());
+        if (c.part() == DatePart.NONE && SearchKeyIndex.FIELDS.contains(c.column())) {
+            return op == Operator.EQ || op == Operator.NE || op == Operator.CONTAINS;
+        }
+        return c.column() == ContactColumn.BIRTH_DATE
+                && (c.part() == DatePart.YEAR || c.part() == DatePart.MONTH)
+                && op != Operator.EMPTY;
+    }
+
+    private static boolean inSql(Comparison c) {
+        if (c.operator() == Operator.EMPTY) return c.part() == DatePart.NONE;
+        if (c.column() == ContactColumn.ID) return true;
+        if (!ContactQuery.isDate(c.column())) return false;
+        return c.part() == DatePart.NONE || c.part() == DatePart.YEAR;
+    }
+
+    /**
+     * Evaluates an index condition as a bitmap.
+     *
+     * @param condition a condition whose stage is {@link Stage#INDEX}
+     * @return the matching ids
+     */
+    private static IdBitmap bitmapOf(Condition condition) {
+        AttributeBitmapIndex attributes = ContactIndexes.get().attributes();
+        if (condition instanceof All all) {
+            IdBitmap result = null;
+            for (Condition part : all.parts()) {
+                IdBitmap next = bitmapOf(part);
+                result = (result == null) ? next : result.and(next);
+            }
+            return result;
+        }
+        if (condition instanceof Any any) {
+            IdBitmap result = new IdBitmap();
+            for (Condition part : any.parts()) {
+                result = result.or(bitmapOf(part));
+            }
+            return result;
+        }
+        if (condition instanceof Not not) return attributes.all().andNot(bitmapOf(not.part()));
+
+        Comparison c = (Comparison) condition;
+        if (c.operator() == Operator.NE) {
+            return attributes.all().andNot(bitmapOf(new Comparison(c.column(), c.part(), Operator.EQ, c.value(), null)));
+        }
+        if (c.operator() == Operator.EMPTY) {
+            IdBitmap present = (c.column() == ContactColumn.LINKEDIN) ? attributes.withLinkedin()
+                    : (c.column() == ContactColumn.NICKNAME) ? attributes.withNickname()
+                    : attributes.withSecondaryPhone();
+            return attributes.all().andNot(present);
+        }
+        if (c.part() == DatePart.NONE && SearchKeyIndex.FIELDS.contains(c.column())) {
+            SearchKeyIndex keys = ContactIndexes.get().searchKeys();
+            String text = (String) c.value();
+            return IdBitmap.of((c.operator() == Operator.EQ)
+                    ? keys.findEqual(c.column(), text) : keys.findContaining(c.column(), text));
+        }
+
+        int[] range = intRange(c);
+        if (c.part() == DatePart.YEAR) return attributes.bornBetween(range[0], range[1]);
+        IdBitmap months = new IdBitmap();
+        for (int month = Math.max(1, range[0]); month <= Math.min(12, range[1]); month++) {
+            months = months.or(attributes.bornInMonth(month));
+        }
+        return months;
+    }
+
+    /**
+     * Appends the SQL of a condition whose stage is {@link Stage#SQL}.
+     * Every generated comparison is {@code TRUE} or {@code FALSE}, never
+     * {@code NULL}, so {@code NOT} keeps the meaning of the query language.
+     *
+     * @param condition the condition
+     * @param sql       the clause being built
+     * @param values    the parameters being collected
+     */
+    private static void appendSql(Condition condition, StringBuilder sql, List<Object> values) {
+        if (condition instanceof All || condition instanceof Any) {
+            List<Condition> parts = (condition instanceof All all) ? all.parts() : ((Any) condition).parts();
+            sql.append('(');
+            for (int i = 0; i < parts.size(); i++) {
+                if (i > 0) sql.append((condition instanceof All) ? " AND " : " OR ");
+                appendSql(parts.get(i), sql, values);
+            }
+            sql.append(')');
+            return;
+        }
+        if (condition instanceof Not not) {
+            sql.append("NOT (");
+            appendSql(not.part(), sql, values);
+            sql.append(')');
+            return;
+        }
+
+        Comparison c = (Comparison) condition;
+        String column = c.column().column();
+        if (c.operator() == Operator.EMPTY) {
+            sql.append(ContactQuery.isDate(c.column()) || c.column() == ContactColumn.ID
+                    ? column + " IS NULL" : "(" + column + " IS NULL OR TRIM(" + column + ") = '')");
+            return;
+        }
+        if (c.operator() == Operator.NE) {
+            sql.append("NOT (");
+            appendSql(new Comparison(c.column(), c.part(), Operator.EQ, c.value(), null), sql, values);
+            sql.append(')');
+            return;
+        }
+        if (c.column() == ContactColumn.ID) {
+            if (c.operator() == Operator.BETWEEN) {
+                sql.append(column).append(" BETWEEN ? AND ?");
+                values.add(c.value());
+                values.add(c.upper());
+            } else {
+                sql.append(column).append(' ').append(c.operator().symbol()).append(" ?");
+                values.add(c.value());
+            }
+            return;
+        }
+
+        // Dates and years become half-open day ranges, which an index on the column can serve.
+        LocalDate[] range = dateRange(c);
+        sql.append('(').append(column).append(" IS NOT NULL");
+        if (range[0] != null) {
+            sql.append(" AND ").append(column).append(" >= ?");
+            values.add(Date.valueOf(range[0]));
+        }
+        if (range[1] != null) {
+            sql.append(" AND ").append(column).append(" < ?");
+            values.add(Date.valueOf(range[1]));
+        }
+        sql.append(')');
+    }
+
+    /**
+     * Returns the days matched by a whole-date or year comparison as
+     * {@code [from, to)}, either bound being {@code null} when open.
+     *
+     * @param c a date or year comparison other than {@code !=}
+     * @return the range
+     */
+    private static LocalDate[] dateRange(Comparison c) {
+        if (c.part() == DatePart.YEAR) {
+            int[] years = intRange(c);
+            LocalDate from = (years[0] == Integer.MIN_VALUE) ? null : LocalDate.of(years[0], 1, 1);
+            LocalDate to = (years[1] == Integer.MAX_VALUE) ? null : LocalDate.of(years[1] + 1, 1, 1);
+            return new LocalDate[] { from, to };
+        }
+        LocalDate value = (LocalDate) c.value();
+        switch (c.operator()) {
+            case LT: return new LocalDate[] { null, value };
+            case LE: return new LocalDate[] { null, value.plusDays(1) };
+            case GT: return new LocalDate[] { value.plusDays(1), null };
+            case GE: return new LocalDate[] { value, null };
+            case BETWEEN: return new LocalDate[] { value, ((LocalDate) c.upper()).plusDays(1) };
+            default: return new LocalDate[] { value, value.plusDays(1) };
+        }
+    }
+
+    /**
+     * Returns the integers matched by a numeric comparison as an inclusive range.
+     *
+     * @param c a comparison on an integer value other than {@code !=}
+     * @return {@code [from, to]}, open ends as {@link Integer#MIN_VALUE} and {@link Integer#MAX_VALUE}
+     */
+    private static int[] intRange(Comparison c) {
+        int value = (Integer) c.value();
+        switch (c.operator()) {
+            case LT: return new int[] { Integer.MIN_VALUE, value - 1 };
+            case LE: return new int[] { Integer.MIN_VALUE, value };
+            case GT: return new int[] { value + 1, Integer.MAX_VALUE };
+            case GE: return new int[] { value, Integer.MAX_VALUE };
+            case BETWEEN: return new int[] { value, (Integer) c.upper() };
+            default: return new int[] { value, value };
+        }
+    }
+
+    /**
+     * Compiles a condition into a predicate. Query values are converted and
+     * normalized here, once, so the predicate only reads and compares fields.
+     *
+     * @param condition the condition
+     * @return the predicate
+     */
+    private static Predicate<Contact> predicateOf(Condition condition) {
+        if (condition instanceof All all) {
+            List<Predicate<Contact>> parts = all.parts().stream().map(ContactQueryPlan::predicateOf).toList();
+            return contact -> {
+                for (Predicate<Contact> part : parts) {
+                    if (!part.test(contact)) return false;
+                }
+                return true;
+            };
+        }
+        if (condition instanceof Any any) {
+            List<Predicate<Contact>> parts = any.parts().stream().map(ContactQueryPlan::predicateOf).toList();
+            return contact -> {
+                for (Predicate<Contact> part : parts) {
+                    if (part.test(contact)) return true;
+                }
+                return false;
+            };
+        }
+        if (condition instanceof Not not) return predicateOf(not.part()).negate();
+
+        Comparison c = (Comparison) condition;
+        ContactColumn column = c.column();
+        Operator op = c.operator();
+        if (op == Operator.EMPTY) {
+            return contact -> {
+                Object value = column.valueOf(contact);
+                return value == null || (value instanceof String text && text.isBlank());
+            };
+        }
+        if (op == Operator.NE) {
+            return predicateOf(new Comparison(column, c.part(), Operator.EQ, c.value(), null)).negate();
+        }
+
+        if (column == ContactColumn.ID || c.part() != DatePart.NONE) {
+            int[] range = intRange(c);
+            DatePart part = c.part();
+            return contact -> {
+                Object value = column.valueOf(contact);
+                if (value == null) return false;
+                int number = (part == DatePart.NONE) ? (Integer) value : datePart(toLocalDate(value), part);
+                return number >= range[0] && number <= range[1];
+            };
+        }
+        if (ContactQuery.isDate(column)) {
+            LocalDate[] range = dateRange(c);
+            return contact -> {
+                Object value = column.valueOf(contact);
+                if (value == null) return false;
+                LocalDate date = toLocalDate(value);
+                return (range[0] == null || !date.isBefore(range[0])) && (range[1] == null || date.isBefore(range[1]));
+            };
+        }
+
+        String text = (String) c.value();
+        boolean ascii = TurkishText.isAscii(text) && (c.upper() == null || TurkishText.isAscii((String) c.upper()));
+        String key = keyOf(text, ascii);
+        String upper = (c.upper() == null) ? null : keyOf((String) c.upper(), ascii);
+        boolean indexed = SearchKeyIndex.FIELDS.contains(column);
+        SearchKeyIndex keys = indexed ? ContactIndexes.get().searchKeys() : null;
+        return contact -> {
+            String value;
+            if (indexed) {
+                value = keys.keyOf(column, contact.getContactId(), !ascii);
+            } else {
+                Object raw = column.valueOf(contact);
+                value = (raw == null) ? null : keyOf(raw.toString(), ascii);
+            }
+            if (value == null || key == null) return false;
+            switch (op) {
+                case EQ: return value.equals(key);
+                case CONTAINS: return value.contains(key);
+                case STARTS_WITH: return value.startsWith(key);
+                case ENDS_WITH: return value.endsWith(key);
+                case LT: return value.compareTo(key) < 0;
+                case LE: return value.compareTo(key) <= 0;
+                case GT: return value.compareTo(key) > 0;
+                case GE: return value.compareTo(key) >= 0;
+                default: return upper != null && value.compareTo(key) >= 0 && value.compareTo(upper) <= 0;
+            }
+        };
+    }
+
+    private static String keyOf(String text, boolean ascii) {
+        String folded = TurkishText.fold(text);
+        return ascii ? TurkishText.stripDiacritics(folded) : folded;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return (value instanceof Timestamp timestamp) ? timestamp.toLocalDateTime().toLocalDate()
+                : ((Date) value).toLocalDate();
+    }
+
+    private static int datePart(LocalDate date, DatePart part) {
+        switch (part) {
+            case YEAR: return date.getYear();
+            case MONTH: return date.getMonthValue();
+            default: return date.getDayOfMonth();
+        }
+    }
+
+    private static boolean isNumericOrDate(ContactColumn column) {
+        return column == ContactColumn.ID || ContactQuery.isDate(column);
+    }
+
+    private static void collectIndexes(Condition condition, Set<String> indexes) {
+        if (condition instanceof All all) {
+            all.parts().forEach(part -> collectIndexes(part, indexes));
+        } else if (condition instanceof Any any) {
+            any.parts().forEach(part -> collectIndexes(part, indexes));
+        } else if (condition instanceof Not not) {
+            collectIndexes(not.part(), indexes);
+        } else {
+            Comparison c = (Comparison) condition;
+            boolean text = c.part() == DatePart.NONE && c.operator() != Operator.EMPTY;
+            indexes.add(text ? "SearchKeyIndex" : "AttributeBitmapIndex");
+        }
+    }
+
+    private String orderBy() {
+        StringBuilder out = new StringBuilder();
+        for (SortKey key : query.sort()) {
+            if (out.length() > 0) out.append(", ");
+            out.append(key);
+        }
+        return out.toString();
+    }
+}
@@ -2,12 +2,24 @@ package services;
 
 import models.Contact;
 import models.User;
+import repository.ContactColumn;
 import repository.ContactRepository;
+import repository.ContactIndexes;
+import repository.ContactSnapshot;
+import repository.AttributeBitmapIndex;
+import repository.EmailDomainIndex;
+import repository.FuzzyNameIndex;
+import repository.IdBitmap;
+import repository.NamePrefixIndex;
+import repository.PhoneIndex;
+import repository.PhoneticIndex;
+import repository.SearchKeyIndex;
+import repository.SortedFieldIndex;
 import input.Input;
 import input.MenuInput;
 import input.DateInput;
+import menu.ConsoleWriter;
 import menu.MenuUtils;
-import java.time.Period;
 
 import Undo.UndoManager;
 import Undo.AddContactCommand;
@@ -15,9 +27,15 @@ import Undo.UpdateContactCommand;
 import Undo.DeleteContactCommand;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.Scanner;
 import java.time.LocalDate;
 
@@ -29,6 +47,54 @@ public class ContactService {
     /** Manages undoable operations for contact modifications. */
     private final UndoManager undoManager;
 
+    /** Columnar copy of the statistics fields, refreshed before each report. */
+    private final ContactSnapshot snapshot;
+
+    /** Runs statistics over {@link #snapshot} on the fork/join pool. */
+    private final ContactAggregator aggregator;
+
+    /** Result lists longer than this are printed as a table instead of in detail. */
+    private static final int DETAIL_VIEW_LIMIT = 10;
+
+    /** Number of contacts per page when streaming or printing a table. */
+    private static final int TABLE_PAGE_SIZE = 100;
+
+    /** Name columns matched by the name searches. */
+    private static final List<ContactColumn> NAME_COLUMNS = List.of(ContactColumn.FIRST_NAME,
+            ContactColumn.MIDDLE_NAME, ContactColumn.LAST_NAME, ContactColumn.NICKNAME);
+
+    /** Columns matched by each option of the search menu, always shown in its result table. */
+    private static final List<List<ContactColumn>> SEARCH_MENU_COLUMNS = List.of(
+            List.of(ContactColumn.ID), List.of(ContactColumn.FIRST_NAME), List.of(ContactColumn.MIDDLE_NAME),
+            List.of(ContactColumn.LAST_NAME), List.of(ContactColumn.NICKNAME), List.of(ContactColumn.PHONE_PRIMARY),
+            List.of(ContactColumn.PHONE_SECONDARY), List.of(ContactColumn.EMAIL), List.of(ContactColumn.LINKEDIN),
+            List.of(ContactColumn.BIRTH_DATE), List.of(ContactColumn.CREATED_AT), List.of(ContactColumn.UPDATED_AT),
+            List.of(ContactColumn.PHONE_PRIMARY, ContactColumn.PHONE_SECONDARY), NAME_COLUMNS, NAME_COLUMNS,
+            List.of(ContactColumn.FIRST_NAME, ContactColumn.MIDDLE_NAME, ContactColumn.LAST_NAME,
+                    ContactColumn.NICKNAME, ContactColumn.EMAIL, ContactColumn.PHONE_PRIMARY,
+                    ContactColumn.PHONE_SECONDARY));
+
+    /** Column filtered by each option of the multi-field search, always shown in its result table. */
+    private static final List<ContactColumn> FILTER_MENU_COLUMNS = List.of(
+            ContactColumn.FIRST_NAME, ContactColumn.LAST_NAME, ContactColumn.PHONE_PRIMARY, ContactColumn.EMAIL,
+            ContactColumn.NICKNAME, ContactColumn.LINKEDIN, ContactColumn.NICKNAME, ContactColumn.PHONE_SECONDARY,
+            ContactColumn.EMAIL, ContactColumn.BIRTH_DATE, ContactColumn.BIRTH_DATE);
+
+    /** Number of e-mail domains listed on the statistics screen. */
+    private static final int STATS_TOP_DOMAINS = 5;
+
+    /** Number of domains the e-mail domain report shows unless asked otherwise. */
+    private static final int DOMAIN_REPORT_DEFAULT = 10;
+
+    /** Number of completions offered by the type-ahead name search. */
+    private static final int COMPLETION_LIMIT = 8;
+
+    /** Largest number of typos the fuzzy name search lets the user allow. */
+    private static final int FUZZY_MAX_DISTANCE = 3;
+
+    /** Length of the longest bar in the age histogram. */
+    private static final int HISTOGRAM_WIDTH = 40;
+
     /** Regular expression used for validating name fields. */
     private static final String NAME_REGEX = "^[a-zA-ZÇĞİÖŞÜçğıöşü]+$";
 
@@ -40,17 +106,92 @@ public class ContactService {
     public ContactService() {
         this.contactRepository = new ContactRepository();
         this.undoManager = new UndoManager();
+        this.snapshot = new ContactSnapshot(contactRepository);
+        this.aggregator = new ContactAggregator();
+    }
+
+    /**
+     * Lists every contact as a compact table.
+     * <p>
+     * The user may pick the columns to show (Enter keeps the default set). The
+     * contacts are then streamed from the repository {@value #TABLE_PAGE_SIZE}
+     * at a time with {@link ContactRepository#findPage}, which reads only the
+     * chosen columns, and each page is printed as soon as it arrives.
+     * </p>
+     *
+     * @return the number of contacts listed
+     */
+    public int listAllContacts() {
+        List<ContactColumn> columns = readTableColumns(List.of());
+        ContactTableRenderer table = new ContactTableRenderer(columns);
+
+        int afterId = 0;
+        List<Contact> page;
+        do {
+            page = contactRepository.findPage(columns, afterId, TABLE_PAGE_SIZE);
+            if (page.isEmpty()) break;
+            table.printPage(page);
+            afterId = page.get(page.size() - 1).getContactId();
+        } while (page.size() == TABLE_PAGE_SIZE);
+
+        table.finish();
+        return table.rowCount();
+    }
+
+    /**
+     * Asks which columns the contact table should show.
+     * <p>
+     * The columns are offered by number; the user enters a comma or space
+     * separated list such as {@code 1,2,8}. An empty or invalid answer selects
+     * {@link ContactColumn#DEFAULT_TABLE}. The required columns are appended to
+     * the selection when missing.
+     * </p>
+     *
+     * @param required columns that are always shown, such as the searched field
+     * @return the selected columns, in the order given
+     */
+    private List<ContactColumn> readTableColumns(List<ContactColumn> required) {
+        ContactColumn[] all = ContactColumn.values();
+        StringBuilder options = new StringBuilder("Columns:");
+        for (int i = 0; i < all.length; i++) {
+            options.append(i % 6 == 0 ? "\n  " : "  ").append(i + 1).append('-').append(all[i].label());
+        }
+        System.out.println(options);
+        System.out.print("Choose columns (e.g. 1,2,8) or press Enter for the default: ");
+        String answer = Input.scanner.nextLine().trim();
+        if (answer.isEmpty()) return withColumns(ContactColumn.DEFAULT_TABLE, required);
+
+        List<ContactColumn> selected = new ArrayList<>();
+        for (String part : answer.split("[,\\s]+")) {
+            try {
+                int n = Integer.parseInt(part);
+                if (n >= 1 && n <= all.length && !selected.contains(all[n - 1])) {
+                    selected.add(all[n - 1]);
+                }
+            } catch (NumberFormatException e) {
+                // Ignore anything that is not a column number.
+            }
+        }
+        if (selected.isEmpty()) {
+            System.out.println("No valid columns chosen, using the default.");
+            return withColumns(ContactColumn.DEFAULT_TABLE, required);
+        }
+        return withColumns(selected, required);
     }
 
     /**
-     * Retrieves all contacts from the repository and prints them to the console.
+     * Appends columns to a column list unless already present.
      *
-     * @return a list containing all contacts stored in the system
+     * @param columns the columns
+     * @param extra   the columns to add
+     * @return a new list with the columns followed by the missing extra ones
      */
-    public List<Contact> listAllContacts() {
-        List<Contact> contacts = contactRepository.findAll();
-        printResults(contacts);
-        return contacts;
+    private static List<ContactColumn> withColumns(List<ContactColumn> columns, List<ContactColumn> extra) {
+        List<ContactColumn> all = new ArrayList<>(columns);
+        for (ContactColumn column : extra) {
+            if (!all.contains(column)) all.add(column);
+        }
+        return all;
     }
 
     /**
@@ -69,9 +210,13 @@ public class ContactService {
      *
      * Supported fields include:
      * - Contact ID
-     * - First / Middle / Last Name
+     * - First / Middle / Last Name (first and last name also exact or sounds-like)
      * - Nickname
      * - Primary & Secondary Phone Numbers
+     * - Any phone by last digits, leading digits or full number
+     * - Any name or nickname with type-ahead completion
+     * - Any name or nickname with typos (fuzzy match)
+     * - Best matches over names, e-mail and phones, ranked by relevance
      * - Email (partial or domain search)
      * - LinkedIn presence
      * - Birth, creation, and update dates
@@ -99,10 +244,14 @@ public class ContactService {
         MenuUtils.printOption("10", "Birth Date");
         MenuUtils.printOption("11", "Creation Date");
         MenuUtils.printOption("12", "Update Date");
+        MenuUtils.printOption("13", "Any Phone (last digits, start or full)");
+        MenuUtils.printOption("14", "Any Name / Nickname (type-ahead)");
+        MenuUtils.printOption("15", "Any Name / Nickname (tolerates typos)");
+        MenuUtils.printOption("16", "Best Matches (name, e-mail or phone, ranked)");
 
         System.out.println();
 
-        Integer choice = MenuInput.readMenuChoice(1, 12, "Select field");
+        Integer choice = MenuInput.readMenuChoice(1, 16, "Select field");
         if (choice == null) {
             return results;
         }
@@ -126,16 +275,16 @@ public class ContactService {
                 break;
             }
             case 2:
-                results = searchByStringField("first_name", "First Name");
+                results = searchByNameField(ContactColumn.FIRST_NAME, "First Name");
                 break;
             case 3:
-                results = searchByStringField("middle_name", "Middle Name");
+                results = searchByStringField(ContactColumn.MIDDLE_NAME, "Middle Name");
                 break;
             case 4:
-                results = searchByStringField("last_name", "Last Name");
+                results = searchByNameField(ContactColumn.LAST_NAME, "Last Name");
                 break;
             case 5:
-                results = searchByStringField("nickname", "Nickname");
+                results = searchByStringField(ContactColumn.NICKNAME, "Nickname");
                 break;
             case 6: {
                 String phone = askPhoneNumber(Input.scanner, "Enter 10-digit primary phone (or Q to go back): ");
@@ -152,7 +301,7 @@ public class ContactService {
             case 8: {
                 System.out.print("Enter email part or domain (e.g. gmail.com): ");
                 String val = Input.scanner.nextLine().trim();
-                if (!val.isEmpty()) results = contactRepository.searchByField("email", val);
+                if (!val.isEmpty()) results = searchByEmail(val);
                 break;
             }
             case 9: {
@@ -160,7 +309,9 @@ public class ContactService {
                 System.out.println("2- No LinkedIn Account");
                 Integer opt = MenuInput.readMenuChoice(1, 2, "Select");
                 if (opt != null) {
-                    results = contactRepository.searchByLinkedinPresence(opt == 1);
+                    AttributeBitmapIndex attributes = ContactIndexes.get().attributes();
+                    results = contactsOf((opt == 1) ? attributes.withLinkedin()
+                            : attributes.all().andNot(attributes.withLinkedin()));
                 }
                 break;
             }
@@ -173,27 +324,363 @@ public class ContactService {
             case 12:
                 results = searchByDateField("updated_at", "Update Date");
                 break;
+            case 13:
+                results = searchByAnyPhone();
+                break;
+            case 14:
+                results = searchByNamePrefix();
+                break;
+            case 15:
+                results = searchByFuzzyName();
+                break;
+            case 16:
+                results = searchByRelevance();
+                break;
         }
 
-        printResults(results);
+        printResults(results, SEARCH_MENU_COLUMNS.get(choice - 1));
         return results;
     }
 
+    /**
+     * Interactive type-ahead search over first, middle and last names and nicknames.
+     * <p>
+     * The user types the start of a name and gets the most used matching words
+     * with their contact counts. Typing more letters narrows the list; entering
+     * the number of a completion returns the contacts using that word.
+     * </p>
+     *
+     * @return contacts using the chosen word; empty if cancelled
+     */
+    private List<Contact> searchByNamePrefix() {
+        List<NamePrefixIndex.Completion> completions = new ArrayList<>();
+        while (true) {
+            System.out.print("Type the start of a name, a number to pick, or Q to go back: ");
+            String input = Input.scanner.nextLine().trim();
+            if (input.isEmpty()) continue;
+            if (input.equalsIgnoreCase("q")) return new ArrayList<>();
+
+            if (input.matches("\\d+") && !completions.isEmpty()) {
+                int pick = Integer.parseInt(input);
+                if (pick >= 1 && pick <= completions.size()) {
+                    return findByNameWord(completions.get(pick - 1).word());
+                }
+                System.out.println("Please pick a number between 1 and " + completions.size() + ".");
+                continue;
+            }
+
+            completions = autocompleteNames(input, COMPLETION_LIMIT);
+            if (completions.isEmpty()) {
+                System.out.println("No names start with \"" + input + "\".");
+                continue;
+            }
+            StringBuilder out = ConsoleWriter.row();
+            for (int i = 0; i < completions.size(); i++) {
+                NamePrefixIndex.Completion completion = completions.get(i);
+                out.append(String.format("  %d- %s (%d)%n", i + 1, completion.word(), completion.count()));
+            }
+            ConsoleWriter.print(out);
+        }
+    }
+
+    /**
+     * Returns the most used name and nickname words starting with a prefix.
+     * Matching ignores case with Turkish rules, so "ış" also completes "Işık",
+     * and a plain ASCII prefix ignores diacritics, so "cel" completes "Çelik".
+     *
+     * @param prefix the typed text
+     * @param limit  maximum number of completions
+     * @return completions with contact counts, most used first
+     */
+    public List<NamePrefixIndex.Completion> autocompleteNames(String prefix, int limit) {
+        return ContactIndexes.get().names().complete(prefix, limit);
+    }
+
+    /**
+     * Returns every contact with the given word in its first, middle or last
+     * name or nickname.
+     *
+     * @param word a complete word, e.g. a completion returned by {@link #autocompleteNames}
+     * @return matching contacts ordered by id, possibly empty
+     */
+    public List<Contact> findByNameWord(String word) {
+        int[] ids = ContactIndexes.get().names().idsForWord(word);
+        return (ids.length == 0) ? new ArrayList<>() : contactRepository.findByIds(ids);
+    }
+
+    /**
+     * Interactive fuzzy search over first, middle and last names and nicknames.
+     * <p>
+     * The user types a word and how many typos to allow, then gets the closest
+     * name words ranked by distance and contact count. Entering the number of a
+     * candidate returns the contacts using that word; {@code A} returns the
+     * contacts of every candidate.
+     * </p>
+     *
+     * @return contacts using the chosen words; empty if cancelled
+     */
+    private List<Contact> searchByFuzzyName() {
+        System.out.print("Enter a name or nickname (typos allowed): ");
+        String word = Input.scanner.nextLine().trim();
+        if (word.isEmpty()) return new ArrayList<>();
+
+        Integer maxDistance = MenuInput.readMenuChoice(1, FUZZY_MAX_DISTANCE, "Allowed typos");
+        if (maxDistance == null) return new ArrayList<>();
+
+        List<FuzzyNameIndex.Candidate> candidates = fuzzyNames(word, maxDistance, COMPLETION_LIMIT);
+        if (candidates.isEmpty()) {
+            System.out.println("No names within " + maxDistance + " typo(s) of \"" + word + "\".");
+            return new ArrayList<>();
+        }
+        StringBuilder out = ConsoleWriter.row();
+        for (int i = 0; i < candidates.size(); i++) {
+            FuzzyNameIndex.Candidate candidate = candidates.get(i);
+            out.append(String.format("  %d- %s (%d contacts, %d typo(s))%n",
+                    i + 1, candidate.word(), candidate.count(), candidate.distance()));
+        }
+        ConsoleWriter.print(out);
+
+        while (true) {
+            System.out.print("Pick a number, A for all, or Q to go back: ");
+            String input = Input.scanner.nextLine().trim();
+            if (input.equalsIgnoreCase("q")) return new ArrayList<>();
+            if (input.equalsIgnoreCase("a")) return findByFuzzyName(word, maxDistance);
+            if (input.matches("\\d+")) {
+                int pick = Integer.parseInt(input);
+                if (pick >= 1 && pick <= candidates.size()) {
+                    int[] ids = ContactIndexes.get().fuzzyNames().idsForWord(candidates.get(pick - 1).key());
+                    return (ids.length == 0) ? new ArrayList<>() : contactRepository.findByIds(ids);
+                }
+            }
+            System.out.println("Please pick a number between 1 and " + candidates.size() + ", A or Q.");
+        }
+    }
+
+    /**
+     * Returns the name and nickname words closest to a possibly misspelled word.
+     * Case and diacritics are ignored, so "Celik" is an exact match for "Çelik".
+     *
+     * @param word        a single word
+     * @param maxDistance maximum number of inserted, deleted or replaced letters
+     * @param limit       maximum number of candidates
+     * @return candidates, closest and most used first
+     */
+    public List<FuzzyNameIndex.Candidate> fuzzyNames(String word, int maxDistance, int limit) {
+        return ContactIndexes.get().fuzzyNames().search(word, maxDistance, limit);
+    }
+
+    /**
+     * Returns every contact with a name or nickname word within an edit
+     * distance of the given word.
+     *
+     * @param word        a single, possibly misspelled word
+     * @param maxDistance maximum number of inserted, deleted or replaced letters
+     * @return matching contacts ordered by id, possibly empty
+     */
+    public List<Contact> findByFuzzyName(String word, int maxDistance) {
+        FuzzyNameIndex index = ContactIndexes.get().fuzzyNames();
+        TreeSet<Integer> ids = new TreeSet<>();
+        for (FuzzyNameIndex.Candidate candidate : index.search(word, maxDistance, Integer.MAX_VALUE)) {
+            for (int id : index.idsForWord(candidate.key())) ids.add(id);
+        }
+        if (ids.isEmpty()) return new ArrayList<>();
+        return contactRepository.findByIds(ids.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Asks for free text and shows the best matching contacts, each with how it
+     * matched, through {@link RankedContactSearch}.
+     *
+     * @return the top {@value #DETAIL_VIEW_LIMIT} contacts, best first; empty if cancelled
+     */
+    private List<Contact> searchByRelevance() {
+        System.out.print("Enter a name, e-mail or phone (or part of it): ");
+        String query = Input.scanner.nextLine().trim();
+        if (query.isEmpty()) return new ArrayList<>();
+
+        List<RankedContactSearch.Hit> hits = RankedContactSearch.search(query, DETAIL_VIEW_LIMIT);
+        StringBuilder out = ConsoleWriter.row();
+        for (int i = 0; i < hits.size(); i++) {
+            RankedContactSearch.Hit hit = hits.get(i);
+            out.append(String.format("  %d- Contact %d: %s %s match%n", i + 1, hit.contactId(),
+                    hit.match().name().toLowerCase(Locale.ROOT), hit.field().name().toLowerCase(Locale.ROOT)));
+        }
+        ConsoleWriter.print(out);
+        return contactsOf(hits);
+    }
+
+    /**
+     * Returns the contacts that best match free text, ranked exact before
+     * prefix before substring before fuzzy, and name before e-mail before phone.
+     * Only the top {@code k} contacts are loaded.
+     *
+     * @param query a name, e-mail or phone fragment
+     * @param k     maximum number of contacts
+     * @return matching contacts, best first
+     */
+    public List<Contact> rankedSearch(String query, int k) {
+        return contactsOf(RankedContactSearch.search(query, k));
+    }
+
+    /**
+     * Loads the contacts of ranked hits, keeping the rank order.
+     *
+     * @param hits hits, best first
+     * @return their contacts in the same order
+     */
+    private List<Contact> contactsOf(List<RankedContactSearch.Hit> hits) {
+        return inOrder(hits.stream().mapToInt(RankedContactSearch.Hit::contactId).toArray());
+    }
+
+    /**
+     * Loads contacts by id, keeping the order of the ids.
+     *
+     * @param ids contact ids in the wanted order
+     * @return their contacts in the same order; ids no longer present are skipped
+     */
+    private List<Contact> inOrder(int[] ids) {
+        if (ids.length == 0) return new ArrayList<>();
+        Map<Integer, Contact> byId = new HashMap<>();
+        for (Contact contact : contactRepository.findByIds(ids)) {
+            byId.put(contact.getContactId(), contact);
+        }
+        List<Contact> ranked = new ArrayList<>();
+        for (int id : ids) {
+            Contact contact = byId.get(id);
+            if (contact != null) ranked.add(contact);
+        }
+        return ranked;
+    }
+
+    /**
+     * Asks for phone digits and a match mode, then searches both phone columns
+     * at once through {@link #findByPhone}.
+     *
+     * @return matching contacts ordered by id; empty if cancelled
+     */
+    private List<Contact> searchByAnyPhone() {
+        System.out.println("1- Ends with (last digits)");
+        System.out.println("2- Starts with");
+        System.out.println("3- Full number");
+        Integer mode = MenuInput.readMenuChoice(1, 3, "Select");
+        if (mode == null) return new ArrayList<>();
+
+        System.out.print("Enter digits: ");
+        String digits = Input.scanner.nextLine().trim();
+        if (PhoneIndex.digitsOf(digits) == null) {
+            System.out.println("Please enter at least one digit.");
+            return new ArrayList<>();
+        }
+
+        PhoneIndex.Match match = (mode == 1) ? PhoneIndex.Match.SUFFIX
+                : (mode == 2) ? PhoneIndex.Match.PREFIX : PhoneIndex.Match.EXACT;
+        return findByPhone(digits, match);
+    }
+
+    /**
+     * Returns every contact whose primary or secondary phone matches the
+     * digits, using the in-memory {@link PhoneIndex}.
+     *
+     * @param digits the digits to look for; other characters are ignored
+     * @param match  whether the digits are the end, the start or the whole number
+     * @return matching contacts ordered by id, possibly empty
+     */
+    public List<Contact> findByPhone(String digits, PhoneIndex.Match match) {
+        int[] ids = ContactIndexes.get().phones().find(digits, match);
+        return (ids.length == 0) ? new ArrayList<>() : contactRepository.findByIds(ids);
+    }
+
+    /**
+     * Searches contacts by e-mail.
+     * <p>
+     * If the value is a complete domain (optionally written with a leading
+     * {@code @}) the contacts come straight from the {@link EmailDomainIndex};
+     * otherwise it is matched as part of the address through the
+     * {@link SearchKeyIndex}.
+     * </p>
+     *
+     * @param value a domain such as {@code gmail.com}, or any part of an address
+     * @return matching contacts ordered by id
+     */
+    private List<Contact> searchByEmail(String value) {
+        List<Contact> byDomain = findByEmailDomain(value);
+        return byDomain.isEmpty() ? findContaining(ContactColumn.EMAIL, value) : byDomain;
+    }
+
+    /**
+     * Returns every contact whose e-mail has exactly the given domain, using
+     * the in-memory {@link EmailDomainIndex}.
+     *
+     * @param domain the domain, e.g. {@code gmail.com}; case and a leading {@code @} are ignored
+     * @return matching contacts ordered by id, possibly empty
+     */
+    public List<Contact> findByEmailDomain(String domain) {
+        int[] ids = ContactIndexes.get().emailDomains().idsForDomain(domain);
+        return (ids.length == 0) ? new ArrayList<>() : contactRepository.findByIds(ids);
+    }
+
+    /**
+     * Returns the e-mail domains used by the most contacts.
+     *
+     * @param limit maximum number of domains
+     * @return domains with contact counts, most used first
+     */
+    public List<EmailDomainIndex.DomainCount> topEmailDomains(int limit) {
+        return ContactIndexes.get().emailDomains().topDomains(limit);
+    }
+
+    /**
+     * Asks how many domains to show and prints the e-mail domain report: the
+     * most used domains with their contact counts and share of all contacts.
+     */
+    public void showEmailDomainReport() {
+        System.out.print("How many domains to show? (Enter for " + DOMAIN_REPORT_DEFAULT + "): ");
+        String answer = Input.scanner.nextLine().trim();
+        int limit = DOMAIN_REPORT_DEFAULT;
+        if (!answer.isEmpty()) {
+            try {
+                limit = Math.max(1, Integer.parseInt(answer));
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid number, showing " + DOMAIN_REPORT_DEFAULT + ".");
+            }
+        }
+
+        List<EmailDomainIndex.DomainCount> top = topEmailDomains(limit);
+        if (top.isEmpty()) {
+            System.out.println("No records found.");
+            return;
+        }
+
+        int total = contactRepository.count();
+        System.out.println("\n=== TOP E-MAIL DOMAINS ===");
+        System.out.printf("%-4s %-32s %8s %7s%n", "#", "Domain", "Contacts", "Share");
+        int rank = 1;
+        for (EmailDomainIndex.DomainCount domain : top) {
+            System.out.printf("%-4d %-32s %8d %6.1f%%%n",
+                    rank++, domain.domain(), domain.count(), 100.0 * domain.count() / Math.max(1, total));
+        }
+        System.out.println("==========================\n");
+    }
+
     /**
      * Allows the user to perform a multi-field search by adding multiple filters sequentially.
-     * The user may choose from several fields (name, phone, email, nickname) and input
-     * partial text values. Each filter is stored and combined to perform a multi-criteria
-     * database query.
+     * The user may choose from text fields (name, phone, email, nickname), matched
+     * as partial values, and from attributes: LinkedIn, nickname and secondary
+     * phone presence, e-mail domains, birth years and birth months.
      *
      * <p>The method works interactively:
      * <ul>
      *     <li>User selects one field at a time.</li>
-     *     <li>User enters a value that should be contained in the selected field.</li>
-     *     <li>Filters accumulate in a map until the user selects "0" to execute the search.</li>
+     *     <li>User enters a value, several values (combined with OR) or yes / no (NOT).</li>
+     *     <li>Filters accumulate until the user selects "0" to execute the search.</li>
      * </ul>
      *
-     * After collecting all criteria, the method delegates the query to
-     * {@link ContactRepository#searchByMultipleCriteria(Map)} and prints the results.
+     * Every filter is turned into an {@link IdBitmap}: text filters from the
+     * {@link SearchKeyIndex}, the others from the {@link AttributeBitmapIndex}.
+     * The bitmaps are intersected and only the matching contacts are loaded.
+     * Option 12 finishes with a typed query through {@link #searchByQuery} for
+     * conditions the menu cannot express; the query only runs over the
+     * contacts matching the filters added before it.
      * @author Can
      * @return a list of contacts matching all specified filters;
      *         an empty list if no filters were selected or no matches were found.
@@ -204,11 +691,13 @@ public class ContactService {
         MenuUtils.printCentered("Add filters one by one. Enter '0' to execute search.", MenuUtils.CYAN);
         System.out.println();
 
-        Map<String, String> criteria = new HashMap<>();
+        AttributeBitmapIndex attributes = ContactIndexes.get().attributes();
+        Map<String, IdBitmap> filters = new LinkedHashMap<>();
+        List<ContactColumn> filtered = new ArrayList<>();
 
         while (true) {
-            if (!criteria.isEmpty()) {
-                System.out.println("Current filters: " + criteria);
+            if (!filters.isEmpty()) {
+                System.out.println("Current filters: " + filters.keySet());
             }
 
             MenuUtils.printOption("1", "First Name");
@@ -216,54 +705,236 @@ public class ContactService {
             MenuUtils.printOption("3", "Phone Number");
             MenuUtils.printOption("4", "Email");
             MenuUtils.printOption("5", "Nickname");
+            MenuUtils.printOption("6", "Has LinkedIn (yes / no)");
+            MenuUtils.printOption("7", "Has Nickname (yes / no)");
+            MenuUtils.printOption("8", "Has Secondary Phone (yes / no)");
+            MenuUtils.printOption("9", "E-mail Domain(s)");
+            MenuUtils.printOption("10", "Birth Year or Range");
+            MenuUtils.printOption("11", "Birth Month(s)");
+            MenuUtils.printOption("12", filters.isEmpty()
+                    ? "Type a query instead (advanced)" : "Finish with a typed query (advanced)");
             MenuUtils.printOption("0", "EXECUTE SEARCH");
 
-            Integer choice = MenuInput.readMenuChoice(0, 5, "Add Filter");
+            Integer choice = MenuInput.readMenuChoice(0, 12, "Add Filter");
             if (choice == null || choice == 0) break;
+            if (choice == 12) return searchByQuery(intersection(filters), filtered);
 
-            String dbField = "";
-            String prompt = "";
-
+            int before = filters.size();
             switch (choice) {
                 case 1:
-                    dbField = "first_name";
-                    prompt = "First Name contains: ";
+                    addTextFilter(filters, ContactColumn.FIRST_NAME, "First Name");
                     break;
                 case 2:
-                    dbField = "last_name";
-                    prompt = "Last Name contains: ";
+                    addTextFilter(filters, ContactColumn.LAST_NAME, "Last Name");
                     break;
                 case 3:
-                    dbField = "phone_primary";
-                    prompt = "Phone contains: ";
+                    addTextFilter(filters, ContactColumn.PHONE_PRIMARY, "Phone");
                     break;
                 case 4:
-                    dbField = "email";
-                    prompt = "Email contains: ";
+                    addTextFilter(filters, ContactColumn.EMAIL, "Email");
                     break;
                 case 5:
-                    dbField = "nickname";
-                    prompt = "Nickname contains: ";
+                    addTextFilter(filters, ContactColumn.NICKNAME, "Nickname");
+                    break;
+                case 6:
+                    addPresenceFilter(filters, "LinkedIn", attributes.withLinkedin(), attributes.all());
+                    break;
+                case 7:
+                    addPresenceFilter(filters, "Nickname", attributes.withNickname(), attributes.all());
+                    break;
+                case 8:
+                    addPresenceFilter(filters, "Secondary Phone", attributes.withSecondaryPhone(), attributes.all());
+                    break;
+                case 9:
+                    addDomainFilter(filters, attributes);
+                    break;
+                case 10:
+                    addBirthYearFilter(filters, attributes);
+                    break;
+                case 11:
+                    addBirthMonthFilter(filters, attributes);
                     break;
             }
-
-            System.out.print(prompt);
-            String val = Input.scanner.nextLine().trim();
-            if (!val.isEmpty()) {
-                criteria.put(dbField, val);
-            }
+            if (filters.size() > before) filtered.add(FILTER_MENU_COLUMNS.get(choice - 1));
         }
 
-        if (criteria.isEmpty()) {
+        if (filters.isEmpty()) {
             System.out.println("No criteria selected. Returning to menu.");
             return new ArrayList<>();
         }
 
-        List<Contact> results = contactRepository.searchByMultipleCriteria(criteria);
-        printResults(results);
+        List<Contact> results = contactsOf(intersection(filters));
+        printResults(results, filtered);
         return results;
     }
 
+    /**
+     * Intersects the filters of the multi-field search.
+     *
+     * @param filters the filters collected so far
+     * @return the ids matching every filter, or {@code null} if there are no filters
+     */
+    private static IdBitmap intersection(Map<String, IdBitmap> filters) {
+        IdBitmap matches = null;
+        for (IdBitmap filter : filters.values()) {
+            matches = (matches == null) ? filter : matches.and(filter);
+        }
+        return matches;
+    }
+
+    /**
+     * Asks for a query in the {@link ContactQuery} language, runs it and prints
+     * the results. A query starting with {@code EXPLAIN} only prints its plan.
+     *
+     * @param within   ids the query is restricted to, or {@code null} for every contact
+     * @param filtered columns already filtered on, shown in the result table
+     * @return the matching contacts; empty if the query is invalid or only explained
+     */
+    private List<Contact> searchByQuery(IdBitmap within, List<ContactColumn> filtered) {
+        System.out.println("Fields: id, first, middle, last, nick, phone, phone2, email, linkedin, birth, created, updated");
+        System.out.println("Example: last ~ yilmaz AND YEAR(birth) >= 1990 AND NOT linkedin IS EMPTY SORT BY first LIMIT 20");
+        System.out.println("Start with EXPLAIN to see where each part runs without running it.");
+        System.out.print("Query: ");
+        String text = Input.scanner.nextLine().trim();
+        if (text.isEmpty()) return new ArrayList<>();
+
+        boolean explainOnly = text.regionMatches(true, 0, "EXPLAIN ", 0, 8);
+        try {
+            if (explainOnly) {
+                System.out.print(explainQuery(text.substring(8)));
+                return new ArrayList<>();
+            }
+            ContactQuery parsed = ContactQuery.parse(text);
+            List<Contact> results = new ContactQueryPlan(parsed).execute(contactRepository, within);
+            printResults(results, withColumns(filtered, parsed.columns()));
+            return results;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid query: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Runs a query written in the {@link ContactQuery} language.
+     *
+     * @param text the query, e.g. {@code first ~ ali AND YEAR(birth) BETWEEN 1990 AND 1999 LIMIT 10}
+     * @return the matching contacts, sorted and limited as the query asks
+     * @throws IllegalArgumentException if the query is invalid
+     */
+    public List<Contact> query(String text) {
+        return new ContactQueryPlan(ContactQuery.parse(text)).execute(contactRepository);
+    }
+
+    /**
+     * Describes how a query would run: which parts use the in-memory indexes,
+     * which are sent to SQL and which are filtered in memory.
+     *
+     * @param text the query
+     * @return the plan as printable lines
+     * @throws IllegalArgumentException if the query is invalid
+     */
+    public String explainQuery(String text) {
+        return new ContactQueryPlan(ContactQuery.parse(text)).explain();
+    }
+
+    /**
+     * Asks for a text and adds a filter for contacts whose field contains it.
+     *
+     * @param filters     the filters collected so far
+     * @param field       the column searched through the {@link SearchKeyIndex}
+     * @param displayName the field name shown in the prompt
+     */
+    private void addTextFilter(Map<String, IdBitmap> filters, ContactColumn field, String displayName) {
+        System.out.print(displayName + " contains: ");
+        String val = Input.scanner.nextLine().trim();
+        if (val.isEmpty()) return;
+        int[] ids = ContactIndexes.get().searchKeys().findContaining(field, val);
+        filters.put(displayName + " contains '" + val + "'", IdBitmap.of(ids));
+    }
+
+    /**
+     * Asks whether an attribute must be present or absent and adds the filter.
+     *
+     * @param filters the filters collected so far
+     * @param name    the attribute name shown to the user
+     * @param present contacts having the attribute
+     * @param all     every contact, to negate {@code present}
+     */
+    private void addPresenceFilter(Map<String, IdBitmap> filters, String name, IdBitmap present, IdBitmap all) {
+        System.out.println("1- Has " + name);
+        System.out.println("2- No " + name);
+        Integer opt = MenuInput.readMenuChoice(1, 2, "Select");
+        if (opt == null) return;
+        filters.put(((opt == 1) ? "Has " : "No ") + name, (opt == 1) ? present : all.andNot(present));
+    }
+
+    /**
+     * Asks for one or more e-mail domains and adds a filter matching any of them.
+     *
+     * @param filters    the filters collected so far
+     * @param attributes the attribute bitmaps
+     */
+    private void addDomainFilter(Map<String, IdBitmap> filters, AttributeBitmapIndex attributes) {
+        System.out.print("E-mail domain(s), comma separated (e.g. gmail.com, outlook.com): ");
+        String val = Input.scanner.nextLine().trim();
+        if (val.isEmpty()) return;
+        IdBitmap matches = new IdBitmap();
+        for (String domain : val.split(",")) {
+            if (!domain.isBlank()) matches = matches.or(attributes.withDomain(domain));
+        }
+        filters.put("Domain in [" + val + "]", matches);
+    }
+
+    /**
+     * Asks for a birth year or an inclusive range of years and adds the filter.
+     *
+     * @param filters    the filters collected so far
+     * @param attributes the attribute bitmaps
+     */
+    private void addBirthYearFilter(Map<String, IdBitmap> filters, AttributeBitmapIndex attributes) {
+        System.out.print("Birth year or range (e.g. 1990 or 1990-1999): ");
+        String val = Input.scanner.nextLine().trim();
+        if (!val.matches("\\d{4}(\\s*-\\s*\\d{4})?")) {
+            System.out.println("Invalid year or range.");
+            return;
+        }
+        String[] bounds = val.split("\\s*-\\s*");
+        int from = Integer.parseInt(bounds[0]);
+        int to = Integer.parseInt(bounds[bounds.length - 1]);
+        filters.put("Born " + val, attributes.bornBetween(Math.min(from, to), Math.max(from, to)));
+    }
+
+    /**
+     * Asks for one or more birth months and adds a filter matching any of them.
+     *
+     * @param filters    the filters collected so far
+     * @param attributes the attribute bitmaps
+     */
+    private void addBirthMonthFilter(Map<String, IdBitmap> filters, AttributeBitmapIndex attributes) {
+        System.out.print("Birth month(s) 1-12, comma separated (e.g. 6,7,8): ");
+        String val = Input.scanner.nextLine().trim();
+        IdBitmap matches = new IdBitmap();
+        for (String part : val.split(",")) {
+            try {
+                matches = matches.or(attributes.bornInMonth(Integer.parseInt(part.trim())));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid month: " + part.trim());
+                return;
+            }
+        }
+        filters.put("Born in month(s) " + val, matches);
+    }
+
+    /**
+     * Loads the contacts whose ids are in a bitmap.
+     *
+     * @param ids the matching contact ids
+     * @return the contacts ordered by id, possibly empty
+     */
+    private List<Contact> contactsOf(IdBitmap ids) {
+        return ids.isEmpty() ? new ArrayList<>() : contactRepository.findByIds(ids.toArray());
+    }
+
     /**
      * Allows the user to sort contacts based on a selected field and sort direction.
      * The method displays a menu of sortable fields (e.g., names, phone numbers,
@@ -279,10 +950,15 @@ public class ContactService {
      *     <li>Email</li>
      *     <li>LinkedIn URL</li>
      *     <li>Birth / Creation / Update Dates</li>
+     *     <li>Several fields at once, e.g. last name, then first name, then birth date</li>
      * </ul>
      *
-     * After determining the sort preferences, the method delegates to
-     * {@link ContactRepository#findAllSorted(String, String)} and prints the results.
+     * After determining the sort preferences, fields kept in a
+     * {@link SortedFieldIndex} are listed by walking the index through
+     * {@link #sortFromIndex}; the others are delegated to
+     * {@link ContactRepository#findAllSorted(String, String)}. The results are printed.
+     * Sorting by several fields runs in memory with Turkish collation through
+     * {@link #sortBySeveralFields()}.
      * @author Can
      * @return a sorted list of contacts, or an empty list if an invalid selection was made.
      */
@@ -303,9 +979,11 @@ public class ContactService {
         MenuUtils.printOption("10", "Birth Date");
         MenuUtils.printOption("11", "Creation Date");
         MenuUtils.printOption("12", "Update Date");
+        MenuUtils.printOption("13", "Several Fields (e.g. last, first, birth desc)");
 
-        Integer fieldChoice = MenuInput.readMenuChoice(1, 12, "Select field to sort by");
+        Integer fieldChoice = MenuInput.readMenuChoice(1, 13, "Select field to sort by");
         if (fieldChoice == null) return new ArrayList<>();
+        if (fieldChoice == 13) return sortBySeveralFields();
 
         String field = "first_name"; // Default
         switch (fieldChoice) {
@@ -355,11 +1033,132 @@ public class ContactService {
         Integer dirChoice = MenuInput.readMenuChoice(1, 2, "Select direction");
         String dir = (dirChoice != null && dirChoice == 2) ? "DESC" : "ASC";
 
+        ContactColumn column = ContactColumn.ofColumn(field);
+        if (SortedFieldIndex.FIELDS.contains(column)) {
+            return sortFromIndex(column, "DESC".equals(dir));
+        }
+
         List<Contact> results = contactRepository.findAllSorted(field, dir);
-        printResults(results);
+        printResults(results, List.of(column));
+        return results;
+    }
+
+    /**
+     * Lists all contacts in the order of an indexed field without an
+     * {@code ORDER BY}: the ids are walked from the {@link SortedFieldIndex}
+     * and loaded and printed {@value #TABLE_PAGE_SIZE} at a time, in a table
+     * of the default columns plus the sorted one.
+     *
+     * @param column     one of {@link SortedFieldIndex#FIELDS}
+     * @param descending {@code true} for the highest value first
+     * @return every contact in the requested order
+     */
+    private List<Contact> sortFromIndex(ContactColumn column, boolean descending) {
+        SortedFieldIndex index = ContactIndexes.get().sortedFields();
+        if (index.size() <= DETAIL_VIEW_LIMIT) {
+            List<Contact> results = inOrder(index.page(column, descending, 0, DETAIL_VIEW_LIMIT));
+            printResults(results, List.of(column));
+            return results;
+        }
+
+        List<Contact> results = new ArrayList<>(index.size());
+        ContactTableRenderer table = new ContactTableRenderer(withColumns(ContactColumn.DEFAULT_TABLE, List.of(column)));
+        PrimitiveIterator.OfInt ids = index.walk(column, descending);
+        int[] page = new int[TABLE_PAGE_SIZE];
+        while (ids.hasNext()) {
+            int count = 0;
+            while (count < page.length && ids.hasNext()) page[count++] = ids.nextInt();
+            List<Contact> contacts = inOrder(Arrays.copyOf(page, count));
+            table.printPage(contacts);
+            results.addAll(contacts);
+        }
+        table.finish();
         return results;
     }
 
+    /**
+     * Returns one page of all contacts sorted by an indexed field, read by a
+     * range walk of the {@link SortedFieldIndex} instead of a sorted query.
+     *
+     * @param column     one of {@link SortedFieldIndex#FIELDS}
+     * @param descending {@code true} for the highest value first
+     * @param offset     number of contacts to skip
+     * @param limit      maximum number of contacts
+     * @return the contacts of the page in order
+     * @throws IllegalArgumentException if the field is not indexed
+     */
+    public List<Contact> sortedPage(ContactColumn column, boolean descending, int offset, int limit) {
+        return inOrder(ContactIndexes.get().sortedFields().page(column, descending, offset, limit));
+    }
+
+    /**
+     * Sorts all contacts by several keys in memory, then lets the user re-sort
+     * the same loaded contacts by other keys without querying the database
+     * again. Keys are written as after {@code SORT BY} in a contact query,
+     * e.g. {@code last, first, birth desc}.
+     *
+     * @return the contacts in the last chosen order; empty if cancelled
+     */
+    private List<Contact> sortBySeveralFields() {
+        List<ContactQuery.SortKey> keys = readSortKeys("Sort by (e.g. last, first, birth desc): ");
+        if (keys == null) return new ArrayList<>();
+
+        ContactSorter sorter = new ContactSorter(contactRepository.findAll());
+        List<Contact> results = sorter.sort(keys);
+        printResults(results, columnsOf(keys));
+        while (true) {
+            keys = readSortKeys("Sort these contacts again by (empty to finish): ");
+            if (keys == null) return results;
+            results = sorter.sort(keys);
+            printResults(results, columnsOf(keys));
+        }
+    }
+
+    /**
+     * Returns the columns of sort keys.
+     *
+     * @param keys the sort keys
+     * @return their columns, in key order
+     */
+    private static List<ContactColumn> columnsOf(List<ContactQuery.SortKey> keys) {
+        List<ContactColumn> columns = new ArrayList<>(keys.size());
+        for (ContactQuery.SortKey key : keys) {
+            columns.add(key.column());
+        }
+        return columns;
+    }
+
+    /**
+     * Reads a list of sort keys, asking again until it parses.
+     *
+     * @param prompt the prompt
+     * @return the keys, or {@code null} if the input was empty
+     */
+    private List<ContactQuery.SortKey> readSortKeys(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String text = Input.scanner.nextLine().trim();
+            if (text.isEmpty()) return null;
+            try {
+                return ContactQuery.parseSort(text);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid sort: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Multi-key sort of contacts that are already loaded, ordering text by
+     * Turkish collation. No database query is made.
+     *
+     * @param contacts the contacts
+     * @param keys     sort keys in priority order
+     * @return a new sorted list; empty values come first ascending and last descending
+     */
+    public List<Contact> sortLoaded(List<Contact> contacts, List<ContactQuery.SortKey> keys) {
+        return new ContactSorter(contacts).sort(keys);
+    }
+
     /**
      * Interactively creates and saves a new contact using console input.
      * <p>
@@ -906,51 +1705,163 @@ public class ContactService {
         return false;
     }
 
+    /**
+     * Prints a formatted list of contacts to the console.
+     *
+     * @param contacts the list of contacts to print; may be {@code null} or empty
+     * @see #printResults(List, List)
+     */
+    private void printResults(List<Contact> contacts) {
+        printResults(contacts, List.of());
+    }
+
     /**
      * Prints a formatted list of contacts to the console.
      * <p>
-     * Each contact is rendered using {@link #formatContact(Contact)} and separated
-     * by a visual divider. If the list is {@code null} or empty, a
-     * {@code "No records found."} message is displayed instead.
+     * Up to {@value #DETAIL_VIEW_LIMIT} contacts are rendered in detail with
+     * {@link ContactFormatter#appendDetails} into the reusable
+     * {@link ConsoleWriter#row()} builder and separated by a visual divider; the
+     * listing is buffered and flushed once at the end. For longer lists the
+     * user picks between that detailed view and a compact table printed by
+     * {@link ContactTableRenderer}, one row per contact, with the columns of
+     * their choice plus the searched ones. If the list is {@code null} or
+     * empty, a {@code "No records found."} message is displayed instead.
      * </p>
      * @author Can
      * @param contacts the list of contacts to print; may be {@code null} or empty
+     * @param searched the columns that were searched or sorted by, always shown in the table
      */
-    private void printResults(List<Contact> contacts) {
+    private void printResults(List<Contact> contacts, List<ContactColumn> searched) {
         if (contacts == null || contacts.isEmpty()) {
             System.out.println("No records found.");
             return;
         }
 
-        System.out.println("================================================================================");
+        if (contacts.size() > DETAIL_VIEW_LIMIT) {
+            System.out.println(contacts.size() + " records found.");
+            MenuUtils.printOption("1", "Table");
+            MenuUtils.printOption("2", "Detailed list");
+            Integer view = MenuInput.readMenuChoice(1, 2, "Show as");
+            if (view == null) return;
+            if (view == 1) {
+                printTable(contacts, readTableColumns(searched));
+                return;
+            }
+        }
+
+        ConsoleWriter.println(ContactFormatter.DOUBLE_DIVIDER);
 
         for (Contact c : contacts) {
-            System.out.println(formatContact(c));
-            System.out.println("--------------------------------------------------------------------------------");
+            StringBuilder row = ConsoleWriter.row();
+            ContactFormatter.appendDetails(row, c).append('\n');
+            row.append(ContactFormatter.DIVIDER).append('\n');
+            ConsoleWriter.print(row);
         }
 
-        System.out.println("TOTAL: " + contacts.size() + " record(s).");
-        System.out.println("================================================================================");
+        StringBuilder footer = ConsoleWriter.row();
+        footer.append("TOTAL: ").append(contacts.size()).append(" record(s).\n");
+        footer.append(ContactFormatter.DOUBLE_DIVIDER);
+        ConsoleWriter.println(footer);
+        ConsoleWriter.flush();
+    }
+
+    /**
+     * Prints contacts as a compact table, {@value #TABLE_PAGE_SIZE} rows at a time.
+     *
+     * @param contacts the contacts to print
+     * @param columns  the columns to show
+     */
+    private void printTable(List<Contact> contacts, List<ContactColumn> columns) {
+        ContactTableRenderer table = new ContactTableRenderer(columns);
+        for (int from = 0; from < contacts.size(); from += TABLE_PAGE_SIZE) {
+            table.printPage(contacts.subList(from, Math.min(contacts.size(), from + TABLE_PAGE_SIZE)));
+        }
+        table.finish();
     }
 
     /**
      * Searches contacts by a single string-based field using a partial match.
      * <p>
      * The user is prompted to enter a value (or part of it) for the given display
-     * name, which is then used to search the specified database field via
-     * {@link ContactRepository#searchByField(String, String)}.
+     * name, which is then matched against the precomputed search keys of the
+     * field via {@link #findContaining(ContactColumn, String)}.
      * </p>
      * @author Can
-     * @param dbField     the name of the database column to search in (e.g. {@code "first_name"})
+     * @param field       the column to search in (e.g. {@link ContactColumn#FIRST_NAME})
      * @param displayName the human-readable name of the field shown in the prompt
      * @return a list of contacts whose given field contains the entered value;
      *         an empty list if no value is entered
      */
-    private List<Contact> searchByStringField(String dbField, String displayName) {
+    private List<Contact> searchByStringField(ContactColumn field, String displayName) {
         System.out.print("Enter " + displayName + " (or part of it): ");
         String val = Input.scanner.nextLine().trim();
         if (val.isEmpty()) return new ArrayList<>();
-        return contactRepository.searchByField(dbField, val);
+        return findContaining(field, val);
+    }
+
+    /**
+     * Searches contacts by first or last name in a mode chosen by the user:
+     * containing the entered text, equal to it, or sounding like it.
+     *
+     * @param field       {@link ContactColumn#FIRST_NAME} or {@link ContactColumn#LAST_NAME}
+     * @param displayName the human-readable name of the field shown in the prompt
+     * @return matching contacts ordered by id; empty if cancelled or nothing is entered
+     */
+    private List<Contact> searchByNameField(ContactColumn field, String displayName) {
+        System.out.println("1- Contains (partial)");
+        System.out.println("2- Exact");
+        System.out.println("3- Sounds like");
+        Integer mode = MenuInput.readMenuChoice(1, 3, "Select");
+        if (mode == null) return new ArrayList<>();
+        if (mode == 1) return searchByStringField(field, displayName);
+
+        System.out.print("Enter " + displayName + ": ");
+        String val = Input.scanner.nextLine().trim();
+        if (val.isEmpty()) return new ArrayList<>();
+        return (mode == 2) ? findEqual(field, val) : findSoundingLike(field, val);
+    }
+
+    /**
+     * Returns every contact whose field equals the given text, ignoring case
+     * with Turkish rules and, for a plain ASCII query, diacritics.
+     *
+     * @param field one of {@link SearchKeyIndex#FIELDS}
+     * @param text  the text to look for
+     * @return matching contacts ordered by id, possibly empty
+     */
+    public List<Contact> findEqual(ContactColumn field, String text) {
+        int[] ids = ContactIndexes.get().searchKeys().findEqual(field, text);
+        return (ids.length == 0) ? new ArrayList<>() : contactRepository.findByIds(ids);
+    }
+
+    /**
+     * Returns every contact whose first or last name sounds like the given
+     * one, such as "Memet" for "Mehmet", using the {@link PhoneticIndex}.
+     *
+     * @param field one of {@link PhoneticIndex#FIELDS}
+     * @param name  the name as heard; with several words, each must match
+     * @return matching contacts ordered by id, possibly empty
+     */
+    public List<Contact> findSoundingLike(ContactColumn field, String name) {
+        int[] ids = ContactIndexes.get().phonetic().find(field, name);
+        return (ids.length == 0) ? new ArrayList<>() : contactRepository.findByIds(ids);
+    }
+
+    /**
+     * Returns every contact whose field contains the given text, using the
+     * Turkish-aware keys of the {@link SearchKeyIndex}.
+     * <p>
+     * Case is ignored with Turkish rules, and a query typed in plain ASCII also
+     * matches letters with diacritics ("celik" finds "Çelik").
+     * </p>
+     *
+     * @param field one of {@link SearchKeyIndex#FIELDS}
+     * @param text  the text to look for
+     * @return matching contacts ordered by id, possibly empty
+     */
+    public List<Contact> findContaining(ContactColumn field, String text) {
+        int[] ids = ContactIndexes.get().searchKeys().findContaining(field, text);
+        return (ids.length == 0) ? new ArrayList<>() : contactRepository.findByIds(ids);
     }
 
     /**
@@ -1073,12 +1984,15 @@ public class ContactService {
     /**
      * Calculates and displays various statistics about all contacts in the system.
      * <p>
-     * The method loads all contacts from the repository and prints:
+     * The figures are aggregated in parallel by {@link ContactAggregator} over the
+     * columnar {@link ContactSnapshot}, which is first refreshed with the rows
+     * changed since the last call. It prints:
      * </p>
      * <ul>
      *     <li>Total number of contacts</li>
-     *     <li>Number of contacts with a LinkedIn URL</li>
+     *     <li>Number and share of contacts with a LinkedIn URL</li>
      *     <li>Average age of contacts (for those with a birthdate)</li>
+     *     <li>The most common e-mail domains</li>
      *     <li>Youngest contact (by birthdate)</li>
      *     <li>Oldest contact (by birthdate)</li>
      *     <li>Most recently created contact (by {@code created_at})</li>
@@ -1088,84 +2002,46 @@ public class ContactService {
      * @author Bora
      * <p>Contacts without birthdays or creation timestamps are ignored for
      * the corresponding calculations. The details of selected contacts are printed
-     * using {@link #formatShort(Contact, boolean, boolean, LocalDate)}.</p>
+     * using {@link #printShort(int, boolean, boolean, LocalDate)}.</p>
      */
     public void showStatistics() {
-        List<Contact> contacts = contactRepository.findAll();
-
-        System.out.println("\n=== CONTACT STATISTICS ===");
-        System.out.println("Total contacts: " + contacts.size());
-
-        int withLinkedIn = 0;
-
-
-        Contact youngest = null;
-        Contact oldest = null;
-
-        int ageCount = 0;
-        int ageSum = 0;
-
-        Contact newestCreated = null;
-        Contact oldestCreated = null;
-
+        snapshot.refresh();
         LocalDate today = LocalDate.now();
+        ContactStats summary = aggregator.aggregate(snapshot, today);
 
-        for (Contact c : contacts) {
-
-            if (c.getLinkedinUrl() != null && !c.getLinkedinUrl().isBlank()) {
-                withLinkedIn++;
-            }
-
-
-            if (c.getBirthDate() != null) {
-                LocalDate birth = c.getBirthDate().toLocalDate();
-
-                int age = Period.between(birth, today).getYears();
-                ageSum += age;
-                ageCount++;
-
-                if (youngest == null || birth.isAfter(youngest.getBirthDate().toLocalDate())) {
-                    youngest = c;
-                }
-                if (oldest == null || birth.isBefore(oldest.getBirthDate().toLocalDate())) {
-                    oldest = c;
-                }
-            }
+        System.out.println("\n=== CONTACT STATISTICS ===");
+        System.out.println("Total contacts: " + summary.count());
 
-            if (c.getCreatedAt() != null) {
-                if (newestCreated == null || c.getCreatedAt().after(newestCreated.getCreatedAt())) {
-                    newestCreated = c;
-                }
-                if (oldestCreated == null || c.getCreatedAt().before(oldestCreated.getCreatedAt())) {
-                    oldestCreated = c;
-                }
-            }
+        if (summary.count() > 0) {
+            System.out.printf("Contacts with LinkedIn : %d (%.1f%%)%n",
+                    summary.withLinkedin(), 100.0 * summary.withLinkedin() / summary.count());
+        } else {
+            System.out.println("Contacts with LinkedIn : 0");
         }
 
-        System.out.println("Contacts with LinkedIn : " + withLinkedIn);
-
-        if (ageCount > 0) {
-            double avgAge = (double) ageSum / ageCount;
-            System.out.printf("Average age (with birth date): %.1f years%n", avgAge);
+        if (summary.ageCount() > 0) {
+            System.out.printf("Average age (with birth date): %.1f years%n", summary.averageAge());
         } else {
             System.out.println("Average age: N/A (no birth dates)");
         }
 
+        printTopDomains(STATS_TOP_DOMAINS);
+
         System.out.println("-------------------------------------");
 
-        if (youngest != null) {
+        if (summary.youngestId() != ContactStats.NONE) {
             System.out.println("Youngest contact (by age):");
-            System.out.println(formatShort(youngest, true, false, today));
+            printShort(summary.youngestId(), true, false, today);
         } else {
             System.out.println("Youngest contact: N/A (no birth dates)");
         }
 
         System.out.println();
 
-        if (oldest != null) {
+        if (summary.oldestId() != ContactStats.NONE) {
             System.out.println("==========================\n");
             System.out.println("Oldest contact (by age):");
-            System.out.println(formatShort(oldest, true, false, today));
+            printShort(summary.oldestId(), true, false, today);
         } else {
             System.out.println("==========================\n");
             System.out.println("Oldest contact: N/A (no birth dates)");
@@ -1173,11 +2049,11 @@ public class ContactService {
 
         System.out.println();
 
-        if (newestCreated != null) {
+        if (summary.newestCreatedId() != ContactStats.NONE) {
             System.out.println("==========================\n");
             System.out.println("\n");
             System.out.println("Most recently created contact:");
-            System.out.println(formatShort(newestCreated, false, true, today));
+            printShort(summary.newestCreatedId(), false, true, today);
         } else {
             System.out.println("==========================\n");
             System.out.println("\n");
@@ -1186,11 +2062,11 @@ public class ContactService {
 
         System.out.println();
 
-        if (oldestCreated != null) {
+        if (summary.oldestCreatedId() != ContactStats.NONE) {
             System.out.println("==========================\n");
             System.out.println("\n");
             System.out.println("Oldest (first created) contact:");
-            System.out.println(formatShort(oldestCreated, false, true, today));
+            printShort(summary.oldestCreatedId(), false, true, today);
         } else {
             System.out.println("Oldest (first created) contact: N/A (no created_at)");
         }
@@ -1199,65 +2075,156 @@ public class ContactService {
     }
 
     /**
-     * Produces a short, customizable text representation of a contact.
+     * Asks for a grouping and prints contact statistics per group.
      * <p>
-     * The output includes the contact's basic fields (name, phone, email), and
-     * optionally age and creation timestamp depending on the boolean flags.
-     * Useful for statistics summaries and compact listings.
+     * Contacts can be grouped by birth year, e-mail domain or creation month.
+     * Each row shows the number of contacts, how many have a LinkedIn URL and
+     * the average age of the group. The groups are aggregated in parallel by
+     * {@link ContactAggregator#groupBy} over the refreshed {@link ContactSnapshot}.
      * </p>
-     * @author Bora
-     * @param c                the contact to format
-     * @param includeAge       whether the age should be included in the output
-     * @param includeCreatedAt whether the creation timestamp should be included
-     * @param today            the date used to calculate age
-     * @return a formatted string representing the contact in short form
      */
-    private String formatShort(Contact c, boolean includeAge, boolean includeCreatedAt, LocalDate today) {
+    public void showGroupedStatistics() {
+        System.out.println();
+        MenuUtils.printCentered("Group Contacts By");
+        MenuUtils.printOption("1", "Birth Year");
+        MenuUtils.printOption("2", "E-mail Domain");
+        MenuUtils.printOption("3", "Creation Month");
 
-        String first = safe(c.getFirstName());
-        String last = safe(c.getLastName());
-        String phone = safe(c.getPhonePrimary());
-        String email = safe(c.getEmail());
+        Integer choice = MenuInput.readMenuChoice(1, 3, "Select grouping");
+        if (choice == null) return;
 
-        StringBuilder sb = new StringBuilder();
+        snapshot.refresh();
+        LocalDate today = LocalDate.now();
+        Map<?, ContactStats> groups;
+        String label;
+        switch (choice) {
+            case 1:
+                groups = new TreeMap<>(aggregator.groupBy(snapshot, today, ContactAggregator.BY_BIRTH_YEAR));
+                label = "Birth Year";
+                break;
+            case 2:
+                groups = new TreeMap<>(aggregator.groupBy(snapshot, today, ContactAggregator.BY_EMAIL_DOMAIN));
+                label = "E-mail Domain";
+                break;
+            default:
+                groups = new TreeMap<>(aggregator.groupBy(snapshot, today, ContactAggregator.BY_CREATION_MONTH));
+                label = "Creation Month";
+                break;
+        }
 
-        sb.append("ID: ").append(c.getContactId()).append("\n");
-        sb.append("Name       : ").append(first).append(" ").append(last).append("\n");
-        sb.append("Phone(main): ").append(phone).append("\n");
-        sb.append("E-mail     : ").append(email).append("\n");
+        if (groups.isEmpty()) {
+            System.out.println("No records found.");
+            return;
+        }
 
-        if (includeAge) {
-            String ageStr = "N/A";
-            if (c.getBirthDate() != null) {
-                LocalDate birth = c.getBirthDate().toLocalDate();
-                int age = Period.between(birth, today).getYears();
-                ageStr = String.valueOf(age);
-            }
-            sb.append("Age        : ").append(ageStr).append("\n");
+        System.out.println("\n=== CONTACTS BY " + label.toUpperCase() + " ===");
+        System.out.printf("%-28s %8s %9s %8s%n", label, "Contacts", "LinkedIn", "Avg Age");
+        for (Map.Entry<?, ContactStats> group : groups.entrySet()) {
+            ContactStats stats = group.getValue();
+            String avgAge = (stats.ageCount() == 0) ? "N/A" : String.format("%.1f", stats.averageAge());
+            System.out.printf("%-28s %8d %9d %8s%n", group.getKey(), stats.count(), stats.withLinkedin(), avgAge);
+        }
+        System.out.println("==========================\n");
+    }
+
+    /**
+     * Computes the age distribution of all contacts with a birth date.
+     * <p>
+     * The {@link ContactSnapshot} is refreshed first; the ages are then folded
+     * into {@link AgeDistribution} sketches in parallel and merged.
+     * </p>
+     *
+     * @param today the date ages are computed at
+     * @return the distribution
+     */
+    public AgeDistribution ageDistribution(LocalDate today) {
+        snapshot.refresh();
+        int todayYmd = ContactSnapshot.toYmd(today);
+        return aggregator.reduce(snapshot,
+                () -> new AgeDistribution(todayYmd),
+                (ages, slot) -> ages.add(snapshot, slot),
+                AgeDistribution::merge);
+    }
+
+    /**
+     * Prints the age distribution report: a histogram of contacts by decade of
+     * age, followed by the median, 90th and 99th percentile ages.
+     * Contacts without a birth date are not included.
+     */
+    public void showAgeDistribution() {
+        AgeDistribution ages = ageDistribution(LocalDate.now());
+
+        System.out.println("\n=== AGE DISTRIBUTION ===");
+        if (ages.count() == 0) {
+            System.out.println("Age distribution: N/A (no birth dates)");
+            return;
         }
 
-        if (includeCreatedAt) {
-            sb.append("Created at : ").append(safe(c.getCreatedAt())).append("\n");
+        int[] decades = ages.decades();
+        int first = 0;
+        while (decades[first] == 0) first++;
+        int last = decades.length - 1;
+        while (decades[last] == 0) last--;
+        int widest = 0;
+        for (int count : decades) widest = Math.max(widest, count);
+
+        StringBuilder out = ConsoleWriter.row();
+        for (int d = first; d <= last; d++) {
+            int from = d * AgeDistribution.DECADE;
+            out.append(String.format("%3d-%-3d %6d  ", from, from + AgeDistribution.DECADE - 1, decades[d]));
+            int bar = (int) Math.round((double) decades[d] * HISTOGRAM_WIDTH / widest);
+            if (bar == 0 && decades[d] > 0) bar = 1;
+            for (int i = 0; i < bar; i++) out.append('#');
+            out.append('\n');
         }
+        out.append("-------------------------------------\n");
+        out.append("Contacts with birth date: ").append(ages.count()).append('\n');
+        out.append("Median age : ").append(ages.median()).append('\n');
+        out.append("90th pct.  : ").append(ages.quantile(0.90)).append('\n');
+        out.append("99th pct.  : ").append(ages.quantile(0.99)).append('\n');
+        out.append("==========================\n");
+        ConsoleWriter.println(out);
+        ConsoleWriter.flush();
+    }
 
-        return sb.toString();
+    /**
+     * Prints the e-mail domains used by the most contacts, with their counts.
+     *
+     * @param limit maximum number of domains to print
+     */
+    private void printTopDomains(int limit) {
+        List<EmailDomainIndex.DomainCount> top = topEmailDomains(limit);
+        if (top.isEmpty()) return;
+        System.out.println("Top e-mail domains:");
+        for (EmailDomainIndex.DomainCount domain : top) {
+            System.out.printf("  %-28s %d%n", domain.domain(), domain.count());
+        }
     }
 
     /**
-     * Produces a full, detailed multi-line representation of a contact,
-     * including personal information, phone numbers, email, LinkedIn,
-     * and timestamps.
+     * Loads a contact by id and prints a short, customizable description of it,
+     * followed by an empty line.
      * <p>
-     * This method is used for full listings such as search results and
-     * contact detail views.
+     * The output includes the contact's basic fields (name, phone, email), and
+     * optionally age and creation timestamp depending on the boolean flags.
+     * It is formatted by {@link ContactFormatter#appendSummary} into the shared
+     * console row builder.
      * </p>
-     * @author Can
-     * @param c the contact to format
-     * @return a formatted multi-line string containing all contact details
+     * @author Bora
+     * @param contactId        the id of the contact to print
+     * @param includeAge       whether the age should be included in the output
+     * @param includeCreatedAt whether the creation timestamp should be included
+     * @param today            the date used to calculate age
      */
-
-    private String formatContact(Contact c) {
-        return "Contact " + c.getContactId() + "\n" + "----------------------------\n" + "First Name     : " + safe(c.getFirstName()) + "\n" + "Middle Name    : " + safe(c.getMiddleName()) + "\n" + "Last Name      : " + safe(c.getLastName()) + "\n" + "Nickname       : " + safe(c.getNickname()) + "\n" + "\n" + "Primary Phone  : " + safe(c.getPhonePrimary()) + "\n" + "Secondary Phone: " + safe(c.getPhoneSecondary()) + "\n" + "\n" + "E-mail         : " + safe(c.getEmail()) + "\n" + "LinkedIn       : " + safe(c.getLinkedinUrl()) + "\n" + "\n" + "Birth Date     : " + safe(c.getBirthDate()) + "\n" + "Created At     : " + safe(c.getCreatedAt()) + "\n" + "Updated At     : " + safe(c.getUpdatedAt()) + "\n";
+    private void printShort(int contactId, boolean includeAge, boolean includeCreatedAt, LocalDate today) {
+        Contact c = contactRepository.findById(contactId);
+        if (c == null) {
+            System.out.println("Contact " + contactId + " no longer exists.\n");
+            return;
+        }
+        StringBuilder row = ConsoleWriter.row();
+        ContactFormatter.appendSummary(row, c, includeAge, includeCreatedAt, today);
+        ConsoleWriter.println(row);
     }
 
     /**
@@ -1345,18 +2312,12 @@ public class ContactService {
             return true;
         }
 
-        List<Contact> prim = contactRepository.searchByFieldExact("phone_primary", phone);
-        for (Contact c : prim) {
-            if (currentId == null || c.getContactId() != currentId) {
-                return false;
-            }
+        if (usedByOther(contactRepository.findIdsByFieldExact("phone_primary", phone), currentId)) {
+            return false;
         }
 
-        List<Contact> sec = contactRepository.searchByFieldExact("phone_secondary", phone);
-        for (Contact c : sec) {
-            if (currentId == null || c.getContactId() != currentId) {
-                return false;
-            }
+        if (usedByOther(contactRepository.findIdsByFieldExact("phone_secondary", phone), currentId)) {
+            return false;
         }
 
         return true;
@@ -1378,13 +2339,7 @@ public class ContactService {
             return true;
         }
 
-        List<Contact> list = contactRepository.searchByFieldExact("email", email);
-        for (Contact c : list) {
-            if (currentId == null || c.getContactId() != currentId) {
-                return false;
-            }
-        }
-        return true;
+        return !usedByOther(contactRepository.findIdsByFieldExact("email", email), currentId);
     }
 
     /**
@@ -1404,13 +2359,7 @@ public class ContactService {
             return true;
         }
 
-        List<Contact> list = contactRepository.searchByFieldExact("linkedin_url", url);
-        for (Contact c : list) {
-            if (currentId == null || c.getContactId() != currentId) {
-                return false;
-            }
-        }
-        return true;
+        return !usedByOther(contactRepository.findIdsByFieldExact("linkedin_url", url), currentId);
     }
 
     /**
@@ -1429,12 +2378,23 @@ public class ContactService {
             return true;
         }
 
-        List<Contact> list = contactRepository.searchByFieldExact("nickname", nickname);
-        for (Contact c : list) {
-            if (currentId == null || c.getContactId() != currentId) {
-                return false;
+        return !usedByOther(contactRepository.findIdsByFieldExact("nickname", nickname), currentId);
+    }
+
+    /**
+     * Checks whether any of the given contact ids belongs to a contact other
+     * than the one being edited.
+     *
+     * @param ids       ids of contacts that already use a value
+     * @param currentId the ID of the contact being updated, or {@code null} when adding a new one
+     * @return {@code true} if the value is taken by another contact
+     */
+    private boolean usedByOther(int[] ids, Integer currentId) {
+        for (int id : ids) {
+            if (currentId == null || id != currentId) {
+                return true;
             }
         }
-        return true;
+        return false;
     }
 }
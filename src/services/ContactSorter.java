@@ -0,0 +1,214 @@
+package services;
+
+import models.Contact;
+import repository.ContactColumn;
+import repository.TurkishText;
+import services.ContactQuery.SortKey;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorts a loaded list of contacts by several keys in memory.
+ * <p>
+ * Text is ordered by the Turkish {@link Collator}, so "Çelik" sorts between
+ * "Cem" and "Demir" and "ılgın" before "irem", which the database collation
+ * does not do. The collator is slow to call per comparison, so each text
+ * column is turned once into a {@link CollationKey} per contact, and the keys
+ * are then replaced by dense integer ranks. Dates and ids are ranked the same
+ * way from their numeric value.
+ * </p>
+ * <p>
+ * A sort is then a stable counting sort of an {@code int[]} of positions by
+ * each key's ranks, from the last key to the first, with no comparator and no
+ * boxing. Ranks are cached per column, so sorting the same contacts again by
+ * other keys or in the other direction needs no database round trip and only
+ * ranks the columns that were not used before. Empty values sort below every
+ * other value, as {@code NULL} does in MySQL: first when ascending, last when
+ * descending.
+ * </p>
+ */
+public final class ContactSorter {
+
+    private final List<Contact> contacts;
+
+    /** Rank of each contact per column, {@code -1} for an empty value. */
+    private final Map<ContactColumn, int[]> ranks = new EnumMap<>(ContactColumn.class);
+
+    /** Number of distinct non-empty values per ranked column. */
+    private final Map<ContactColumn, Integer> distinct = new EnumMap<>(ContactColumn.class);
+
+    private Collator collator;
+
+    /**
+     * Creates a sorter over loaded contacts. The list is not copied and must
+     * not change while the sorter is used.
+     *
+     * @param contacts the contacts to sort
+     */
+    public ContactSorter(List<Contact> contacts) {
+        this.contacts = contacts;
+    }
+
+    /**
+     * Returns the contacts ordered by the given keys.
+     *
+     * @param keys sort keys in priority order; contacts equal on all keys keep their order
+     * @return a new sorted list
+     */
+    public List<Contact> sort(List<SortKey> keys) {
+        int n = contacts.size();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+
+        int[] buffer = new int[n];
+        for (int k = keys.size() - 1; k >= 0; k--) {
+            SortKey key = keys.get(k);
+            countingSort(order, buffer, ranksOf(key.column()), distinct.get(key.column()), key.descending());
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+
+        List<Contact> sorted = new ArrayList<>(n);
+        for (int position : order) sorted.add(contacts.get(position));
+        return sorted;
+    }
+
+    /**
+     * Stably sorts positions by rank.
+     *
+     * @param from       the positions in their current order
+     * @param to         receives the sorted positions
+     * @param rank       the rank of each position, {@code -1} for empty
+     * @param values     number of distinct ranks
+     * @param descending {@code true} to put higher ranks first
+     */
+    private static void countingSort(int[] from, int[] to, int[] rank, int values, boolean descending) {
+        int[] start = new int[values + 2];
+        for (int position : from) start[bucket(rank[position], values, descending) + 1]++;
+        for (int b = 1; b < start.length; b++) start[b] += start[b - 1];
+        for (int position : from) to[start[bucket(rank[position], values, descending)]++] = position;
+    }
+
+    /**
+     * Maps a rank to its bucket. Empty values rank below every value, so they
+     * land in the first bucket ascending and in the last one descending.
+     *
+     * @param rank       the rank, {@code -1} for empty
+     * @param values     number of distinct ranks
+     * @param descending whether higher ranks come first
+     * @return the bucket, {@code 0} to {@code values}
+     */
+    private static int bucket(int rank, int values, boolean descending) {
+        return descending ? values - 1 - rank : rank + 1;
+    }
+
+    /**
+     * Returns the ranks of a column, computing them on first use.
+     *
+     * @param column the column
+     * @return the rank of each contact
+     */
+    private int[] ranksOf(ContactColumn column) {
+        int[] cached = ranks.get(column);
+        if (cached != null) return cached;
+
+        boolean text = !(column == ContactColumn.ID || ContactQuery.isDate(column));
+        int[] result = text ? rankText(column) : rankNumbers(column);
+        ranks.put(column, result);
+        return result;
+    }
+
+    /**
+     * Ranks a text column by Turkish collation, ignoring case.
+     *
+     * @param column the column
+     * @return the rank of each contact
+     */
+    private int[] rankText(ContactColumn column) {
+        if (collator == null) {
+            collator = Collator.getInstance(TurkishText.TURKISH);
+            collator.setStrength(Collator.SECONDARY);
+        }
+
+        int n = contacts.size();
+        CollationKey[] keys = new CollationKey[n];
+        CollationKey[] sorted = new CollationKey[n];
+        int present = 0;
+        for (int i = 0; i < n; i++) {
+            Object value = column.valueOf(contacts.get(i));
+            String folded = (value == null) ? null : TurkishText.fold(value.toString());
+            if (folded == null) continue;
+            keys[i] = collator.getCollationKey(folded);
+            sorted[present++] = keys[i];
+        }
+        Arrays.sort(sorted, 0, present);
+        int values = dedupe(sorted, present);
+
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[i] = (keys[i] == null) ? -1 : Arrays.binarySearch(sorted, 0, values, keys[i]);
+        }
+        distinct.put(column, values);
+        return rank;
+    }
+
+    /**
+     * Ranks an id or date column by its numeric value.
+     *
+     * @param column the column
+     * @return the rank of each contact
+     */
+    private int[] rankNumbers(ContactColumn column) {
+        int n = contacts.size();
+        long[] numbers = new long[n];
+        boolean[] empty = new boolean[n];
+        long[] sorted = new long[n];
+        int present = 0;
+        for (int i = 0; i < n; i++) {
+            Object value = column.valueOf(contacts.get(i));
+            if (value instanceof Number number) {
+                numbers[i] = number.longValue();
+            } else if (value instanceof java.util.Date date) {
+                numbers[i] = date.getTime();
+            } else {
+                empty[i] = true;
+                continue;
+            }
+            sorted[present++] = numbers[i];
+        }
+        Arrays.sort(sorted, 0, present);
+        int values = 0;
+        for (int i = 0; i < present; i++) {
+            if (values == 0 || sorted[values - 1] != sorted[i]) sorted[values++] = sorted[i];
+        }
+
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[i] = empty[i] ? -1 : Arrays.binarySearch(sorted, 0, values, numbers[i]);
+        }
+        distinct.put(column, values);
+        return rank;
+    }
+
+    /**
+     * Removes repeated keys from the sorted front of an array.
+     *
+     * @param sorted keys, sorted in {@code [0, length)}
+     * @param length number of keys
+     * @return number of distinct keys, now in {@code [0, result)}
+     */
+    private static int dedupe(CollationKey[] sorted, int length) {
+        int values = 0;
+        for (int i = 0; i < length; i++) {
+            if (values == 0 || sorted[values - 1].compareTo(sorted[i]) != 0) sorted[values++] = sorted[i];
+        }
+        return values;
+    }
+}
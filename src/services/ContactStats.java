@@ -0,0 +1,211 @@
+package services;
+
+import repository.ContactSnapshot;
+
+/**
+ * Mergeable accumulator for contact statistics.
+ * <p>
+ * One instance collects, for any set of contacts:
+ * </p>
+ * <ul>
+ *     <li>the number of contacts and how many have a LinkedIn URL</li>
+ *     <li>the number of known ages and their sum, for the average age</li>
+ *     <li>the youngest and oldest contact by birth date</li>
+ *     <li>the newest and oldest contact by creation time</li>
+ * </ul>
+ * <p>
+ * Contacts are added one snapshot slot at a time with {@link #add}. Two
+ * accumulators over disjoint contacts combine with {@link #merge}, so partial
+ * results of parallel tasks can be joined in any grouping; ties always go to
+ * the lower contact id, which makes the result independent of the split.
+ * </p>
+ */
+public final class ContactStats {
+
+    /** Id reported when no contact qualifies. */
+    public static final int NONE = -1;
+
+    /** Today as a {@code yyyymmdd} number, the reference date for ages. */
+    private final int todayYmd;
+
+    private int count;
+    private int withLinkedin;
+    private int ageCount;
+    private long ageSum;
+
+    private int youngestId = NONE;
+    private int youngestDay;
+    private int oldestId = NONE;
+    private int oldestDay;
+    private int newestCreatedId = NONE;
+    private long newestCreated;
+    private int oldestCreatedId = NONE;
+    private long oldestCreated;
+
+    /**
+     * Creates an empty accumulator.
+     *
+     * @param todayYmd the date ages are computed at, as from {@link ContactSnapshot#toYmd}
+     */
+    public ContactStats(int todayYmd) {
+        this.todayYmd = todayYmd;
+    }
+
+    /**
+     * Adds the contact in a snapshot slot.
+     *
+     * @param snapshot the snapshot
+     * @param slot     the slot
+     */
+    public void add(ContactSnapshot snapshot, int slot) {
+        int id = snapshot.contactId(slot);
+        count++;
+        if (snapshot.hasLinkedin(slot)) withLinkedin++;
+
+        if (snapshot.hasBirthDate(slot)) {
+            int day = snapshot.birthEpochDay(slot);
+            ageSum += (todayYmd - snapshot.birthYmd(slot)) / 10_000;
+            ageCount++;
+            if (youngestId == NONE || day > youngestDay || (day == youngestDay && id < youngestId)) {
+                youngestId = id;
+                youngestDay = day;
+            }
+            if (oldestId == NONE || day < oldestDay || (day == oldestDay && id < oldestId)) {
+                oldestId = id;
+                oldestDay = day;
+            }
+        }
+
+        if (snapshot.hasCreatedAt(slot)) {
+            long time = snapshot.createdAtMillis(slot);
+            if (newestCreatedId == NONE || time > newestCreated || (time == newestCreated && id < newestCreatedId)) {
+                newestCreatedId = id;
+                newestCreated = time;
+            }
+            if (oldestCreatedId == NONE || time < oldestCreated || (time == oldestCreated && id < oldestCreatedId)) {
+                oldestCreatedId = id;
+                oldestCreated = time;
+            }
+        }
+    }
+
+    /**
+     * Adds the figures of another accumulator over different contacts.
+     *
+     * @param other the other accumulator
+     * @return this accumulator, for use as a combiner
+     */
+    public ContactStats merge(ContactStats other) {
+        count += other.count;
+        withLinkedin += other.withLinkedin;
+        ageCount += other.ageCount;
+        ageSum += other.ageSum;
+
+        int id = other.youngestId;
+        if (id != NONE && (youngestId == NONE || other.youngestDay > youngestDay
+                || (other.youngestDay == youngestDay && id < youngestId))) {
+            youngestId = id;
+            youngestDay = other.youngestDay;
+        }
+        id = other.oldestId;
+        if (id != NONE && (oldestId == NONE || other.oldestDay < oldestDay
+                || (other.oldestDay == oldestDay && id < oldestId))) {
+            oldestId = id;
+            oldestDay = other.oldestDay;
+        }
+        id = other.newestCreatedId;
+        if (id != NONE && (newestCreatedId == NONE || other.newestCreated > newestCreated
+                || (other.newestCreated == newestCreated && id < newestCreatedId))) {
+            newestCreatedId = id;
+            newestCreated = other.newestCreated;
+        }
+        id = other.oldestCreatedId;
+        if (id != NONE && (oldestCreatedId == NONE || other.oldestCreated < oldestCreated
+                || (other.oldestCreated == oldestCreated && id < oldestCreatedId))) {
+            oldestCreatedId = id;
+            oldestCreated = other.oldestCreated;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the number of contacts added.
+     *
+     * @return contact count
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the number of contacts with a LinkedIn URL.
+     *
+     * @return LinkedIn count
+     */
+    public int withLinkedin() {
+        return withLinkedin;
+    }
+
+    /**
+     * Returns the number of contacts with a birth date.
+     *
+     * @return number of known ages
+     */
+    public int ageCount() {
+        return ageCount;
+    }
+
+    /**
+     * Returns the sum of all known ages in whole years.
+     *
+     * @return age sum
+     */
+    public long ageSum() {
+        return ageSum;
+    }
+
+    /**
+     * Returns the average age of contacts with a birth date.
+     *
+     * @return the average, or {@link Double#NaN} if no age is known
+     */
+    public double averageAge() {
+        return (ageCount == 0) ? Double.NaN : (double) ageSum / ageCount;
+    }
+
+    /**
+     * Returns the id of the youngest contact.
+     *
+     * @return the id, or {@link #NONE}
+     */
+    public int youngestId() {
+        return youngestId;
+    }
+
+    /**
+     * Returns the id of the oldest contact.
+     *
+     * @return the id, or {@link #NONE}
+     */
+    public int oldestId() {
+        return oldestId;
+    }
+
+    /**
+     * Returns the id of the most recently created contact.
+     *
+     * @return the id, or {@link #NONE}
+     */
+    public int newestCreatedId() {
+        return newestCreatedId;
+    }
+
+    /**
+     * Returns the id of the first created contact.
+     *
+     * @return the id, or {@link #NONE}
+     */
+    public int oldestCreatedId() {
+        return oldestCreatedId;
+    }
+}
@@ -0,0 +1,171 @@
+package services;
+
+import menu.ConsoleWriter;
+import models.Contact;
+import repository.ContactColumn;
+
+import java.util.List;
+
+/**
+ * Prints contacts as a compact fixed-width table, one row per contact.
+ * <p>
+ * The table is printed page by page, so a listing can be streamed from the
+ * database without holding every contact in memory:
+ * </p>
+ * <ul>
+ *     <li>The first page fixes the column widths: each column is as wide as
+ *         its header or its longest value on that page, capped at
+ *         {@link ContactColumn#maxWidth()}</li>
+ *     <li>Later values that do not fit are cut and marked with {@code ~}</li>
+ *     <li>Each page is formatted into {@link ConsoleWriter#row()} and flushed,
+ *         so rows appear while the next page is loading</li>
+ * </ul>
+ *
+ * <p><b>Usage example:</b></p>
+ * <pre>{@code
+ * ContactTableRenderer table = new ContactTableRenderer(ContactColumn.DEFAULT_TABLE);
+ * for (List<Contact> page : pages) {
+ *     table.printPage(page);
+ * }
+ * table.finish();
+ * }</pre>
+ */
+public class ContactTableRenderer {
+
+    /** Space between two columns. */
+    private static final String GAP = "  ";
+
+    private final List<ContactColumn> columns;
+
+    /** Column widths, fixed by the first page. */
+    private int[] widths;
+
+    /** Number of rows printed so far. */
+    private int rows;
+
+    /**
+     * Creates a renderer for the given columns.
+     *
+     * @param columns columns to show, in order; must not be empty
+     */
+    public ContactTableRenderer(List<ContactColumn> columns) {
+        this.columns = List.copyOf(columns);
+    }
+
+    /**
+     * Prints a page of contacts. The first call also samples the column widths
+     * from this page and prints the header.
+     *
+     * @param page contacts to print
+     */
+    public void printPage(List<Contact> page) {
+        if (widths == null) {
+            widths = sampleWidths(page);
+            printHeader();
+        }
+
+        StringBuilder out = ConsoleWriter.row();
+        for (Contact contact : page) {
+            for (int i = 0; i < widths.length; i++) {
+                if (i > 0) out.append(GAP);
+                appendCell(out, columns.get(i).valueOf(contact), widths[i], i == widths.length - 1);
+            }
+            out.append('\n');
+        }
+        ConsoleWriter.print(out);
+        ConsoleWriter.flush();
+        rows += page.size();
+    }
+
+    /**
+     * Prints the table footer with the total row count, or the usual
+     * "No records found." message if nothing was printed.
+     */
+    public void finish() {
+        if (rows == 0) {
+            System.out.println("No records found.");
+            return;
+        }
+        StringBuilder out = ConsoleWriter.row();
+        appendRule(out).append('\n');
+        out.append("TOTAL: ").append(rows).append(" record(s).");
+        ConsoleWriter.println(out);
+        ConsoleWriter.flush();
+    }
+
+    /**
+     * Returns the number of rows printed so far.
+     *
+     * @return printed row count
+     */
+    public int rowCount() {
+        return rows;
+    }
+
+    /**
+     * Computes each column's width from the header and the values on a page.
+     *
+     * @param page the sample page
+     * @return the width of each column
+     */
+    private int[] sampleWidths(List<Contact> page) {
+        int[] result = new int[columns.size()];
+        for (int i = 0; i < result.length; i++) {
+            ContactColumn column = columns.get(i);
+            int width = column.label().length();
+            for (Contact contact : page) {
+                Object value = column.valueOf(contact);
+                if (value != null) width = Math.max(width, value.toString().length());
+            }
+            result[i] = Math.min(width, Math.max(column.maxWidth(), column.label().length()));
+        }
+        return result;
+    }
+
+    /**
+     * Prints the header line and the rule under it.
+     */
+    private void printHeader() {
+        StringBuilder out = ConsoleWriter.row();
+        for (int i = 0; i < widths.length; i++) {
+            if (i > 0) out.append(GAP);
+            appendCell(out, columns.get(i).label(), widths[i], i == widths.length - 1);
+        }
+        out.append('\n');
+        appendRule(out);
+        ConsoleWriter.println(out);
+    }
+
+    /**
+     * Appends a dashed rule as wide as the table.
+     *
+     * @param out the builder to append to
+     * @return {@code out}, for chaining
+     */
+    private StringBuilder appendRule(StringBuilder out) {
+        int total = GAP.length() * (widths.length - 1);
+        for (int width : widths) total += width;
+        for (int i = 0; i < total; i++) out.append('-');
+        return out;
+    }
+
+    /**
+     * Appends a value padded or truncated to the column width.
+     *
+     * @param out   the builder to append to
+     * @param value the value, or {@code null} for an empty cell
+     * @param width the column width
+     * @param last  whether this is the last column, which is not padded
+     */
+    private static void appendCell(StringBuilder out, Object value, int width, boolean last) {
+        String text = (value == null) ? "" : value.toString();
+        if (text.length() > width) {
+            out.append(text, 0, width - 1).append('~');
+            return;
+        }
+        out.append(text);
+        if (!last) {
+            for (int i = text.length(); i < width; i++) out.append(' ');
+        }
+    }
+}
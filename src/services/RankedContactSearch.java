@@ -0,0 +1,225 @@
+package services;
+
+import repository.ContactColumn;
+import repository.ContactIndexes;
+import repository.FuzzyNameIndex;
+import repository.IdBitmap;
+import repository.PhoneIndex;
+import repository.SearchKeyIndex;
+import repository.TurkishText;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Relevance-ranked search over names, e-mail and phone numbers.
+ * <p>
+ * A contact's score is the weight of how the query matched (exact, prefix,
+ * substring, fuzzy) times the weight of the field it matched in (name, e-mail,
+ * phone), so an exact name beats a name prefix, which beats an exact e-mail.
+ * Every (match, field) pair is a tier whose contacts all share one score. The
+ * tiers are visited from the highest score down, each one asking the indexes
+ * for its posting list only when it is reached, and the best {@code k}
+ * contacts are kept in a bounded min-heap.
+ * </p>
+ * <p>
+ * Once the heap is full and the next tier scores below the weakest kept hit,
+ * no later tier can change the result and the search stops, so the expensive
+ * tiers such as fuzzy matching usually never run. Ties are broken by the lower
+ * contact id.
+ * </p>
+ */
+public final class RankedContactSearch {
+
+    /** How the query matched a field, strongest first. */
+    public enum Match {
+        EXACT(4), PREFIX(3), SUBSTRING(2), FUZZY(1);
+
+        private final int weight;
+
+        Match(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /** The fields a query is matched against, most telling first. */
+    public enum FieldGroup {
+        NAME(3), EMAIL(2), PHONE(1);
+
+        private final int weight;
+
+        FieldGroup(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /** Name columns searched as {@link FieldGroup#NAME}. */
+    private static final List<ContactColumn> NAME_FIELDS = List.of(
+            ContactColumn.FIRST_NAME, ContactColumn.MIDDLE_NAME,
+            ContactColumn.LAST_NAME, ContactColumn.NICKNAME);
+
+    /** Phone columns searched as {@link FieldGroup#PHONE}. */
+    private static final List<ContactColumn> PHONE_FIELDS = List.of(
+            ContactColumn.PHONE_PRIMARY, ContactColumn.PHONE_SECONDARY);
+
+    /** Most fuzzy words expanded into contacts. */
+    private static final int FUZZY_WORD_LIMIT = 20;
+
+    /** Orders hits from the weakest to the strongest, the head of the heap. */
+    private static final Comparator<Hit> WEAKEST_FIRST = Comparator.comparingInt(Hit::score)
+            .thenComparing(Comparator.comparingInt(Hit::contactId).reversed());
+
+    private RankedContactSearch() {
+    }
+
+    /**
+     * Finds the best matching contacts for a query.
+     *
+     * @param query the text the user typed; a name, e-mail or phone fragment
+     * @param k     maximum number of hits
+     * @return the hits, best first, at most {@code k}
+     */
+    public static List<Hit> search(String query, int k) {
+        List<Hit> ranked = new ArrayList<>();
+        String folded = TurkishText.fold(query);
+        if (folded == null || k <= 0) return ranked;
+
+        PriorityQueue<Hit> heap = new PriorityQueue<>(k + 1, WEAKEST_FIRST);
+        BitSet seen = new BitSet();
+        for (Tier tier : tiers(query.trim(), folded.indexOf(' ') < 0)) {
+            Hit weakest = (heap.size() < k) ? null : heap.peek();
+            if (weakest != null && tier.score() < weakest.score()) break;
+
+            for (int id : tier.ids().get()) {
+                if (seen.get(id)) continue;
+                if (weakest != null && tier.score() == weakest.score() && id > weakest.contactId()) break;
+                seen.set(id);
+                heap.add(new Hit(id, tier.score(), tier.field(), tier.match()));
+                if (heap.size() > k) heap.poll();
+                weakest = (heap.size() < k) ? null : heap.peek();
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll());
+        }
+        ranked.sort(WEAKEST_FIRST.reversed());
+        return ranked;
+    }
+
+    /**
+     * Lists the tiers that apply to a query, highest score first. The query
+     * is passed to the indexes as typed, since each one normalizes it itself;
+     * an ASCII query, for example, also matches names with diacritics.
+     *
+     * @param text       the query as typed
+     * @param singleWord whether the query is a single word
+     * @return the tiers
+     */
+    private static List<Tier> tiers(String text, boolean singleWord) {
+        SearchKeyIndex keys = ContactIndexes.get().searchKeys();
+        String digits = PhoneIndex.digitsOf(text);
+
+        List<Tier> tiers = new ArrayList<>();
+        tiers.add(new Tier(FieldGroup.NAME, Match.EXACT, () -> union(
+                find(NAME_FIELDS, field -> keys.findEqual(field, text)),
+                singleWord ? ContactIndexes.get().names().idsForWord(text) : new int[0])));
+        tiers.add(new Tier(FieldGroup.NAME, Match.PREFIX, () -> find(NAME_FIELDS, field -> keys.findStartingWith(field, text))));
+        tiers.add(new Tier(FieldGroup.NAME, Match.SUBSTRING, () -> find(NAME_FIELDS, field -> keys.findContaining(field, text))));
+        if (singleWord) {
+            tiers.add(new Tier(FieldGroup.NAME, Match.FUZZY, () -> fuzzy(text)));
+        }
+
+        tiers.add(new Tier(FieldGroup.EMAIL, Match.EXACT, () -> keys.findEqual(ContactColumn.EMAIL, text)));
+        tiers.add(new Tier(FieldGroup.EMAIL, Match.PREFIX, () -> keys.findStartingWith(ContactColumn.EMAIL, text)));
+        tiers.add(new Tier(FieldGroup.EMAIL, Match.SUBSTRING, () -> keys.findContaining(ContactColumn.EMAIL, text)));
+
+        if (digits != null) {
+            PhoneIndex phones = ContactIndexes.get().phones();
+            tiers.add(new Tier(FieldGroup.PHONE, Match.EXACT, () -> phones.find(digits, PhoneIndex.Match.EXACT)));
+            tiers.add(new Tier(FieldGroup.PHONE, Match.PREFIX, () -> phones.find(digits, PhoneIndex.Match.PREFIX)));
+            tiers.add(new Tier(FieldGroup.PHONE, Match.SUBSTRING, () -> find(PHONE_FIELDS, field -> keys.findContaining(field, text))));
+        }
+
+        tiers.sort(Comparator.comparingInt(Tier::score).reversed()
+                .thenComparing(Tier::match)
+                .thenComparing(Tier::field));
+        return tiers;
+    }
+
+    /**
+     * Finds the contacts with a name word close to the query. Contacts already
+     * found by a stronger tier are skipped by the caller, so words at distance
+     * zero only add names that differ from the query in diacritics.
+     *
+     * @param word the query word as typed
+     * @return matching ids in ascending order
+     */
+    private static int[] fuzzy(String word) {
+        FuzzyNameIndex fuzzyNames = ContactIndexes.get().fuzzyNames();
+        int maxDistance = (word.length() <= 4) ? 1 : 2;
+        int[] ids = new int[0];
+        for (FuzzyNameIndex.Candidate candidate : fuzzyNames.search(word, maxDistance, FUZZY_WORD_LIMIT)) {
+            ids = union(ids, fuzzyNames.idsForWord(candidate.key()));
+        }
+        return ids;
+    }
+
+    /**
+     * Runs one lookup per column and merges the results.
+     *
+     * @param fields the columns
+     * @param lookup the lookup of one column
+     * @return the union of the results in ascending order
+     */
+    private static int[] find(List<ContactColumn> fields, Function<ContactColumn, int[]> lookup) {
+        int[] ids = new int[0];
+        for (ContactColumn field : fields) {
+            ids = union(ids, lookup.apply(field));
+        }
+        return ids;
+    }
+
+    /**
+     * Merges two ascending id arrays.
+     *
+     * @param a sorted ids
+     * @param b sorted ids
+     * @return the ids in either array, ascending
+     */
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) return b;
+        if (b.length == 0) return a;
+        return IdBitmap.of(a).or(IdBitmap.of(b)).toArray();
+    }
+
+    /**
+     * One matching contact.
+     *
+     * @param contactId the contact id
+     * @param score     match weight times field weight; higher is better
+     * @param field     the field group of the best match
+     * @param match     how the query matched that field
+     */
+    public record Hit(int contactId, int score, FieldGroup field, Match match) {
+    }
+
+    /**
+     * The contacts matching the query in one way in one field group.
+     *
+     * @param field the field group
+     * @param match how the query must match
+     * @param ids   computes the ids in ascending order when the tier is reached
+     */
+    private record Tier(FieldGroup field, Match match, Supplier<int[]> ids) {
+
+        int score() {
+            return match.weight * field.weight;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package services;
+
+import database.DataBaseConnection;
+import repository.ContactIndexes;
+import repository.ContactRepository;
+import repository.UserRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background warm-up pipeline that runs while the intro animation plays.
+ * <p>
+ * Without it, the first login pays for loading the JDBC driver, opening a
+ * cold connection and JIT-compiling the row mappers. The warm-up performs
+ * these steps on a daemon thread, in order:
+ * </p>
+ * <ul>
+ *     <li>Loading the MySQL driver</li>
+ *     <li>Filling the connection pool</li>
+ *     <li>Priming the hot user and contact statements</li>
+ *     <li>Preloading contacts and users (warms the server buffer pool and the mappers);
+ *         the contacts are used to build the in-memory {@link ContactIndexes}</li>
+ * </ul>
+ * <p>
+ * Progress is exposed through {@link #progress()} and {@link #currentStep()}
+ * so the loading screen can show real progress. If the database is
+ * unreachable, the remaining database steps are skipped silently and the
+ * normal error reporting happens on the first real query instead.
+ * </p>
+ */
+public class StartupWarmUp {
+
+    /** A single named unit of warm-up work. */
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    /** Display names of the steps, in execution order. */
+    private final List<String> names = new ArrayList<>();
+
+    /** The work for each step, parallel to {@link #names}. */
+    private final List<Step> steps = new ArrayList<>();
+
+    /** Whether each step needs a reachable database, parallel to {@link #names}. */
+    private final List<Boolean> needsDatabase = new ArrayList<>();
+
+    /** Released once every step has finished or been skipped. */
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /** Number of finished steps. */
+    private volatile int completed;
+
+    /** Name of the step currently running. */
+    private volatile String current = "Starting...";
+
+    /** Becomes {@code true} once the database turned out to be unreachable. */
+    private volatile boolean databaseUnavailable;
+
+    /**
+     * Creates the warm-up pipeline without starting it.
+     */
+    public StartupWarmUp() {
+        ContactRepository contactRepository = new ContactRepository();
+        UserRepository userRepository = new UserRepository();
+
+        add("Loading database driver...", false, () -> {
+            if (!DataBaseConnection.loadDriver()) databaseUnavailable = true;
+        });
+        add("Opening connection pool...", false, () -> {
+            try {
+                DataBaseConnection.fillPool();
+            } catch (SQLException e) {
+                databaseUnavailable = true;
+            }
+        });
+        add("Priming queries...", true, () -> {
+            userRepository.findByUsername("");
+            contactRepository.findById(0);
+        });
+        add("Preloading contacts...", true, () -> ContactIndexes.get().load());
+        add("Preloading users...", true, userRepository::findAll);
+    }
+
+    /**
+     * Creates the pipeline and starts it on a background daemon thread.
+     *
+     * @return the running warm-up
+     */
+    public static StartupWarmUp start() {
+        StartupWarmUp warmUp = new StartupWarmUp();
+        Thread thread = new Thread(warmUp::runSteps, "startup-warmup");
+        thread.setDaemon(true);
+        thread.start();
+        return warmUp;
+    }
+
+    /**
+     * Returns the fraction of finished steps.
+     *
+     * @return a value between {@code 0.0} and {@code 1.0}
+     */
+    public double progress() {
+        return steps.isEmpty() ? 1.0 : (double) completed / steps.size();
+    }
+
+    /**
+     * Returns a short description of what the warm-up is doing right now.
+     *
+     * @return the current step name, or {@code "Ready"} when finished
+     */
+    public String currentStep() {
+        return current;
+    }
+
+    /**
+     * Checks whether every step has finished.
+     *
+     * @return {@code true} if the warm-up is complete
+     */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Blocks until the warm-up finishes or the timeout expires.
+     *
+     * @param timeoutMs maximum time to wait in milliseconds
+     * @return {@code true} if the warm-up finished within the timeout
+     */
+    public boolean awaitDone(long timeoutMs) {
+        try {
+            return done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Registers a step.
+     *
+     * @param name       display name shown on the loading screen
+     * @param requiresDb whether the step is skipped once the database is known to be unreachable
+     * @param step       the work to perform
+     */
+    private void add(String name, boolean requiresDb, Step step) {
+        names.add(name);
+        needsDatabase.add(requiresDb);
+        steps.add(step);
+    }
+
+    /**
+     * Runs every step in order. Steps after a failed connection attempt are
+     * skipped so nothing is printed over the running animation.
+     */
+    private void runSteps() {
+        try {
+            for (int i = 0; i < steps.size(); i++) {
+                current = names.get(i);
+                if (!needsDatabase.get(i) || !databaseUnavailable) {
+                    try {
+                        steps.get(i).run();
+                    } catch (Exception e) {
+                        // Warm-up is best effort; real errors surface on first use.
+                    }
+                }
+                completed = i + 1;
+            }
+        } finally {
+            current = databaseUnavailable ? "Database offline, continuing..." : "Ready";
+            done.countDown();
+        }
+    }
+}